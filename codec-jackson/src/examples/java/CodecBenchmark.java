@@ -0,0 +1,66 @@
+import me.shivzee.codec.jackson.JacksonCodec;
+import me.shivzee.util.GsonCodec;
+import me.shivzee.util.JsonCodec;
+import me.shivzee.util.Message;
+import me.shivzee.util.MessageSummary;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Compares the default Gson codec against the Jackson codec on a full page of message
+ * summaries (the listing path) and on a single full message: throughput and bytes
+ * allocated per decode once warm. Allocation is read from the HotSpot thread MXBean.
+ */
+public class CodecBenchmark {
+
+    private static final String SUMMARY = "{\"@id\":\"/messages/65f1c0ffee%02d\",\"@type\":\"Message\","
+            + "\"id\":\"65f1c0ffee%02d\",\"msgid\":\"<abc%02d@mail.example.com>\","
+            + "\"from\":{\"address\":\"noreply@example.com\",\"name\":\"Example\"},"
+            + "\"to\":[{\"address\":\"user@mail.tm\",\"name\":\"\"}],\"subject\":\"Verify your account\","
+            + "\"intro\":\"Your verification code is 123456, it expires in ten minutes\",\"seen\":false,"
+            + "\"isDeleted\":false,\"hasAttachments\":false,\"size\":2500,"
+            + "\"downloadUrl\":\"/messages/65f1c0ffee%02d/download\","
+            + "\"createdAt\":\"2024-01-01T10:00:00+00:00\",\"updatedAt\":\"2024-01-01T10:00:00+00:00\"}";
+
+    private static final String MESSAGE = "{\"id\":\"65f1c0ffee\",\"msgid\":\"<abc@mail.example.com>\","
+            + "\"from\":{\"address\":\"noreply@example.com\",\"name\":\"Example\"},"
+            + "\"to\":[{\"address\":\"user@mail.tm\",\"name\":\"\"}],"
+            + "\"subject\":\"Verify your account\",\"text\":\"Your verification code is 123456\","
+            + "\"seen\":false,\"flagged\":false,\"isDeleted\":false,\"retention\":true,"
+            + "\"retentionDate\":\"2024-01-08T10:00:00+00:00\",\"html\":[\"<p>Your verification code is 123456</p>\"],"
+            + "\"hasAttachments\":true,\"attachments\":[{\"id\":\"ATTACH000001\",\"filename\":\"invoice.pdf\","
+            + "\"contentType\":\"application/pdf\",\"disposition\":\"attachment\",\"transferEncoding\":\"base64\","
+            + "\"related\":false,\"size\":120,\"downloadUrl\":\"/messages/65f1c0ffee/attachment/ATTACH000001\"}],"
+            + "\"size\":2500,\"downloadUrl\":\"/messages/65f1c0ffee/download\","
+            + "\"createdAt\":\"2024-01-01T10:00:00+00:00\",\"updatedAt\":\"2024-01-01T10:00:00+00:00\"}";
+
+    public static void main(String[] args) {
+        StringBuilder page = new StringBuilder("[");
+        for (int i = 0; i < 30; i++) {
+            page.append(i == 0 ? "" : ",").append(String.format(SUMMARY, i, i, i, i));
+        }
+        String listing = page.append(']').toString();
+
+        JsonCodec gson = GsonCodec.getInstance();
+        JsonCodec jackson = new JacksonCodec();
+        for (int round = 0; round < 5; round++) {
+            measure("listing gson   ", gson, listing, MessageSummary[].class, 50_000);
+            measure("listing jackson", jackson, listing, MessageSummary[].class, 50_000);
+            measure("message gson   ", gson, MESSAGE, Message.class, 500_000);
+            measure("message jackson", jackson, MESSAGE, Message.class, 500_000);
+        }
+    }
+
+    private static void measure(String name, JsonCodec codec, String json, Class<?> type, int iterations) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long allocated = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            codec.fromJson(json, type, "token", true);
+        }
+        long elapsed = System.nanoTime() - start;
+        allocated = threads.getThreadAllocatedBytes(thread) - allocated;
+        System.out.printf("%s : %.0f ops/s, %d bytes/op%n", name, iterations / (elapsed / 1e9), allocated / iterations);
+    }
+}
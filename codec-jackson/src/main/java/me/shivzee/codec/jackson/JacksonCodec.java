@@ -0,0 +1,74 @@
+package me.shivzee.codec.jackson;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.google.gson.JsonParseException;
+import me.shivzee.util.GsonCodec;
+import me.shivzee.util.JsonCodec;
+
+import java.io.IOException;
+
+/**
+ * A {@link JsonCodec} that tokenizes with the jackson-core streaming parser.
+ * <p>
+ * Values are still bound by the library's own model adapters, only the tokenizer changes,
+ * so decoded models are identical to the ones of {@link GsonCodec}. Encoding, which the
+ * library only does for {@link me.shivzee.util.Message#getRawJson()}, is left to Gson.
+ * </p>
+ * <p>
+ * The codec is registered with {@link java.util.ServiceLoader}, having this jar on the
+ * classpath makes it the default. It can also be set explicitly:
+ * <pre>{@code
+ * JsonCodec.setDefault(new JacksonCodec());
+ * }</pre>
+ *
+ * @see JsonCodec#setDefault(JsonCodec)
+ */
+public final class JacksonCodec implements JsonCodec {
+
+    private final JsonFactory factory = new JsonFactory();
+    private final ThreadLocal<JacksonJsonReader> readers = ThreadLocal.withInitial(JacksonJsonReader::new);
+
+    /**
+     * Constructs a new JacksonCodec, called by {@link java.util.ServiceLoader}.
+     */
+    public JacksonCodec() {
+    }
+
+    @Override
+    public <T> T fromJson(String json, Class<T> type, String bearerToken, boolean decodeHtml) {
+        JacksonJsonReader in = reader();
+        try (JsonParser parser = factory.createParser(json)) {
+            in.reset(parser);
+            return GsonCodec.getInstance().fromJson(in, type, bearerToken, decodeHtml);
+        } catch (IOException | IllegalStateException | NumberFormatException e) {
+            throw new JsonParseException(e);
+        } finally {
+            in.reset(null);
+        }
+    }
+
+    @Override
+    public String toJson(Object value) {
+        return GsonCodec.getInstance().toJson(value);
+    }
+
+    @Override
+    public String readString(String json, String member) {
+        JacksonJsonReader in = reader();
+        try (JsonParser parser = factory.createParser(json)) {
+            in.reset(parser);
+            return GsonCodec.readString(in, member);
+        } catch (IOException | IllegalStateException e) {
+            return null;
+        } finally {
+            in.reset(null);
+        }
+    }
+
+    private JacksonJsonReader reader() {
+        JacksonJsonReader in = readers.get();
+        // A nested decode on the same thread gets its own reader
+        return in.isInUse() ? new JacksonJsonReader() : in;
+    }
+}
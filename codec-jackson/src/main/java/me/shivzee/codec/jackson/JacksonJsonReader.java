@@ -0,0 +1,203 @@
+package me.shivzee.codec.jackson;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+
+/**
+ * A Gson {@link JsonReader} whose tokens come from a Jackson {@link JsonParser}.
+ * <p>
+ * The library binds its models with streaming adapters written against {@link JsonReader},
+ * so swapping the tokenizer underneath is enough to decode them with Jackson.
+ * </p>
+ */
+final class JacksonJsonReader extends JsonReader {
+
+    private static final Reader UNUSED = new StringReader("");
+
+    private JsonParser parser;
+    private JsonToken peeked;
+
+    JacksonJsonReader() {
+        super(UNUSED);
+    }
+
+    /**
+     * Points the reader at a new parser. The superclass allocates its buffers on construction,
+     * so readers are reused rather than built per document.
+     *
+     * @param parser the parser to read from, or null to release the current one
+     */
+    void reset(JsonParser parser) {
+        this.parser = parser;
+        this.peeked = null;
+    }
+
+    boolean isInUse() {
+        return parser != null;
+    }
+
+    @Override
+    public JsonToken peek() throws IOException {
+        if (peeked == null) {
+            peeked = map(parser.nextToken());
+        }
+        return peeked;
+    }
+
+    private JsonToken map(com.fasterxml.jackson.core.JsonToken token) {
+        if (token == null) {
+            return JsonToken.END_DOCUMENT;
+        }
+        switch (token) {
+            case START_OBJECT: return JsonToken.BEGIN_OBJECT;
+            case END_OBJECT: return JsonToken.END_OBJECT;
+            case START_ARRAY: return JsonToken.BEGIN_ARRAY;
+            case END_ARRAY: return JsonToken.END_ARRAY;
+            case FIELD_NAME: return JsonToken.NAME;
+            case VALUE_STRING: return JsonToken.STRING;
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT: return JsonToken.NUMBER;
+            case VALUE_TRUE:
+            case VALUE_FALSE: return JsonToken.BOOLEAN;
+            case VALUE_NULL: return JsonToken.NULL;
+            default: throw new IllegalStateException("Unsupported token " + token + " at " + getPath());
+        }
+    }
+
+    private void consume(JsonToken expected) throws IOException {
+        if (peek() != expected) {
+            throw unexpected(expected);
+        }
+        peeked = null;
+    }
+
+    private IllegalStateException unexpected(JsonToken expected) throws IOException {
+        return new IllegalStateException("Expected " + expected + " but was " + peek() + " at " + getPath());
+    }
+
+    @Override
+    public void beginArray() throws IOException {
+        consume(JsonToken.BEGIN_ARRAY);
+    }
+
+    @Override
+    public void endArray() throws IOException {
+        consume(JsonToken.END_ARRAY);
+    }
+
+    @Override
+    public void beginObject() throws IOException {
+        consume(JsonToken.BEGIN_OBJECT);
+    }
+
+    @Override
+    public void endObject() throws IOException {
+        consume(JsonToken.END_OBJECT);
+    }
+
+    @Override
+    public boolean hasNext() throws IOException {
+        JsonToken token = peek();
+        return token != JsonToken.END_OBJECT && token != JsonToken.END_ARRAY && token != JsonToken.END_DOCUMENT;
+    }
+
+    @Override
+    public String nextName() throws IOException {
+        consume(JsonToken.NAME);
+        return parser.currentName();
+    }
+
+    @Override
+    public String nextString() throws IOException {
+        JsonToken token = peek();
+        if (token != JsonToken.STRING && token != JsonToken.NUMBER) {
+            throw unexpected(JsonToken.STRING);
+        }
+        peeked = null;
+        return parser.getText();
+    }
+
+    @Override
+    public boolean nextBoolean() throws IOException {
+        consume(JsonToken.BOOLEAN);
+        return parser.getBooleanValue();
+    }
+
+    @Override
+    public void nextNull() throws IOException {
+        consume(JsonToken.NULL);
+    }
+
+    @Override
+    public double nextDouble() throws IOException {
+        JsonToken token = peek();
+        if (token == JsonToken.STRING) {
+            peeked = null;
+            return Double.parseDouble(parser.getText());
+        }
+        consume(JsonToken.NUMBER);
+        return parser.getDoubleValue();
+    }
+
+    @Override
+    public long nextLong() throws IOException {
+        JsonToken token = peek();
+        if (token == JsonToken.STRING) {
+            peeked = null;
+            return Long.parseLong(parser.getText());
+        }
+        consume(JsonToken.NUMBER);
+        JsonParser.NumberType type = parser.getNumberType();
+        if (type == JsonParser.NumberType.INT || type == JsonParser.NumberType.LONG) {
+            return parser.getLongValue();
+        }
+        double value = parser.getDoubleValue();
+        if ((long) value != value) {
+            throw new NumberFormatException("Expected a long but was " + parser.getText() + " at " + getPath());
+        }
+        return (long) value;
+    }
+
+    @Override
+    public int nextInt() throws IOException {
+        long value = nextLong();
+        if ((int) value != value) {
+            throw new NumberFormatException("Expected an int but was " + value + " at " + getPath());
+        }
+        return (int) value;
+    }
+
+    @Override
+    public void skipValue() throws IOException {
+        if (peek() == JsonToken.NAME) {
+            // Skip the name together with its value, as Gson does
+            peeked = null;
+        }
+        JsonToken token = peek();
+        if (token == JsonToken.END_OBJECT || token == JsonToken.END_ARRAY || token == JsonToken.END_DOCUMENT) {
+            throw new IllegalStateException("Nothing to skip at " + getPath());
+        }
+        parser.skipChildren();
+        peeked = null;
+    }
+
+    @Override
+    public String getPath() {
+        return parser == null ? "" : parser.getParsingContext().pathAsPointer().toString();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + " at " + getPath();
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+}
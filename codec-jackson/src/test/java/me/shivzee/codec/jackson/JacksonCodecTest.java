@@ -0,0 +1,73 @@
+package me.shivzee.codec.jackson;
+
+import me.shivzee.util.Account;
+import me.shivzee.util.Domain;
+import me.shivzee.util.GsonCodec;
+import me.shivzee.util.JsonCodec;
+import me.shivzee.util.Message;
+import me.shivzee.util.MessageSummary;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class JacksonCodecTest {
+
+    private static final String MESSAGE = "{\"id\":\"m1\",\"msgid\":\"<x@example.com>\","
+            + "\"from\":{\"address\":\"a@example.com\",\"name\":\"A \\\"quoted\\\" \\u00e9\"},\"to\":[{\"address\":\"u@mail.tm\",\"name\":null}],"
+            + "\"subject\":\"Hello\\nWorld\",\"text\":\"Body\",\"seen\":true,\"flagged\":false,\"isDeleted\":false,"
+            + "\"retention\":true,\"retentionDate\":\"2024-01-08T10:00:00+00:00\",\"html\":[\"<p>\",null,\"Body</p>\"],"
+            + "\"hasAttachments\":true,\"attachments\":[{\"id\":\"ATT1\",\"filename\":\"f.pdf\",\"contentType\":\"application/pdf\","
+            + "\"disposition\":\"attachment\",\"transferEncoding\":\"base64\",\"related\":false,\"size\":12.0,"
+            + "\"downloadUrl\":\"/messages/m1/attachment/ATT1\"}],\"size\":99,\"downloadUrl\":\"/messages/m1/download\","
+            + "\"createdAt\":\"2024-01-01T10:00:00+00:00\",\"updatedAt\":\"2024-01-01T10:05:00+00:00\","
+            + "\"@context\":\"/contexts/Message\",\"extra\":{\"nested\":[1,2.5,{\"a\":null}],\"b\":true}}";
+
+    private final JsonCodec jackson = new JacksonCodec();
+    private final JsonCodec gson = GsonCodec.getInstance();
+
+    @Test
+    public void testDiscoveredByServiceLoader() {
+        Assert.assertTrue(JsonCodec.getDefault() instanceof JacksonCodec);
+    }
+
+    @Test
+    public void testMessageMatchesGson() {
+        Message expected = gson.fromJson(MESSAGE, Message.class, "token", true);
+        Message actual = jackson.fromJson(MESSAGE, Message.class, "token", true);
+
+        Assert.assertEquals(gson.toJson(actual), gson.toJson(expected));
+        Assert.assertEquals(actual.getSenderName(), "A \"quoted\" \u00e9");
+        Assert.assertEquals(actual.getSubject(), "Hello\nWorld");
+        Assert.assertNull(jackson.fromJson(MESSAGE, Message.class, "token", false).getHtml());
+    }
+
+    @Test
+    public void testModelsMatchGson() {
+        String summaries = "[{\"id\":\"s1\",\"from\":{\"address\":\"q@example.com\"},\"to\":[\"z@mail.tm\"],"
+                + "\"subject\":\"S\",\"intro\":\"I\",\"seen\":false,\"size\":3},null]";
+        String account = "{\"id\":\"a1\",\"address\":\"x@mail.tm\",\"quota\":40000000,\"used\":0,"
+                + "\"isDisabled\":false,\"isDeleted\":null,\"createdAt\":\"2024-01-01T10:00:00+00:00\"}";
+        String domains = "[{\"id\":\"d1\",\"domain\":\"mail.tm\",\"isActive\":true,\"isPrivate\":false}]";
+
+        Assert.assertEquals(gson.toJson(jackson.fromJson(summaries, MessageSummary[].class, null, true)),
+                gson.toJson(gson.fromJson(summaries, MessageSummary[].class, null, true)));
+        Assert.assertEquals(gson.toJson(jackson.fromJson(account, Account.class, null, true)),
+                gson.toJson(gson.fromJson(account, Account.class, null, true)));
+        Assert.assertEquals(gson.toJson(jackson.fromJson(domains, Domain[].class, null, true)),
+                gson.toJson(gson.fromJson(domains, Domain[].class, null, true)));
+    }
+
+    @Test
+    public void testReadString() {
+        Assert.assertEquals(jackson.readString(MESSAGE, "subject"), "Hello\nWorld");
+        Assert.assertEquals(jackson.readString(MESSAGE, "size"), "99");
+        Assert.assertEquals(jackson.readString(MESSAGE, "seen"), "true");
+        Assert.assertNull(jackson.readString(MESSAGE, "extra"));
+        Assert.assertNull(jackson.readString(MESSAGE, "missing"));
+        Assert.assertNull(jackson.readString("{\"id\":", "id"));
+    }
+
+    @Test(expectedExceptions = com.google.gson.JsonParseException.class)
+    public void testMalformedJsonFails() {
+        jackson.fromJson("{\"id\":\"m1\",", Message.class, null, true);
+    }
+}
@@ -0,0 +1,53 @@
+package me.shivzee.sample;
+
+import me.shivzee.JMailTM;
+import me.shivzee.extract.Extraction;
+import me.shivzee.extract.ExtractionPipeline;
+import me.shivzee.util.JMailBuilder;
+import me.shivzee.util.Message;
+import me.shivzee.util.Utility;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * A worker that creates an inbox, waits for one mail, prints its code and exits.
+ * <p>
+ * Usage: {@code native-worker [timeoutSeconds]}. Pass {@code -Djmailtm.baseUrl=...} to run
+ * against another server.
+ * </p>
+ */
+public final class NativeWorker {
+
+    private NativeWorker() {
+    }
+
+    public static void main(String[] args) {
+        long seconds = args.length > 0 ? Long.parseLong(args[0]) : 120;
+        System.exit(run(Duration.ofSeconds(seconds), System.out));
+    }
+
+    static int run(Duration timeout, PrintStream out) {
+        JMailTM mailer = null;
+        try {
+            mailer = JMailBuilder.createDefault(Utility.createRandomString(12));
+            out.println("address " + mailer.getAddress());
+            Message message = mailer.awaitMessage(summary -> true, timeout).get();
+            Extraction extraction = ExtractionPipeline.defaults().extract(message);
+            out.println("subject " + message.getSubject());
+            out.println("code " + extraction.getCode());
+            return 0;
+        } catch (ExecutionException e) {
+            out.println("error " + e.getCause());
+            return 1;
+        } catch (Exception e) {
+            out.println("error " + e);
+            return 1;
+        } finally {
+            if (mailer != null) {
+                mailer.delete();
+            }
+        }
+    }
+}
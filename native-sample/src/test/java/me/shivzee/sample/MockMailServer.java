@@ -0,0 +1,78 @@
+package me.shivzee.sample;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Serves the part of the mail.tm API the worker uses, with one message in the inbox.
+ */
+class MockMailServer implements Closeable {
+
+    private static final String ACCOUNT = "{\"id\":\"a1\",\"address\":\"worker@mock.test\",\"quota\":40000000,\"used\":0,"
+            + "\"isDisabled\":false,\"isDeleted\":false,\"createdAt\":\"2024-01-01T10:00:00+00:00\","
+            + "\"updatedAt\":\"2024-01-01T10:00:00+00:00\"}";
+    private static final String SUMMARY = "{\"id\":\"m1\",\"msgid\":\"<m1@example.com>\","
+            + "\"from\":{\"address\":\"noreply@example.com\",\"name\":\"Example\"},"
+            + "\"to\":[{\"address\":\"worker@mock.test\",\"name\":\"\"}],\"subject\":\"Verify your account\","
+            + "\"intro\":\"Your code is 482913\",\"seen\":false,\"isDeleted\":false,\"hasAttachments\":false,"
+            + "\"size\":1200,\"downloadUrl\":\"/messages/m1/download\","
+            + "\"createdAt\":\"2024-01-01T10:01:00+00:00\",\"updatedAt\":\"2024-01-01T10:01:00+00:00\"}";
+    private static final String MESSAGE = SUMMARY.substring(0, SUMMARY.length() - 1)
+            + ",\"text\":\"Your code is 482913\",\"html\":[\"<p>Your code is <b>482913</b></p>\"],\"attachments\":[]}";
+
+    private final MockWebServer server = new MockWebServer();
+
+    MockMailServer() throws IOException {
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String path = request.getPath();
+                String method = request.getMethod();
+                if (path.startsWith("/domains?page=1")) {
+                    return json(200, "[{\"id\":\"d1\",\"domain\":\"mock.test\",\"isActive\":true,\"isPrivate\":false}]");
+                } else if (path.startsWith("/domains")) {
+                    return json(200, "[]");
+                } else if (path.equals("/accounts") && method.equals("POST")) {
+                    return json(201, ACCOUNT);
+                } else if (path.equals("/token")) {
+                    return json(200, "{\"token\":\"mock-token\",\"id\":\"a1\"}");
+                } else if (path.equals("/me")) {
+                    return json(200, ACCOUNT);
+                } else if (path.startsWith("/messages?page=1")) {
+                    return json(200, "[" + SUMMARY + "]");
+                } else if (path.startsWith("/messages?")) {
+                    return json(200, "[]");
+                } else if (path.equals("/messages/m1")) {
+                    return json(200, MESSAGE);
+                } else if (path.equals("/accounts/a1") && method.equals("DELETE")) {
+                    return new MockResponse().setResponseCode(204);
+                }
+                return json(404, "{}");
+            }
+        });
+        server.start();
+    }
+
+    private static MockResponse json(int code, String body) {
+        return new MockResponse().setResponseCode(code).setHeader("Content-Type", "application/json").setBody(body);
+    }
+
+    String getBaseUrl() {
+        String url = server.url("/").toString();
+        return url.substring(0, url.length() - 1);
+    }
+
+    int getRequestCount() {
+        return server.getRequestCount();
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.shutdown();
+    }
+}
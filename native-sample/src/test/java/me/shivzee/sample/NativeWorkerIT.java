@@ -0,0 +1,42 @@
+package me.shivzee.sample;
+
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the native binary built by the {@code native} profile against the mock server.
+ */
+public class NativeWorkerIT {
+
+    @Test
+    public void testNativeBinaryPrintsCode() throws Exception {
+        String binary = System.getProperty("native.binary");
+        if (binary == null || !new File(binary).canExecute()) {
+            throw new SkipException("No native binary at " + binary);
+        }
+        try (MockMailServer server = new MockMailServer()) {
+            Process process = new ProcessBuilder(binary, "-Djmailtm.baseUrl=" + server.getBaseUrl(), "10")
+                    .redirectErrorStream(true)
+                    .start();
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            try (InputStream in = process.getInputStream()) {
+                byte[] buffer = new byte[4096];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    output.write(buffer, 0, read);
+                }
+            }
+            Assert.assertTrue(process.waitFor(30, TimeUnit.SECONDS), "native worker did not exit");
+
+            String printed = output.toString("UTF-8");
+            Assert.assertEquals(process.exitValue(), 0, printed);
+            Assert.assertTrue(printed.contains("code 482913"), printed);
+        }
+    }
+}
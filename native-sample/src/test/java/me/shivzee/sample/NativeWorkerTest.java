@@ -0,0 +1,42 @@
+package me.shivzee.sample;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.time.Duration;
+
+/**
+ * Runs the worker on the JVM against the mock server.
+ */
+public class NativeWorkerTest {
+
+    private MockMailServer server;
+
+    @BeforeClass
+    public void startServer() throws Exception {
+        server = new MockMailServer();
+        // Read once when the library is first used, so set it before anything touches it
+        System.setProperty("jmailtm.baseUrl", server.getBaseUrl());
+    }
+
+    @AfterClass
+    public void stopServer() throws Exception {
+        server.close();
+    }
+
+    @Test
+    public void testWorkerPrintsCode() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        int status = NativeWorker.run(Duration.ofSeconds(10), new PrintStream(output, true));
+
+        String printed = output.toString();
+        Assert.assertEquals(status, 0, printed);
+        Assert.assertTrue(printed.contains("@mock.test"), printed);
+        Assert.assertTrue(printed.contains("code 482913"), printed);
+    }
+}
@@ -0,0 +1,64 @@
+import me.shivzee.util.CompactMessage;
+import me.shivzee.util.JsonCodec;
+import me.shivzee.util.Message;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares the retained heap of Message against CompactMessage.
+ * Decodes messages shaped like the API's response (without HTML) from a handful of senders
+ * and measures the used heap after a full GC. Run with a fixed heap, e.g. -Xms1g -Xmx1g.
+ */
+public class MessageFootprintBenchmark {
+
+    private static final int COUNT = 100_000;
+
+    public static void main(String[] args) throws Exception {
+        JsonCodec codec = JsonCodec.getDefault();
+
+        long baseline = usedHeap();
+        List<Message> messages = new ArrayList<>(COUNT);
+        for (int i = 0; i < COUNT; i++) {
+            messages.add(codec.fromJson(json(i), Message.class, "token", true));
+        }
+        long full = usedHeap() - baseline;
+        System.out.printf("Message        : %d bytes/message%n", full / COUNT);
+
+        List<CompactMessage> compact = compact(messages);
+        messages = null;
+        long compacted = usedHeap() - baseline;
+        System.out.printf("CompactMessage : %d bytes/message%n", compacted / COUNT);
+        System.out.println(compact.size() + " messages kept");
+    }
+
+    private static List<CompactMessage> compact(List<Message> messages) throws Exception {
+        List<CompactMessage> compact = new ArrayList<>(messages.size());
+        for (Message message : messages) {
+            compact.add(message.compact());
+        }
+        return compact;
+    }
+
+    private static String json(int i) {
+        // Every message is decoded from its own string, like separate API responses
+        String id = String.format("65f1c0%018x", i);
+        return "{\"id\":\"" + id + "\",\"msgid\":\"<" + i + "@mail.example.com>\","
+                + "\"from\":{\"address\":\"noreply" + (i % 10) + "@example.com\",\"name\":\"Example " + (i % 10) + "\"},"
+                + "\"to\":[{\"address\":\"user@mail.tm\",\"name\":\"\"}],"
+                + "\"subject\":\"Verify your account " + i + "\",\"text\":\"Your verification code is " + (100000 + i) + "\","
+                + "\"seen\":false,\"flagged\":false,\"isDeleted\":false,\"retention\":true,"
+                + "\"retentionDate\":\"2024-01-08T10:00:00+00:00\",\"hasAttachments\":false,\"attachments\":[],"
+                + "\"size\":2500,\"downloadUrl\":\"/messages/" + id + "/download\","
+                + "\"createdAt\":\"2024-01-01T10:00:00+00:00\",\"updatedAt\":\"2024-01-01T10:00:00+00:00\"}";
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,58 @@
+import com.google.gson.Gson;
+import com.google.gson.JsonParser;
+import me.shivzee.util.GsonCodec;
+import me.shivzee.util.Message;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Compares Gson's reflective binding of Message against the library's streaming adapters:
+ * latency of the first decode with a fresh Gson, then throughput and bytes allocated per
+ * decode once warm. Allocation is read from the HotSpot thread MXBean.
+ */
+public class ModelAdapterBenchmark {
+
+    private static final String JSON = "{\"id\":\"65f1c0ffee\",\"msgid\":\"<abc@mail.example.com>\","
+            + "\"from\":{\"address\":\"noreply@example.com\",\"name\":\"Example\"},"
+            + "\"to\":[{\"address\":\"user@mail.tm\",\"name\":\"\"}],"
+            + "\"subject\":\"Verify your account\",\"text\":\"Your verification code is 123456\","
+            + "\"seen\":false,\"flagged\":false,\"isDeleted\":false,\"retention\":true,"
+            + "\"retentionDate\":\"2024-01-08T10:00:00+00:00\",\"html\":[\"<p>Your verification code is 123456</p>\"],"
+            + "\"hasAttachments\":true,\"attachments\":[{\"id\":\"ATTACH000001\",\"filename\":\"invoice.pdf\","
+            + "\"contentType\":\"application/pdf\",\"disposition\":\"attachment\",\"transferEncoding\":\"base64\","
+            + "\"related\":false,\"size\":120,\"downloadUrl\":\"/messages/65f1c0ffee/attachment/ATTACH000001\"}],"
+            + "\"size\":2500,\"downloadUrl\":\"/messages/65f1c0ffee/download\","
+            + "\"createdAt\":\"2024-01-01T10:00:00+00:00\",\"updatedAt\":\"2024-01-01T10:00:00+00:00\"}";
+
+    public static void main(String[] args) {
+        // Load the parser itself so that the first decodes only differ in binding
+        JsonParser.parseString(JSON);
+        long start = System.nanoTime();
+        new Gson().fromJson(JSON, Message.class);
+        System.out.printf("first decode : reflective %.2f ms", (System.nanoTime() - start) / 1e6);
+        start = System.nanoTime();
+        GsonCodec.getInstance().getGson(true).fromJson(JSON, Message.class);
+        System.out.printf(", streaming %.2f ms%n", (System.nanoTime() - start) / 1e6);
+
+        Gson reflective = new Gson();
+        Gson streaming = GsonCodec.getInstance().getGson(true);
+        int iterations = 500_000;
+        for (int round = 0; round < 3; round++) {
+            measure("reflective", reflective, iterations);
+            measure("streaming ", streaming, iterations);
+        }
+    }
+
+    private static void measure(String name, Gson gson, int iterations) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long allocated = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            gson.fromJson(JSON, Message.class);
+        }
+        long elapsed = System.nanoTime() - start;
+        allocated = threads.getThreadAllocatedBytes(thread) - allocated;
+        System.out.printf("%s : %.0f ops/s, %d bytes/op%n", name, iterations / (elapsed / 1e9), allocated / iterations);
+    }
+}
@@ -0,0 +1,50 @@
+import me.shivzee.util.Fields;
+import me.shivzee.util.GsonCodec;
+import me.shivzee.util.Message;
+import me.shivzee.util.MessageProjection;
+
+/**
+ * Compares decoding a full Message against a projection of subject and text.
+ * Uses a message shaped like the API's response with a 200 KB HTML body.
+ */
+public class ProjectionBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        StringBuilder html = new StringBuilder();
+        while (html.length() < 200_000) {
+            html.append("<tr><td style=\\\"padding:4px\\\">Your verification code is 123456</td></tr>");
+        }
+        String json = "{\"id\":\"65f1c0ffee\",\"msgid\":\"<abc@mail.example.com>\","
+                + "\"from\":{\"address\":\"noreply@example.com\",\"name\":\"Example\"},"
+                + "\"to\":[{\"address\":\"user@mail.tm\",\"name\":\"\"}],"
+                + "\"subject\":\"Verify your account\",\"text\":\"Your verification code is 123456\","
+                + "\"seen\":false,\"flagged\":false,\"isDeleted\":false,\"retention\":true,"
+                + "\"retentionDate\":\"2024-01-08T10:00:00+00:00\",\"html\":[\"" + html + "\"],"
+                + "\"hasAttachments\":true,\"attachments\":[{\"id\":\"ATTACH000001\",\"filename\":\"invoice.pdf\","
+                + "\"contentType\":\"application/pdf\",\"disposition\":\"attachment\",\"transferEncoding\":\"base64\","
+                + "\"related\":false,\"size\":120,\"downloadUrl\":\"/messages/65f1c0ffee/attachment/ATTACH000001\"}],"
+                + "\"size\":250000,\"downloadUrl\":\"/messages/65f1c0ffee/download\","
+                + "\"createdAt\":\"2024-01-01T10:00:00+00:00\",\"updatedAt\":\"2024-01-01T10:00:00+00:00\"}";
+
+        GsonCodec codec = GsonCodec.getInstance();
+        MessageProjection projection = new MessageProjection(codec.getGson(true), "token", Fields.SUBJECT, Fields.TEXT);
+
+        int iterations = 2_000;
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                codec.fromJson(json, Message.class, "token", true);
+            }
+            long full = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                projection.fromJson(json);
+            }
+            long projected = System.nanoTime() - start;
+
+            System.out.printf("round %d : full %.1f us/op, projection %.1f us/op%n",
+                    round, full / 1e3 / iterations, projected / 1e3 / iterations);
+        }
+    }
+}
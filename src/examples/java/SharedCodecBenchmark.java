@@ -0,0 +1,64 @@
+import com.google.gson.Gson;
+import me.shivzee.JMailTM;
+import me.shivzee.util.GsonCodec;
+import me.shivzee.util.Message;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Creates 10k accounts and decodes one message for each, comparing a Gson instance built per
+ * account (the previous behaviour) against the shared codec. Run each mode in a fresh JVM:
+ * {@code java SharedCodecBenchmark per-account} or {@code java SharedCodecBenchmark shared}.
+ */
+public class SharedCodecBenchmark {
+
+    private static final int ACCOUNTS = 10_000;
+    private static final String JSON = "{\"id\":\"65f1c0ffee\",\"msgid\":\"<abc@mail.example.com>\","
+            + "\"from\":{\"address\":\"noreply@example.com\",\"name\":\"Example\"},"
+            + "\"to\":[{\"address\":\"user@mail.tm\",\"name\":\"\"}],"
+            + "\"subject\":\"Verify your account\",\"text\":\"Your verification code is 123456\","
+            + "\"seen\":false,\"flagged\":false,\"isDeleted\":false,\"retention\":true,"
+            + "\"retentionDate\":\"2024-01-08T10:00:00+00:00\",\"html\":[\"<p>123456</p>\"],"
+            + "\"hasAttachments\":false,\"attachments\":[],\"size\":2500,"
+            + "\"downloadUrl\":\"/messages/65f1c0ffee/download\","
+            + "\"createdAt\":\"2024-01-01T10:00:00+00:00\",\"updatedAt\":\"2024-01-01T10:00:00+00:00\"}";
+
+    public static void main(String[] args) throws Exception {
+        boolean shared = args.length == 0 || args[0].equals("shared");
+        List<Object> retained = new ArrayList<>(ACCOUNTS * 2);
+        long baseline = usedHeap();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            String token = "token-" + i;
+            JMailTM mailer = new JMailTM(token, "account-" + i);
+            Message message;
+            if (shared) {
+                message = GsonCodec.getInstance().fromJson(JSON, Message.class, token, true);
+            } else {
+                // What every JMailTM used to hold, a Gson of its own
+                Gson gson = GsonCodec.getInstance().getGson(true).newBuilder().create();
+                message = gson.fromJson(JSON, Message.class);
+                retained.add(gson);
+            }
+            retained.add(mailer);
+            retained.add(message);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        System.out.printf("%s : %.1f ms total, %.1f us/account, %d bytes/account retained%n",
+                shared ? "shared codec" : "per-account Gson", elapsed / 1e6, elapsed / 1e3 / ACCOUNTS,
+                (usedHeap() - baseline) / ACCOUNTS);
+        System.out.println(retained.size() + " objects kept");
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -2,11 +2,16 @@ package me.shivzee;
 
 /**
  * The Config Class for Global Data
+ * <p>
+ * Both URLs can be overridden with the {@code jmailtm.baseUrl} and {@code jmailtm.mercureUrl}
+ * system properties, e.g. to run against a local mock server. They are read once, when the
+ * library is first used.
+ * </p>
  */
 public class Config {
     /**
      * BASEURL of the API
      */
-    public static final String BASEURL = "https://api.mail.tm";
-    public static final String MERCURE_URL = "https://mercure.mail.tm/.well-known/mercure";
+    public static final String BASEURL = System.getProperty("jmailtm.baseUrl", "https://api.mail.tm");
+    public static final String MERCURE_URL = System.getProperty("jmailtm.mercureUrl", "https://mercure.mail.tm/.well-known/mercure");
 }
@@ -26,34 +26,47 @@
 
 package me.shivzee;
 
-import com.google.gson.*;
 import com.launchdarkly.eventsource.EventSource;
-import me.shivzee.adapters.TokenAdapter;
 import me.shivzee.callbacks.*;
 import me.shivzee.exceptions.AccountNotFoundException;
+import me.shivzee.exceptions.CircuitOpenException;
 import me.shivzee.exceptions.DomainNotFoundException;
 import me.shivzee.exceptions.MessageFetchException;
 import me.shivzee.io.IO;
 import me.shivzee.io.IOCallback;
+import me.shivzee.io.SingleFlight;
+import me.shivzee.store.MessageSearchIndex;
+import me.shivzee.store.MessageStore;
+import me.shivzee.store.Session;
 import me.shivzee.util.*;
 import okhttp3.Headers;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.net.URI;
 import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.function.Predicate;
 
 
 
 /**
  * The JMailTM Class which handles the API instance and operations.
  * This class provides methods for managing email accounts, messages, and event handling.
+ * <p>
+ * While the circuit breaker of an endpoint is open the methods fail at once without a
+ * request: methods that throw a checked exception throw it with the
+ * {@link CircuitOpenException} as its cause, the others return their failure value.
+ * </p>
  * 
  * @author shivzee
  * @see JMailBuilder
@@ -63,20 +76,40 @@ public class JMailTM {
 
     private String bearerToken;
     private String id;
-    private final Gson gson;
+    private String address;
+    private volatile boolean decodeHtml = true;
 
-    private static final String baseUrl = Config.BASEURL;
+    private final String baseUrl;
     private final Logger LOG = LoggerFactory.getLogger(JMailTM.class);
 
     private ExecutorService pool = Executors.newSingleThreadExecutor();
+    private volatile MessageStore messageStore;
+    private volatile MessageSearchIndex searchIndex;
+    private final MessageIndex messageIndex = new MessageIndex();
+    private volatile boolean listening;
+    private final MessageWaiters messageWaiters = new MessageWaiters(this);
+    private final SingleFlight inFlight = new SingleFlight();
+
+    /**
+     * The decoded message listing, or the response it failed with.
+     */
+    private static final class Listing {
+        final Response response;
+        final MessageSummary[] summaries;
+
+        Listing(Response response , MessageSummary[] summaries){
+            this.response = response;
+            this.summaries = summaries;
+        }
+    }
 
     /**
      * Constructs a new {@code JMailTM} instance with the specified bearer token and ID.
      * <p>
      * This constructor is intended to be initialized by the {@code JMailBuilder} class.
-     * It sets up the necessary authentication using the provided bearer token and
-     * configures a Gson instance with a custom type adapter for handling token-related
-     * data.
+     * It sets up the necessary authentication using the provided bearer token. Responses
+     * are decoded with the codec shared by all instances, which attaches the token to the
+     * decoded messages.
      * </p>
      *
      * @param bearerToken the bearer token used for authentication
@@ -84,13 +117,38 @@ public class JMailTM {
      * @see me.shivzee.util.JMailBuilder
      */
     public JMailTM(String bearerToken , String id){
-        this.bearerToken = bearerToken;
-        this.id = id;
+        this(Config.BASEURL , bearerToken , id , null);
+    }
+
+    private <T> T decode(String json , Class<T> type){
+        return JsonCodec.getDefault().fromJson(json , type , bearerToken , decodeHtml);
+    }
 
-        GsonBuilder gsonBuilder = new GsonBuilder();
-        gsonBuilder.registerTypeAdapterFactory(new TokenAdapter(bearerToken));
-        this.gson = gsonBuilder.create();
+    /**
+     * Constructs a new {@code JMailTM} instance with the specified bearer token, ID and address.
+     * <p>
+     * Used by {@code JMailBuilder} when the address is already known, so that
+     * {@link #getSession()} does not need a {@code /me} round trip.
+     * </p>
+     *
+     * @param bearerToken the bearer token used for authentication
+     * @param id the unique identifier for the JMailTM instance
+     * @param address the email address of the account (can be null if unknown)
+     * @see me.shivzee.util.JMailBuilder
+     */
+    public JMailTM(String bearerToken , String id , String address){
+        this(Config.BASEURL , bearerToken , id , address);
+    }
 
+    /**
+     * Constructs an instance that sends its requests to the given API root instead of
+     * {@link Config#BASEURL}, e.g. a local test server.
+     */
+    JMailTM(String baseUrl , String bearerToken , String id , String address){
+        this.baseUrl = baseUrl;
+        this.bearerToken = bearerToken;
+        this.id = id;
+        this.address = address;
     }
 
 
@@ -103,6 +161,47 @@ public class JMailTM {
         return this.id;
     }
 
+    /**
+     * Retrieves the email address of the user account.
+     * <p>
+     * If the address was not known when this instance was created it is fetched once
+     * using {@link #getSelf()} and remembered.
+     * </p>
+     *
+     * @return the email address, or null if it could not be fetched
+     */
+    public String getAddress(){
+        if(address == null){
+            address = getSelf().getEmail();
+        }
+        return address;
+    }
+
+    /**
+     * Retrieves the session of this instance for storing in a {@code SessionStore}.
+     *
+     * @return the session holding the id, address, token and token expiry
+     * @see me.shivzee.store.SessionStore
+     * @see me.shivzee.util.JMailBuilder#restore(me.shivzee.store.Session)
+     */
+    public Session getSession(){
+        return Session.of(id , getAddress() , bearerToken);
+    }
+
+    /**
+     * Turns decoding of the HTML body of fetched messages on or off.
+     * <p>
+     * Consumers that only read {@link Message#getContent()} can turn it off so the HTML of
+     * every message is skipped while parsing. {@link Message#getHtml()} then returns null.
+     * Decoding is on by default.
+     * </p>
+     *
+     * @param decodeHtml {@code false} to skip the HTML body of messages
+     */
+    public void setHtmlDecoding(boolean decodeHtml){
+        this.decodeHtml = decodeHtml;
+    }
+
     /**
      * Initializes the {@code JMailTM} instance by performing necessary setup operations.
      * <p>
@@ -130,15 +229,21 @@ public class JMailTM {
 
     /**
      * Retrieves the account instance of the logged-in user.
+     * <p>
+     * Concurrent calls share one request and the same decoded account.
+     * </p>
      *
      * @return the account instance of the logged-in user
      * @see me.shivzee.util.Account
      */
     public Account getSelf(){
         try{
-            Response response = IO.requestGET(baseUrl + "/me", bearerToken);
-            if(response.getResponseCode() == 200){
-                return gson.fromJson(response.getResponse() , Account.class);
+            Account account = inFlight.execute("/me" , () -> {
+                Response response = IO.requestGET(baseUrl + "/me", bearerToken);
+                return response.getResponseCode() == 200 ? decode(response.getResponse() , Account.class) : null;
+            });
+            if(account != null){
+                return account;
             }
         }catch (Exception e){
             LOG.error(e.toString());
@@ -247,7 +352,7 @@ public class JMailTM {
 
             Response response = IO.requestGET(baseUrl+"/accounts/"+id , bearerToken);
             if(response.getResponseCode() == 200){
-                return gson.fromJson(response.getResponse() , Account.class);
+                return decode(response.getResponse() , Account.class);
             }else {
                 throw new AccountNotFoundException("Invalid account id. Response : "+response.getResponse());
             }
@@ -264,9 +369,8 @@ public class JMailTM {
      */
     public int getTotalMessages(){
         try{
-            Response response = IO.requestGET(baseUrl+"/messages" , bearerToken);
-            JsonArray array = JsonParser.parseString(response.getResponse()).getAsJsonArray();
-            return array.size();
+            Listing listing = listMessages();
+            return listing.summaries == null ? 0 : listing.summaries.length;
         }catch (Exception e){
             return 0;
         }
@@ -274,6 +378,11 @@ public class JMailTM {
 
     /**
      * Retrieves a single message object using the specified message ID.
+     * <p>
+     * Concurrent calls for the same message, e.g. from several listeners reacting to the same
+     * event, share one request and get the same decoded {@code Message}, which is stored and
+     * indexed only once.
+     * </p>
      *
      * @param id the message ID of the message to retrieve
      * @return the {@code Message} object corresponding to the given message ID
@@ -281,15 +390,70 @@ public class JMailTM {
      * @see me.shivzee.util.Message
      */
     public Message getMessageById(String id) throws MessageFetchException{
+        try{
+            return inFlight.execute("/messages/"+id , () -> fetchMessage(id));
+        }catch (MessageFetchException e){
+            throw e;
+        }catch (Exception e){
+            throw new MessageFetchException(e.toString() , e);
+        }
+    }
+
+    private Message fetchMessage(String id) throws MessageFetchException{
         try{
             Response response = IO.requestGET(baseUrl+"/messages/"+id , bearerToken);
             if(response.getResponseCode() == 200){
-                return gson.fromJson(response.getResponse() , Message.class);
+                Message message = decode(response.getResponse() , Message.class);
+                if(messageStore != null){
+                    try{
+                        messageStore.put(message.getId() , message.getCreatedAt() , response.getResponse());
+                    }catch (IOException e){
+                        LOG.warn("Failed to store message "+id+" "+e);
+                    }
+                }
+                MessageSearchIndex index = searchIndex;
+                if(index != null){
+                    index.add(message);
+                }
+                return message;
             }else {
                 throw new MessageFetchException("Invalid message id. Response : "+response.getResponse());
             }
         }catch (Exception e){
-            throw new MessageFetchException(e.toString());
+            throw new MessageFetchException(e.toString() , e);
+        }
+    }
+
+    /**
+     * Retrieves a single message, decoding only the requested fields.
+     * <p>
+     * Members of the response that were not requested are skipped while parsing, so reading
+     * e.g. only the subject and text does not pay for the HTML body or the attachments.
+     * Fields that were not requested keep their default value. The returned message is not
+     * written to the message store.
+     * </p>
+     * <p>
+     * Example usage:
+     * <pre>{@code
+     * Message message = mailer.getMessageById(id, Fields.SUBJECT, Fields.TEXT);
+     * }</pre>
+     *
+     * @param id the message ID of the message to retrieve
+     * @param fields the fields to decode, the ID is always included
+     * @return the partially decoded {@code Message}
+     * @throws MessageFetchException if the message with the specified ID cannot be fetched
+     * @see me.shivzee.util.Fields
+     */
+    public Message getMessageById(String id , Fields... fields) throws MessageFetchException{
+        try{
+            Response response = IO.requestGET(baseUrl+"/messages/"+id , bearerToken);
+            if(response.getResponseCode() == 200){
+                return new MessageProjection(GsonCodec.getInstance().getGson(decodeHtml) , bearerToken , fields).fromJson(response.getResponse());
+            }else {
+                throw new MessageFetchException("Invalid message id. Response : "+response.getResponse());
+            }
+        }catch (Exception e){
+            throw new MessageFetchException(e.toString() , e);
         }
     }
 
@@ -301,6 +465,10 @@ public class JMailTM {
      * It handles exceptions internally and throws a {@code MessageFetchException} if fetching fails.
      * </p>
      * <p>
+     * Concurrent calls share the listing request, and messages fetched by several of them at
+     * once are requested only once.
+     * </p>
+     * <p>
      * Example usage:
      * </p>
      * <pre>{@code
@@ -328,24 +496,23 @@ public class JMailTM {
     public void fetchMessages(MessageFetchedCallback callback) throws MessageFetchException{
         try{
             List<Message> messages = new ArrayList<>();
-            Response response = IO.requestGET(baseUrl+"/messages" , bearerToken);
-            if(response.getResponseCode() == 200){
-                JsonArray array = JsonParser.parseString(response.getResponse()).getAsJsonArray();
-                for(JsonElement object : array){
-                    messages.add(getMessageById(object.getAsJsonObject().get("id").getAsString()));
+            Listing listing = listMessages();
+            if(listing.summaries != null){
+                for(MessageSummary summary : listing.summaries){
+                    messages.add(getMessageById(summary.getId()));
                 }
 
                 callback.onMessagesFetched(messages);
 
             }else {
-                callback.onError(new Response(response.getResponseCode() , response.getResponse()));
+                callback.onError(new Response(listing.response.getResponseCode() , listing.response.getResponse()));
             }
         }
         catch (MessageFetchException e){
             throw e;
         }
         catch (Exception e) {
-            throw new MessageFetchException(e.toString());
+            throw new MessageFetchException(e.toString() , e);
         }
     }
 
@@ -385,26 +552,173 @@ public class JMailTM {
     public void fetchMessages(int limit , MessageFetchedCallback callback) throws MessageFetchException{
         try{
             List<Message> messages = new ArrayList<>();
-            Response response = IO.requestGET(baseUrl+"/messages" , bearerToken);
-            if(response.getResponseCode() == 200){
-                JsonArray array = JsonParser.parseString(response.getResponse()).getAsJsonArray();
-                int stop = Math.min(array.size(), limit);
+            Listing listing = listMessages();
+            if(listing.summaries != null){
+                MessageSummary[] array = listing.summaries;
+                int stop = Math.min(array.length, limit);
                 for(int i=0;i<stop;i++){
-                    messages.add(getMessageById(array.get(i).getAsJsonObject().get("id").getAsString()));
+                    messages.add(getMessageById(array[i].getId()));
                 }
 
                 callback.onMessagesFetched(messages);
 
             }else {
-                callback.onError(new Response(response.getResponseCode() , response.getResponse()));
+                callback.onError(new Response(listing.response.getResponseCode() , listing.response.getResponse()));
             }
         }
         catch (MessageFetchException e){
             throw e;
         }
         catch (Exception e) {
-            throw new MessageFetchException(e.toString());
+            throw new MessageFetchException(e.toString() , e);
+        }
+    }
+
+    /**
+     * Fetches the first page of the listing, shared by concurrent callers.
+     */
+    private Listing listMessages() throws Exception{
+        return inFlight.execute("/messages" , () -> {
+            Response response = IO.requestGET(baseUrl+"/messages" , bearerToken);
+            if(response.getResponseCode() == 200){
+                return new Listing(response , decode(response.getResponse() , MessageSummary[].class));
+            }
+            return new Listing(response , null);
+        });
+    }
+
+    /**
+     * Fetches the summaries of the messages created at or after the given time, newest first.
+     * <p>
+     * The message listing is walked newest first and the walk stops at the first page that
+     * reaches past {@code since}, so the common case of waiting for a recent mail is a single
+     * request. No message is hydrated.
+     * </p>
+     * <p>
+     * While an event listener is open the results are also kept in an in-memory index that the
+     * events keep up to date, and repeated queries for the same or a later time are answered
+     * from it without any request.
+     * </p>
+     *
+     * @param since the earliest creation time to include
+     * @return the matching message summaries, newest first
+     * @throws MessageFetchException if the listing could not be fetched
+     * @see me.shivzee.util.MessageSummary
+     */
+    public List<MessageSummary> fetchMessageSummariesSince(Instant since) throws MessageFetchException{
+        if(listening && messageIndex.covers(since)){
+            return messageIndex.since(since);
+        }
+        boolean wasListening = listening;
+        try{
+            List<MessageSummary> summaries = new ArrayList<>();
+            int page = 1;
+            boolean crossed = false;
+            while (!crossed){
+                List<MessageSummary> listing = listMessageSummaries(page);
+                if(listing.isEmpty()){
+                    break;
+                }
+                for(MessageSummary summary : listing){
+                    if(wasListening){
+                        messageIndex.put(summary);
+                    }
+                    if(summary.getCreatedInstant().isBefore(since)){
+                        crossed = true;
+                    }else{
+                        summaries.add(summary);
+                    }
+                }
+                page++;
+            }
+            if(wasListening && listening){
+                messageIndex.coverFrom(since);
+            }
+            return summaries;
+        }
+        catch (MessageFetchException e){
+            throw e;
+        }
+        catch (Exception e){
+            throw new MessageFetchException(e.toString() , e);
+        }
+    }
+
+    /**
+     * Fetches one page of the message listing, newest first.
+     */
+    List<MessageSummary> listMessageSummaries(int page) throws MessageFetchException{
+        Response response;
+        try{
+            response = IO.requestGET(baseUrl+"/messages?page="+page , bearerToken);
+        }catch (CircuitOpenException e){
+            throw new MessageFetchException(e.toString() , e);
+        }
+        if(response.getResponseCode() != 200){
+            throw new MessageFetchException("Failed to list messages. Response : "+response.getResponse());
+        }
+        try{
+            MessageSummary[] listing = decode(response.getResponse() , MessageSummary[].class);
+            return listing == null ? new ArrayList<>() : Arrays.asList(listing);
+        }catch (Exception e){
+            throw new MessageFetchException(e.toString() , e);
+        }
+    }
+
+    boolean isListening(){
+        return listening;
+    }
+
+    /**
+     * (Asynchronous) Waits for a message that matches the predicate.
+     * <p>
+     * The predicate is evaluated on message summaries, only the first summary that matches is
+     * hydrated and used to complete the future. Messages already in the inbox are checked
+     * once when the call is made. After that new mail is picked up from the event stream while
+     * an event listener is open, and by polling the newest listing page otherwise, polling
+     * faster while mail is arriving and slower while the inbox is quiet. All waiters of an
+     * account share the same stream or poll.
+     * </p>
+     * <p>
+     * Example usage:
+     * <pre>{@code
+     * mailer.awaitMessage(summary -> summary.getSubject().contains("Verify"), Duration.ofMinutes(2))
+     *         .thenAccept(message -> System.out.println(message.getContent()));
+     * }</pre>
+     *
+     * @param predicate the condition the message summary must match
+     * @param timeout how long to wait before the future fails with a {@code TimeoutException}
+     * @return a future completed with the first matching message
+     * @see me.shivzee.util.MessageSummary
+     */
+    public CompletableFuture<Message> awaitMessage(Predicate<MessageSummary> predicate , Duration timeout){
+        return messageWaiters.add(predicate , timeout);
+    }
+
+    /**
+     * Fetches the messages created at or after the given time, newest first.
+     * <p>
+     * Only the messages that match are hydrated, see {@link #fetchMessageSummariesSince(Instant)}
+     * for how the listing is walked.
+     * </p>
+     * <p>
+     * Example usage:
+     * <pre>{@code
+     * Instant signup = Instant.now();
+     * // trigger the mail ...
+     * List<Message> messages = mailer.fetchMessagesSince(signup);
+     * }</pre>
+     *
+     * @param since the earliest creation time to include
+     * @return the matching messages, newest first
+     * @throws MessageFetchException if the listing or a message could not be fetched
+     */
+    public List<Message> fetchMessagesSince(Instant since) throws MessageFetchException{
+        List<Message> messages = new ArrayList<>();
+        for(MessageSummary summary : fetchMessageSummariesSince(since)){
+            messages.add(getMessageById(summary.getId()));
         }
+        return messages;
     }
 
     /**
@@ -486,6 +800,236 @@ public class JMailTM {
     }
 
 
+    /**
+     * Sets a local store that keeps a copy of every message fetched by this instance.
+     * <p>
+     * Once set, every message hydrated through {@link #getMessageById(String)} (which includes
+     * {@code fetchMessages} and the event listener) is written to the store, and messages deleted
+     * while an event listener is open are removed from it. Use {@link #syncMessages()} to pull
+     * only the messages the store does not have yet.
+     * </p>
+     *
+     * @param messageStore the store to use, or null to stop storing messages
+     * @see me.shivzee.store.FileMessageStore
+     */
+    public void setMessageStore(MessageStore messageStore){
+        this.messageStore = messageStore;
+    }
+
+    /**
+     * Gets the local message store.
+     *
+     * @return the message store, or null if none is set
+     * @see #setMessageStore(MessageStore)
+     */
+    public MessageStore getMessageStore(){
+        return messageStore;
+    }
+
+    /**
+     * Sets an in-memory full-text index to keep up to date with this account's messages.
+     * <p>
+     * Every message hydrated through {@link #getMessageById(String)} is added to the index and
+     * messages deleted while an event listener is open are removed from it. The same index
+     * can be set on several accounts to search all of them at once.
+     * </p>
+     *
+     * @param searchIndex the index to update, or null to stop indexing
+     * @see me.shivzee.store.MessageSearchIndex
+     */
+    public void setSearchIndex(MessageSearchIndex searchIndex){
+        this.searchIndex = searchIndex;
+    }
+
+    /**
+     * Gets the full-text index updated by this account.
+     *
+     * @return the search index, or null if none is set
+     * @see #setSearchIndex(MessageSearchIndex)
+     */
+    public MessageSearchIndex getSearchIndex(){
+        return searchIndex;
+    }
+
+    /**
+     * (Synchronous) Incrementally syncs the inbox into the message store.
+     * <p>
+     * Walks the message listing newest first and hydrates only the ids the store does not
+     * have yet. Walking stops at the first page on which every message is already stored,
+     * so API traffic is proportional to new mail only.
+     * </p>
+     *
+     * @return the number of messages added to the store
+     * @throws MessageFetchException if no store is set or fetching fails
+     * @see #setMessageStore(MessageStore)
+     */
+    public int syncMessages() throws MessageFetchException{
+        MessageStore store = messageStore;
+        if(store == null){
+            throw new MessageFetchException("No message store set");
+        }
+        try{
+            int added = 0;
+            int page = 1;
+            while (true){
+                Response response = IO.requestGET(baseUrl+"/messages?page="+page , bearerToken);
+                if(response.getResponseCode() != 200){
+                    throw new MessageFetchException("Failed to list messages. Response : "+response.getResponse());
+                }
+                MessageSummary[] array = decode(response.getResponse() , MessageSummary[].class);
+                int missing = 0;
+                for(MessageSummary summary : array){
+                    String messageId = summary.getId();
+                    if(!store.contains(messageId)){
+                        getMessageById(messageId);
+                        missing++;
+                    }
+                }
+                added += missing;
+                if(array.length == 0 || missing == 0){
+                    return added;
+                }
+                page++;
+            }
+        }
+        catch (MessageFetchException e){
+            throw e;
+        }
+        catch (Exception e){
+            throw new MessageFetchException(e.toString() , e);
+        }
+    }
+
+    /**
+     * Reads a message from the message store without any network call.
+     *
+     * @param id the message ID of the message to read
+     * @return the stored {@code Message}, or null if it is not stored
+     * @throws MessageFetchException if no store is set or the store could not be read
+     * @see #setMessageStore(MessageStore)
+     */
+    public Message getStoredMessage(String id) throws MessageFetchException{
+        MessageStore store = messageStore;
+        if(store == null){
+            throw new MessageFetchException("No message store set");
+        }
+        try{
+            String json = store.get(id);
+            return json == null ? null : decode(json , Message.class);
+        }catch (Exception e){
+            throw new MessageFetchException(e.toString() , e);
+        }
+    }
+
+    /**
+     * Reads every message from the message store without any network call.
+     *
+     * @return the stored messages, newest first
+     * @throws MessageFetchException if no store is set or the store could not be read
+     * @see #setMessageStore(MessageStore)
+     */
+    public List<Message> getStoredMessages() throws MessageFetchException{
+        MessageStore store = messageStore;
+        if(store == null){
+            throw new MessageFetchException("No message store set");
+        }
+        List<Message> messages = new ArrayList<>();
+        for(String messageId : store.getIds()){
+            Message message = getStoredMessage(messageId);
+            if(message != null){
+                messages.add(message);
+            }
+        }
+        return messages;
+    }
+
+    /**
+     * Wraps the user's listener so that local state follows the server-sent events
+     * before the user's callbacks run.
+     */
+    private EventListener track(EventListener eventListener){
+        return new EventListener() {
+            @Override
+            public void onReady() {
+                listening = true;
+                eventListener.onReady();
+            }
+
+            @Override
+            public void onClose() {
+                stopListening();
+                eventListener.onClose();
+            }
+
+            @Override
+            public void onSSEComment(String comment) {
+                eventListener.onSSEComment(comment);
+            }
+
+            @Override
+            public void onMessageEvent(MessageSummary summary) {
+                if(summary.isDeleted()){
+                    messageIndex.remove(summary.getId());
+                }else{
+                    messageIndex.put(summary);
+                }
+                messageWaiters.offer(summary);
+                eventListener.onMessageEvent(summary);
+            }
+
+            @Override
+            public void onMessageReceived(Message message) {
+                eventListener.onMessageReceived(message);
+            }
+
+            @Override
+            public void onMessageDelete(String id) {
+                messageIndex.remove(id);
+                MessageSearchIndex index = searchIndex;
+                if(index != null){
+                    index.remove(id);
+                }
+                MessageStore store = messageStore;
+                if(store != null){
+                    try{
+                        store.remove(id);
+                    }catch (IOException e){
+                        LOG.warn("Failed to remove message "+id+" from store "+e);
+                    }
+                }
+                eventListener.onMessageDelete(id);
+            }
+
+            @Override
+            public void onMessageSeen(Message message) {
+                eventListener.onMessageSeen(message);
+            }
+
+            @Override
+            public void onAccountDelete(Account account) {
+                eventListener.onAccountDelete(account);
+            }
+
+            @Override
+            public void onAccountUpdate(Account account) {
+                eventListener.onAccountUpdate(account);
+            }
+
+            @Override
+            public void onError(String error) {
+                // Events may have been missed while disconnected
+                stopListening();
+                eventListener.onError(error);
+            }
+        };
+    }
+
+    private void stopListening(){
+        listening = false;
+        messageIndex.invalidate();
+        messageWaiters.onListenerStopped();
+    }
+
     /**
      * (Asynchronous) Opens an event listener on a single thread to receive server-sent events (SSE).
      * <p>
@@ -495,6 +1039,11 @@ public class JMailTM {
      * in case of disconnection with the specified {@code retryInterval}.
      * </p>
      * <p>
+     * Connection failures are reported to the circuit breaker of {@link me.shivzee.io.Endpoint#MERCURE}.
+     * While it is open the listener does not reconnect, once it is half-open a single listener
+     * tries, and the others follow as soon as that attempt succeeds.
+     * </p>
+     * <p>
      * Example usage:
      * <pre>{@code
      * openEventListener(new EventListener() {
@@ -516,8 +1065,10 @@ public class JMailTM {
         }
         Map<String , String> headers = new HashMap<>();
         headers.put("Authorization" , "Bearer "+bearerToken);
-        EventSource.Builder sse = new EventSource.Builder(new IOCallback(eventListener , this), URI.create(Config.MERCURE_URL+"?topic=/accounts/"+id))
+        IOCallback callback = new IOCallback(track(eventListener) , this);
+        EventSource.Builder sse = new EventSource.Builder(callback, URI.create(Config.MERCURE_URL+"?topic=/accounts/"+id))
                 .reconnectTime(Duration.ofMillis(retryInterval))
+                .connectionErrorHandler(callback)
                 .headers(Headers.of(headers));
         EventSource sourceSSE = sse.build();
         pool.execute(sourceSSE::start);
@@ -538,6 +1089,7 @@ public class JMailTM {
      * </p>
      */
     public void closeMessageListener(){
+        stopListening();
         pool.shutdown();
     }
 
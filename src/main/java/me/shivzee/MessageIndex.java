@@ -0,0 +1,91 @@
+package me.shivzee;
+
+import me.shivzee.util.MessageSummary;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A per-account index of message summaries ordered by creation time, newest first.
+ * <p>
+ * The index is filled from message listings and kept up to date by server-sent events. It
+ * only answers queries on its own for the time range it is known to cover, which is the range
+ * of the listing walks made while the event listener was connected. Any disconnect may
+ * have lost events, so it drops everything it knows.
+ * </p>
+ */
+class MessageIndex {
+
+    private static final Comparator<Key> NEWEST_FIRST = Comparator
+            .comparing((Key key) -> key.createdAt).reversed()
+            .thenComparing(key -> key.id);
+
+    private static final class Key {
+        final Instant createdAt;
+        final String id;
+
+        Key(Instant createdAt, String id) {
+            this.createdAt = createdAt;
+            this.id = id;
+        }
+    }
+
+    private final TreeMap<Key, MessageSummary> byTime = new TreeMap<>(NEWEST_FIRST);
+    private final Map<String, Key> byId = new HashMap<>();
+    private Instant coveredSince;
+
+    synchronized void put(MessageSummary summary) {
+        Instant createdAt;
+        try {
+            createdAt = summary.getCreatedInstant();
+        } catch (Exception e) {
+            return;
+        }
+        remove(summary.getId());
+        Key key = new Key(createdAt, summary.getId());
+        byId.put(summary.getId(), key);
+        byTime.put(key, summary);
+    }
+
+    synchronized void remove(String id) {
+        Key key = byId.remove(id);
+        if (key != null) {
+            byTime.remove(key);
+        }
+    }
+
+    /**
+     * @return the summaries created at or after {@code since}, newest first
+     */
+    synchronized List<MessageSummary> since(Instant since) {
+        List<MessageSummary> result = new ArrayList<>();
+        for (Map.Entry<Key, MessageSummary> entry : byTime.entrySet()) {
+            if (entry.getKey().createdAt.isBefore(since)) {
+                break;
+            }
+            result.add(entry.getValue());
+        }
+        return result;
+    }
+
+    synchronized boolean covers(Instant since) {
+        return coveredSince != null && !since.isBefore(coveredSince);
+    }
+
+    synchronized void coverFrom(Instant since) {
+        if (coveredSince == null || since.isBefore(coveredSince)) {
+            coveredSince = since;
+        }
+    }
+
+    synchronized void invalidate() {
+        coveredSince = null;
+        byTime.clear();
+        byId.clear();
+    }
+}
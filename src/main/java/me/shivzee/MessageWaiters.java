@@ -0,0 +1,154 @@
+package me.shivzee;
+
+import me.shivzee.exceptions.MessageFetchException;
+import me.shivzee.util.Message;
+import me.shivzee.util.MessageSummary;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+/**
+ * The pending {@link JMailTM#awaitMessage(Predicate, Duration)} calls of one account.
+ * <p>
+ * All waiters share one source of summaries. While the event listener is connected that is
+ * the event stream. Otherwise it is one poll of the newest listing page at a time, repeated
+ * quickly while new mail keeps arriving and backing off while the inbox is quiet. Every
+ * registration triggers one poll so that mail which arrived before the call is found too.
+ * Only the summary that matches is hydrated.
+ * </p>
+ */
+class MessageWaiters {
+
+    private static final long MIN_POLL_MILLIS = 500;
+    private static final long MAX_POLL_MILLIS = 5000;
+
+    private static final class Waiter {
+        final Predicate<MessageSummary> predicate;
+        final CompletableFuture<Message> future = new CompletableFuture<>();
+        final AtomicBoolean claimed = new AtomicBoolean();
+
+        Waiter(Predicate<MessageSummary> predicate) {
+            this.predicate = predicate;
+        }
+    }
+
+    private final JMailTM mailTM;
+    private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+    private ScheduledExecutorService scheduler;
+    private ScheduledFuture<?> nextPoll;
+    private long pollDelay = MIN_POLL_MILLIS;
+    private Set<String> lastPage = new HashSet<>();
+
+    MessageWaiters(JMailTM mailTM) {
+        this.mailTM = mailTM;
+    }
+
+    CompletableFuture<Message> add(Predicate<MessageSummary> predicate, Duration timeout) {
+        Waiter waiter = new Waiter(predicate);
+        waiters.add(waiter);
+        waiter.future.whenComplete((message, error) -> waiters.remove(waiter));
+        scheduler().schedule(() -> waiter.future.completeExceptionally(
+                new TimeoutException("No matching message within " + timeout)), timeout.toMillis(), TimeUnit.MILLISECONDS);
+        schedulePoll(0);
+        return waiter.future;
+    }
+
+    /**
+     * Checks a summary against every pending waiter. Called from the event thread and the poller.
+     */
+    void offer(MessageSummary summary) {
+        if (summary.isDeleted()) {
+            return;
+        }
+        for (Waiter waiter : waiters) {
+            if (waiter.future.isDone() || waiter.claimed.get()) {
+                continue;
+            }
+            boolean match;
+            try {
+                match = waiter.predicate.test(summary);
+            } catch (RuntimeException e) {
+                waiter.future.completeExceptionally(e);
+                continue;
+            }
+            if (match && waiter.claimed.compareAndSet(false, true)) {
+                scheduler().execute(() -> {
+                    try {
+                        waiter.future.complete(mailTM.getMessageById(summary.getId()));
+                    } catch (MessageFetchException e) {
+                        waiter.future.completeExceptionally(e);
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Falls back to polling when the event listener goes away.
+     */
+    void onListenerStopped() {
+        if (!waiters.isEmpty()) {
+            schedulePoll(0);
+        }
+    }
+
+    private synchronized ScheduledExecutorService scheduler() {
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "Await_Message_" + mailTM.getId());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return scheduler;
+    }
+
+    private synchronized void schedulePoll(long delay) {
+        if (nextPoll != null && !nextPoll.isDone()) {
+            if (nextPoll.getDelay(TimeUnit.MILLISECONDS) <= delay) {
+                return;
+            }
+            nextPoll.cancel(false);
+        }
+        nextPoll = scheduler().schedule(this::poll, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void poll() {
+        synchronized (this) {
+            // This poll has started, so it no longer counts as the pending one
+            nextPoll = null;
+        }
+        if (waiters.isEmpty()) {
+            return;
+        }
+        boolean fresh = false;
+        try {
+            Set<String> page = new HashSet<>();
+            for (MessageSummary summary : mailTM.listMessageSummaries(1)) {
+                page.add(summary.getId());
+                fresh |= !lastPage.contains(summary.getId());
+                offer(summary);
+            }
+            lastPage = page;
+        } catch (MessageFetchException e) {
+            // Try again on the next tick
+        }
+        if (waiters.isEmpty() || mailTM.isListening()) {
+            pollDelay = MIN_POLL_MILLIS;
+            return;
+        }
+        pollDelay = fresh ? MIN_POLL_MILLIS : Math.min(MAX_POLL_MILLIS, pollDelay * 2);
+        schedulePoll(pollDelay);
+    }
+}
@@ -0,0 +1,79 @@
+package me.shivzee.adapters;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import me.shivzee.util.HtmlBody;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The HtmlBodyAdapter binds the {@code html} field of a message, which the API sends either as
+ * a list of strings or as a single string.
+ * <p>
+ * {@link #SKIP} drops the value at the reader level instead, for consumers that never read
+ * the HTML body.
+ * </p>
+ *
+ * @see me.shivzee.util.HtmlBody
+ */
+public class HtmlBodyAdapter extends TypeAdapter<HtmlBody> {
+
+    /**
+     * An adapter that skips the HTML body without decoding it.
+     */
+    public static final TypeAdapter<HtmlBody> SKIP = new HtmlBodyAdapter(true);
+
+    private final boolean skip;
+
+    /**
+     * Constructs an adapter that decodes the HTML body.
+     */
+    public HtmlBodyAdapter() {
+        this(false);
+    }
+
+    private HtmlBodyAdapter(boolean skip) {
+        this.skip = skip;
+    }
+
+    @Override
+    public void write(JsonWriter out, HtmlBody value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginArray();
+        for (String part : value.getParts()) {
+            out.value(part);
+        }
+        out.endArray();
+    }
+
+    @Override
+    public HtmlBody read(JsonReader in) throws IOException {
+        JsonToken token = in.peek();
+        if (skip || token == JsonToken.NULL) {
+            in.skipValue();
+            return null;
+        }
+        if (token == JsonToken.STRING) {
+            return new HtmlBody(Collections.singletonList(in.nextString()));
+        }
+        List<String> parts = new ArrayList<>(1);
+        in.beginArray();
+        while (in.hasNext()) {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+            } else {
+                parts.add(in.nextString());
+            }
+        }
+        in.endArray();
+        return new HtmlBody(parts);
+    }
+}
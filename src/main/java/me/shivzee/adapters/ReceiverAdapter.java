@@ -0,0 +1,70 @@
+package me.shivzee.adapters;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import me.shivzee.util.Receiver;
+
+import java.io.IOException;
+
+/**
+ * The ReceiverAdapter decodes a single {@link Receiver}, either a plain address
+ * ({@code "a@b.c"}) or an object ({@code {"address":"a@b.c","name":"A"}}).
+ * <p>
+ * Receivers are immutable, so they are built from the decoded values instead of being filled
+ * in member by member.
+ * </p>
+ *
+ * @see ReceiversAdapter
+ */
+public class ReceiverAdapter extends TypeAdapter<Receiver> {
+
+    @Override
+    public void write(JsonWriter out, Receiver receiver) throws IOException {
+        if (receiver == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("address").value(receiver.getAddress());
+        out.name("name").value(receiver.getName());
+        out.endObject();
+    }
+
+    @Override
+    public Receiver read(JsonReader in) throws IOException {
+        switch (in.peek()) {
+            case NULL:
+                in.nextNull();
+                return null;
+            case STRING:
+                return new Receiver(in.nextString(), "");
+            case BEGIN_OBJECT:
+                return readObject(in);
+            default:
+                in.skipValue();
+                return null;
+        }
+    }
+
+    private static Receiver readObject(JsonReader in) throws IOException {
+        String address = null;
+        String name = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            String member = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+            } else if (member.equals("address")) {
+                address = in.nextString();
+            } else if (member.equals("name")) {
+                name = in.nextString();
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+        return new Receiver(address, name);
+    }
+}
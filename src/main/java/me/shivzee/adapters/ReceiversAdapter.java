@@ -0,0 +1,64 @@
+package me.shivzee.adapters;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import me.shivzee.util.Receiver;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The ReceiversAdapter decodes the {@code to} field of a message into an immutable list of
+ * {@link Receiver}s once, at parse time.
+ * <p>
+ * The API sends receivers either as plain addresses ({@code ["a@b.c"]}) or as objects
+ * ({@code [{"address":"a@b.c","name":"A"}]}), both forms are accepted.
+ * </p>
+ *
+ * @see me.shivzee.util.Message#getReceivers()
+ * @see ReceiverAdapter
+ */
+public class ReceiversAdapter extends TypeAdapter<List<Receiver>> {
+
+    private static final ReceiverAdapter RECEIVER = new ReceiverAdapter();
+
+    @Override
+    public void write(JsonWriter out, List<Receiver> receivers) throws IOException {
+        if (receivers == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginArray();
+        for (Receiver receiver : receivers) {
+            RECEIVER.write(out, receiver);
+        }
+        out.endArray();
+    }
+
+    @Override
+    public List<Receiver> read(JsonReader in) throws IOException {
+        JsonToken token = in.peek();
+        if (token == JsonToken.NULL) {
+            in.nextNull();
+            return Collections.emptyList();
+        }
+        if (token != JsonToken.BEGIN_ARRAY) {
+            in.skipValue();
+            return Collections.emptyList();
+        }
+        List<Receiver> receivers = new ArrayList<>(2);
+        in.beginArray();
+        while (in.hasNext()) {
+            Receiver receiver = RECEIVER.read(in);
+            if (receiver != null) {
+                receivers.add(receiver);
+            }
+        }
+        in.endArray();
+        return Collections.unmodifiableList(receivers);
+    }
+}
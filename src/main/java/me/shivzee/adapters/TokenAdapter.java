@@ -10,8 +10,11 @@ import java.io.IOException;
 /**
  * The TokenAdapter tries to push bearerToken field during deserialization of the json
  *
+ * @deprecated the library no longer builds a Gson instance per account, the bearer token is
+ * attached by {@link me.shivzee.util.GsonCodec} after decoding
  * @see com.google.gson.TypeAdapterFactory
  */
+@Deprecated
 public class TokenAdapter implements TypeAdapterFactory {
 
     private String bearerToken;
@@ -2,6 +2,7 @@ package me.shivzee.callbacks;
 
 import me.shivzee.util.Account;
 import me.shivzee.util.Message;
+import me.shivzee.util.MessageSummary;
 
 /**
  * Interface for handling various events such as message deletion, reception, account updates, and errors.
@@ -25,6 +26,19 @@ public interface EventListener {
      */
     default void onSSEComment(String comment){}
 
+    /**
+     * Invoked for every message event with the summary sent by the server.
+     * <p>
+     * This runs before the message is fetched for {@link #onMessageReceived(Message)} or
+     * {@link #onMessageSeen(Message)}, so it can be used to look at the sender or subject
+     * without waiting for the full message.
+     * </p>
+     *
+     * @param summary the message summary from the event
+     * @see me.shivzee.util.MessageSummary
+     */
+    default void onMessageEvent(MessageSummary summary){}
+
     /**
      * Invoked when a new message is received.
      *
@@ -0,0 +1,29 @@
+package me.shivzee.callbacks;
+
+import me.shivzee.extract.Extraction;
+import me.shivzee.util.Message;
+
+/**
+ * Interface for receiving the values extracted from incoming messages.
+ *
+ * @see me.shivzee.extract.ExtractionPipeline#attach(EventListener, ExtractionCallback)
+ */
+public interface ExtractionCallback {
+
+    /**
+     * Invoked on an extraction worker thread once a received message has been processed.
+     *
+     * @param message the received message
+     * @param extraction the values extracted from it
+     * @see me.shivzee.extract.Extraction
+     */
+    void onExtracted(Message message, Extraction extraction);
+
+    /**
+     * Invoked when extraction fails for a message.
+     *
+     * @param message the received message
+     * @param error the cause of the failure
+     */
+    default void onError(Message message, Throwable error){}
+}
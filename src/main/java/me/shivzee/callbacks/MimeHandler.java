@@ -0,0 +1,62 @@
+package me.shivzee.callbacks;
+
+/**
+ * Interface for receiving the parts of a raw MIME message as they are parsed.
+ * <p>
+ * The top level message is the part at depth {@code 0}, the children of a
+ * {@code multipart/*} part are one level deeper. Events for a part always arrive in the
+ * order {@code onPartStart}, {@code onHeader} (zero or more), {@code onHeadersEnd},
+ * {@code onBody} (zero or more) and {@code onPartEnd}, with the child parts of a multipart
+ * nested between its {@code onHeadersEnd} and {@code onPartEnd}.
+ * </p>
+ *
+ * @see me.shivzee.mime.MimeParser
+ */
+public interface MimeHandler {
+
+    /**
+     * Invoked when a new part begins.
+     *
+     * @param depth the nesting depth of the part
+     */
+    default void onPartStart(int depth){}
+
+    /**
+     * Invoked for every header of the current part, with folded lines already joined.
+     *
+     * @param name the header name as written in the message
+     * @param value the header value without the leading whitespace
+     */
+    default void onHeader(String name, String value){}
+
+    /**
+     * Invoked after the last header of the current part.
+     *
+     * @param depth the nesting depth of the part
+     * @param contentType the content type of the part, {@code text/plain} if none was given
+     * @return {@code true} to keep parsing; {@code false} to stop here without reading further
+     */
+    default boolean onHeadersEnd(int depth, String contentType){
+        return true;
+    }
+
+    /**
+     * Invoked with a chunk of the body of a non-multipart part.
+     * <p>
+     * Base64 and quoted-printable bodies are already decoded. The array is reused for the
+     * next chunk, copy the bytes if they are needed later.
+     * </p>
+     *
+     * @param data the buffer holding the chunk
+     * @param offset the start of the chunk in the buffer
+     * @param length the number of bytes in the chunk
+     */
+    default void onBody(byte[] data, int offset, int length){}
+
+    /**
+     * Invoked when a part ends.
+     *
+     * @param depth the nesting depth of the part
+     */
+    default void onPartEnd(int depth){}
+}
@@ -0,0 +1,55 @@
+package me.shivzee.exceptions;
+
+import me.shivzee.io.Endpoint;
+
+import java.time.Duration;
+
+/**
+ * Thrown by the request methods of {@link me.shivzee.io.IO} when the circuit breaker of the
+ * endpoint is open, without sending anything.
+ * <p>
+ * The endpoint failed repeatedly a moment ago, so the request is refused at once instead of
+ * waiting for the network timeout. It is unchecked since the request methods report every
+ * other failure through their response. Methods of the library that wrap failures in their own
+ * exception keep this one as the cause.
+ * </p>
+ *
+ * @see me.shivzee.io.CircuitBreaker
+ */
+public class CircuitOpenException extends RuntimeException {
+
+    private static final long serialVersionUID = 6120597710322487815L;
+
+    private final Endpoint endpoint;
+    private final Duration retryAfter;
+
+    /**
+     * Constructs a CircuitOpenException for the given endpoint.
+     *
+     * @param endpoint the endpoint whose circuit is open
+     * @param retryAfter the time until a trial request is let through
+     */
+    public CircuitOpenException(Endpoint endpoint, Duration retryAfter) {
+        super("Circuit of " + endpoint + " is open, retry after " + retryAfter.toMillis() + "ms");
+        this.endpoint = endpoint;
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * Gets the endpoint whose circuit is open.
+     *
+     * @return the endpoint
+     */
+    public Endpoint getEndpoint() {
+        return endpoint;
+    }
+
+    /**
+     * Gets the time until the circuit lets a trial request through.
+     *
+     * @return the remaining open time
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -9,4 +9,14 @@ public class MessageFetchException extends Exception {
 	public MessageFetchException(String errorMessage){
         super(errorMessage);
     }
+
+    /**
+     * Constructs a MessageFetchException with the specified detail message and cause.
+     *
+     * @param errorMessage the error message
+     * @param cause the underlying cause, e.g. a {@link CircuitOpenException}
+     */
+    public MessageFetchException(String errorMessage, Throwable cause){
+        super(errorMessage, cause);
+    }
 }
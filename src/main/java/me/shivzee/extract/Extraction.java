@@ -0,0 +1,91 @@
+package me.shivzee.extract;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The values extracted from one message.
+ * <p>
+ * Matches are grouped by rule name, each list is in the order the values appear in the message
+ * with duplicates removed.
+ * </p>
+ *
+ * @see me.shivzee.extract.ExtractionPipeline
+ */
+public class Extraction {
+
+    private final String messageId;
+    private final Map<String, List<String>> matches;
+    private final List<String> links;
+
+    Extraction(String messageId, Map<String, List<String>> matches, List<String> links) {
+        this.messageId = messageId;
+        this.matches = Collections.unmodifiableMap(matches);
+        this.links = Collections.unmodifiableList(links);
+    }
+
+    /**
+     * Gets the id of the message the values were extracted from.
+     *
+     * @return the message ID
+     */
+    public String getMessageId() {
+        return messageId;
+    }
+
+    /**
+     * Gets the values matched by a rule.
+     *
+     * @param rule the rule name
+     * @return the matched values, empty if the rule matched nothing
+     */
+    public List<String> get(String rule) {
+        List<String> values = matches.get(rule);
+        return values == null ? Collections.emptyList() : values;
+    }
+
+    /**
+     * Gets the first value matched by a rule.
+     *
+     * @param rule the rule name
+     * @return the first matched value, or null if the rule matched nothing
+     */
+    public String getFirst(String rule) {
+        List<String> values = get(rule);
+        return values.isEmpty() ? null : values.get(0);
+    }
+
+    /**
+     * Gets the one-time code found by the default {@code code} rule.
+     *
+     * @return the first code, or null if none was found
+     * @see me.shivzee.extract.ExtractionPipeline#CODE
+     */
+    public String getCode() {
+        return getFirst(ExtractionPipeline.CODE);
+    }
+
+    /**
+     * Gets the links found in the message.
+     *
+     * @return the link targets in document order
+     */
+    public List<String> getLinks() {
+        return links;
+    }
+
+    /**
+     * Gets all matched values by rule name.
+     *
+     * @return the unmodifiable map of rule name to values
+     */
+    public Map<String, List<String>> getMatches() {
+        return matches;
+    }
+
+    @Override
+    public String toString() {
+        return "Extraction{messageId=" + messageId + ", matches=" + matches + ", links=" + links + "}";
+    }
+}
@@ -0,0 +1,280 @@
+package me.shivzee.extract;
+
+import me.shivzee.callbacks.EventListener;
+import me.shivzee.callbacks.ExtractionCallback;
+import me.shivzee.util.Account;
+import me.shivzee.util.HtmlBody;
+import me.shivzee.util.Message;
+import me.shivzee.util.MessageSummary;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The ExtractionPipeline class pulls one-time codes, links and other values out of messages.
+ * <p>
+ * Values are found by {@link RegexRule}s, whose patterns are compiled once, run over the
+ * subject and the plain text of a message. Links are read from the {@code href} of anchors by
+ * a streaming tokenizer that walks the HTML parts as they were decoded, so the HTML body is
+ * never joined into a single string. When a message has no plain text, the visible text
+ * collected by the same tokenizer pass is used for the rules instead.
+ * </p>
+ * <p>
+ * Results for full messages are cached by message id. Attached to an event listener, the
+ * pipeline runs on its own worker threads and never blocks the SSE thread.
+ * </p>
+ * <p>
+ * Example usage:
+ * <pre>{@code
+ * ExtractionPipeline pipeline = ExtractionPipeline.defaults();
+ * mailer.openEventListener(pipeline.attach(listener, (message, extraction) ->
+ *         System.out.println(extraction.getCode() + " " + extraction.getLinks())));
+ * }</pre>
+ *
+ * @see me.shivzee.extract.Extraction
+ */
+public class ExtractionPipeline {
+
+    /**
+     * The rule name of the default one-time code rule.
+     */
+    public static final String CODE = "code";
+
+    /**
+     * The rule name of the default plain text URL rule.
+     */
+    public static final String URL = "url";
+
+    private static final RegexRule PLAIN_LINKS = RegexRule.of(URL, "(https?://[^\\s<>\"')\\]]+)");
+    private static final int DEFAULT_CACHE_SIZE = 1024;
+
+    private final List<RegexRule> rules = new CopyOnWriteArrayList<>();
+    private final Map<String, Extraction> cache;
+    private final ExecutorService pool;
+
+    /**
+     * Constructs a new ExtractionPipeline without any rules.
+     *
+     * @param threads the number of worker threads used by {@link #extractAsync(Message)} and attached listeners
+     * @param cacheSize the maximum number of cached results
+     */
+    public ExtractionPipeline(int threads, int cacheSize) {
+        AtomicInteger counter = new AtomicInteger();
+        this.pool = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, "Extraction_Worker_" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.cache = new LinkedHashMap<String, Extraction>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Extraction> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Creates a pipeline with one worker thread and the default {@code code} rule, which
+     * matches a standalone group of 4 to 8 digits.
+     *
+     * @return the pipeline
+     */
+    public static ExtractionPipeline defaults() {
+        return new ExtractionPipeline(1, DEFAULT_CACHE_SIZE)
+                .addRule(RegexRule.of(CODE, "(?<![\\d-])(\\d{4,8})(?![\\d-])"));
+    }
+
+    /**
+     * Adds a rule. Rules added later only apply to messages that are not cached yet.
+     *
+     * @param rule the rule to add
+     * @return this pipeline
+     */
+    public ExtractionPipeline addRule(RegexRule rule) {
+        rules.add(rule);
+        return this;
+    }
+
+    /**
+     * Extracts values from a message summary, using only its subject and intro.
+     * <p>
+     * This needs no HTTP request, but the intro is short and may cut a value off. Summary
+     * results are not cached.
+     * </p>
+     *
+     * @param summary the message summary
+     * @return the extracted values
+     */
+    public Extraction extract(MessageSummary summary) {
+        Map<String, List<String>> matches = new LinkedHashMap<>();
+        applyRules(matches, summary.getSubject(), summary.getIntro());
+        Set<String> links = new LinkedHashSet<>();
+        PLAIN_LINKS.apply(summary.getIntro(), links);
+        return new Extraction(summary.getId(), matches, new ArrayList<>(links));
+    }
+
+    /**
+     * Extracts values from a message, or returns the cached result for its id.
+     *
+     * @param message the message
+     * @return the extracted values
+     */
+    public Extraction extract(Message message) {
+        String id = message.getId();
+        synchronized (cache) {
+            Extraction cached = cache.get(id);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        String text = message.getContent();
+        HtmlBody html = message.getHtml();
+        Set<String> links = new LinkedHashSet<>();
+        if (html != null) {
+            HtmlScanner scanner = new HtmlScanner(text == null || text.isEmpty());
+            for (String part : html.getParts()) {
+                scanner.feed(part);
+            }
+            links.addAll(scanner.getLinks());
+            if (text == null || text.isEmpty()) {
+                text = scanner.getText();
+            }
+        }
+        if (links.isEmpty()) {
+            PLAIN_LINKS.apply(text, links);
+        }
+        Map<String, List<String>> matches = new LinkedHashMap<>();
+        applyRules(matches, message.getSubject(), text);
+        Extraction extraction = new Extraction(id, matches, new ArrayList<>(links));
+        if (id != null) {
+            synchronized (cache) {
+                cache.put(id, extraction);
+            }
+        }
+        return extraction;
+    }
+
+    /**
+     * (Asynchronous) Extracts values from a message on a worker thread.
+     *
+     * @param message the message
+     * @return a future of the extracted values
+     */
+    public CompletableFuture<Extraction> extractAsync(Message message) {
+        return CompletableFuture.supplyAsync(() -> extract(message), pool);
+    }
+
+    /**
+     * Drops the cached result of a message.
+     *
+     * @param messageId the message ID
+     */
+    public void evict(String messageId) {
+        synchronized (cache) {
+            cache.remove(messageId);
+        }
+    }
+
+    /**
+     * Wraps an event listener so that every received message is also run through this pipeline.
+     * <p>
+     * All events are forwarded to the given listener unchanged. Extraction of received
+     * messages happens on the pipeline's worker threads and the result is passed to the
+     * callback, deleted messages are evicted from the cache.
+     * </p>
+     *
+     * @param eventListener the listener to forward events to
+     * @param callback the callback receiving the extracted values
+     * @return the listener to open with {@link me.shivzee.JMailTM#openEventListener(EventListener)}
+     */
+    public EventListener attach(EventListener eventListener, ExtractionCallback callback) {
+        return new EventListener() {
+            @Override
+            public void onReady() {
+                eventListener.onReady();
+            }
+
+            @Override
+            public void onClose() {
+                eventListener.onClose();
+            }
+
+            @Override
+            public void onSSEComment(String comment) {
+                eventListener.onSSEComment(comment);
+            }
+
+            @Override
+            public void onMessageEvent(MessageSummary summary) {
+                eventListener.onMessageEvent(summary);
+            }
+
+            @Override
+            public void onMessageReceived(Message message) {
+                eventListener.onMessageReceived(message);
+                extractAsync(message).whenComplete((extraction, error) -> {
+                    if (error != null) {
+                        callback.onError(message, error);
+                    } else {
+                        callback.onExtracted(message, extraction);
+                    }
+                });
+            }
+
+            @Override
+            public void onMessageDelete(String id) {
+                evict(id);
+                eventListener.onMessageDelete(id);
+            }
+
+            @Override
+            public void onMessageSeen(Message message) {
+                eventListener.onMessageSeen(message);
+            }
+
+            @Override
+            public void onAccountDelete(Account account) {
+                eventListener.onAccountDelete(account);
+            }
+
+            @Override
+            public void onAccountUpdate(Account account) {
+                eventListener.onAccountUpdate(account);
+            }
+
+            @Override
+            public void onError(String error) {
+                eventListener.onError(error);
+            }
+        };
+    }
+
+    /**
+     * Stops the worker threads after the queued extractions have finished.
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    private void applyRules(Map<String, List<String>> matches, String... inputs) {
+        for (RegexRule rule : rules) {
+            Collection<String> values = new LinkedHashSet<>();
+            for (String input : inputs) {
+                rule.apply(input, values);
+            }
+            if (!values.isEmpty()) {
+                matches.put(rule.getName(), new ArrayList<>(values));
+            }
+        }
+    }
+}
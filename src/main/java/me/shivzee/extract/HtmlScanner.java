@@ -0,0 +1,249 @@
+package me.shivzee.extract;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A streaming HTML tokenizer that collects link targets and, optionally, the visible text.
+ * <p>
+ * The HTML is fed in chunks (the parts of a {@link me.shivzee.util.HtmlBody}) and the state is
+ * carried across them, so the body is never concatenated. Only the source of one tag at a time
+ * is buffered. Comments and the content of {@code script} and {@code style} elements are
+ * skipped.
+ * </p>
+ */
+class HtmlScanner {
+
+    private static final Pattern HREF = Pattern.compile("(?i)\\shref\\s*=\\s*(?:\"([^\"]*)\"|'([^']*)'|([^\\s\"'>]+))");
+    private static final int MAX_ENTITY = 10;
+
+    private static final int TEXT = 0;
+    private static final int ENTITY = 1;
+    private static final int TAG = 2;
+    private static final int COMMENT = 3;
+    private static final int RAW_TEXT = 4;
+
+    private final StringBuilder text;
+    private final List<String> links = new ArrayList<>();
+    private final StringBuilder tag = new StringBuilder();
+    private final StringBuilder entity = new StringBuilder();
+
+    private int state = TEXT;
+    private char quote;
+    private int dashes;
+    private String rawEnd;
+    private int rawMatched;
+
+    /**
+     * @param collectText whether the visible text should be collected as well as the links
+     */
+    HtmlScanner(boolean collectText) {
+        this.text = collectText ? new StringBuilder() : null;
+    }
+
+    void feed(CharSequence chunk) {
+        int i = 0;
+        int length = chunk.length();
+        while (i < length) {
+            char c = chunk.charAt(i);
+            switch (state) {
+                case TEXT:
+                    if (c == '<') {
+                        state = TAG;
+                        tag.setLength(0);
+                        quote = 0;
+                    } else if (c == '&' && text != null) {
+                        state = ENTITY;
+                        entity.setLength(0);
+                    } else {
+                        appendText(c);
+                    }
+                    break;
+                case ENTITY:
+                    if (c == ';') {
+                        appendDecodedEntity();
+                        state = TEXT;
+                    } else if (entity.length() < MAX_ENTITY && (Character.isLetterOrDigit(c) || c == '#')) {
+                        entity.append(c);
+                    } else {
+                        // Not an entity, keep the ampersand and look at this character again as text
+                        appendText('&');
+                        for (int j = 0; j < entity.length(); j++) {
+                            appendText(entity.charAt(j));
+                        }
+                        state = TEXT;
+                        continue;
+                    }
+                    break;
+                case TAG:
+                    if (quote != 0) {
+                        if (c == quote) {
+                            quote = 0;
+                        }
+                        tag.append(c);
+                    } else if (c == '"' || c == '\'') {
+                        quote = c;
+                        tag.append(c);
+                    } else if (c == '>') {
+                        endTag();
+                    } else {
+                        tag.append(c);
+                        if (tag.length() == 3 && tag.charAt(0) == '!' && tag.charAt(1) == '-' && tag.charAt(2) == '-') {
+                            state = COMMENT;
+                            dashes = 0;
+                        }
+                    }
+                    break;
+                case COMMENT:
+                    if (c == '>' && dashes >= 2) {
+                        state = TEXT;
+                    }
+                    dashes = c == '-' ? dashes + 1 : 0;
+                    break;
+                case RAW_TEXT:
+                    if (Character.toLowerCase(c) == rawEnd.charAt(rawMatched)) {
+                        rawMatched++;
+                        if (rawMatched == rawEnd.length()) {
+                            state = TAG;
+                            tag.setLength(0);
+                            tag.append(rawEnd, 1, rawEnd.length());
+                            quote = 0;
+                        }
+                    } else {
+                        rawMatched = c == '<' ? 1 : 0;
+                    }
+                    break;
+                default:
+                    break;
+            }
+            i++;
+        }
+    }
+
+    List<String> getLinks() {
+        return links;
+    }
+
+    String getText() {
+        return text == null ? null : text.toString().trim();
+    }
+
+    private void appendText(char c) {
+        if (text == null) {
+            return;
+        }
+        if (Character.isWhitespace(c) || c == '\u00a0') {
+            if (text.length() > 0 && text.charAt(text.length() - 1) != ' ') {
+                text.append(' ');
+            }
+        } else {
+            text.append(c);
+        }
+    }
+
+    private void appendDecodedEntity() {
+        String decoded = decodeEntity(entity);
+        if (decoded == null) {
+            appendText('&');
+            for (int j = 0; j < entity.length(); j++) {
+                appendText(entity.charAt(j));
+            }
+            appendText(';');
+        } else {
+            for (int j = 0; j < decoded.length(); j++) {
+                appendText(decoded.charAt(j));
+            }
+        }
+    }
+
+    private void endTag() {
+        state = TEXT;
+        int start = tag.length() > 0 && tag.charAt(0) == '/' ? 1 : 0;
+        int end = start;
+        while (end < tag.length() && Character.isLetterOrDigit(tag.charAt(end))) {
+            end++;
+        }
+        String name = tag.substring(start, end).toLowerCase(Locale.ROOT);
+        if (start == 1) {
+            appendText(' ');
+            return;
+        }
+        switch (name) {
+            case "a":
+            case "area":
+                Matcher href = HREF.matcher(tag);
+                if (href.find()) {
+                    String value = href.group(1) != null ? href.group(1) : href.group(2) != null ? href.group(2) : href.group(3);
+                    value = decodeEntities(value.trim());
+                    if (!value.isEmpty() && !value.startsWith("#")) {
+                        links.add(value);
+                    }
+                }
+                break;
+            case "script":
+            case "style":
+                if (tag.charAt(tag.length() - 1) != '/') {
+                    state = RAW_TEXT;
+                    rawEnd = "</" + name;
+                    rawMatched = 0;
+                }
+                break;
+            default:
+                break;
+        }
+        appendText(' ');
+    }
+
+    private static String decodeEntities(String value) {
+        int amp = value.indexOf('&');
+        if (amp < 0) {
+            return value;
+        }
+        StringBuilder out = new StringBuilder(value.length());
+        int from = 0;
+        while (amp >= 0) {
+            int semi = value.indexOf(';', amp);
+            String decoded = semi > amp && semi - amp <= MAX_ENTITY + 1 ? decodeEntity(value.substring(amp + 1, semi)) : null;
+            if (decoded == null) {
+                out.append(value, from, amp + 1);
+                from = amp + 1;
+            } else {
+                out.append(value, from, amp).append(decoded);
+                from = semi + 1;
+            }
+            amp = value.indexOf('&', from);
+        }
+        return out.append(value, from, value.length()).toString();
+    }
+
+    private static String decodeEntity(CharSequence name) {
+        if (name.length() > 1 && name.charAt(0) == '#') {
+            try {
+                boolean hex = name.charAt(1) == 'x' || name.charAt(1) == 'X';
+                int code = Integer.parseInt(name.subSequence(hex ? 2 : 1, name.length()).toString(), hex ? 16 : 10);
+                return new String(Character.toChars(code));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+        switch (name.toString()) {
+            case "amp":
+                return "&";
+            case "lt":
+                return "<";
+            case "gt":
+                return ">";
+            case "quot":
+                return "\"";
+            case "apos":
+                return "'";
+            case "nbsp":
+                return " ";
+            default:
+                return null;
+        }
+    }
+}
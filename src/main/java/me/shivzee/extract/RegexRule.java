@@ -0,0 +1,73 @@
+package me.shivzee.extract;
+
+import java.util.Collection;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A named extraction rule backed by a precompiled regular expression.
+ * <p>
+ * The pattern is compiled once when the rule is created and reused for every message.
+ * </p>
+ *
+ * @see me.shivzee.extract.ExtractionPipeline#addRule(RegexRule)
+ */
+public final class RegexRule {
+
+    private final String name;
+    private final Pattern pattern;
+    private final int group;
+
+    /**
+     * Constructs a new RegexRule.
+     *
+     * @param name the name the matches are reported under
+     * @param pattern the pattern to search for
+     * @param group the capturing group holding the value, {@code 0} for the whole match
+     */
+    public RegexRule(String name, Pattern pattern, int group) {
+        this.name = name;
+        this.pattern = pattern;
+        this.group = group;
+    }
+
+    /**
+     * Creates a rule reporting the first capturing group, or the whole match if the pattern has none.
+     *
+     * @param name the name the matches are reported under
+     * @param regex the regular expression to search for
+     * @return the rule
+     */
+    public static RegexRule of(String name, String regex) {
+        Pattern pattern = Pattern.compile(regex);
+        return new RegexRule(name, pattern, pattern.matcher("").groupCount() > 0 ? 1 : 0);
+    }
+
+    /**
+     * Gets the name of the rule.
+     *
+     * @return the rule name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Adds every match in the input to the collection.
+     *
+     * @param input the text to search
+     * @param out the collection the matched values are added to
+     */
+    public void apply(CharSequence input, Collection<String> out) {
+        if (input == null || input.length() == 0) {
+            return;
+        }
+        Matcher matcher = pattern.matcher(input);
+        while (matcher.find()) {
+            String value = matcher.group(group);
+            if (value != null) {
+                out.add(value);
+            }
+        }
+    }
+}
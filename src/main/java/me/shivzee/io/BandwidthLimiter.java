@@ -0,0 +1,63 @@
+package me.shivzee.io;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The BandwidthLimiter class caps the combined transfer rate of every download sharing it.
+ * <p>
+ * It is a token bucket holding at most one second worth of bytes. Each transfer takes tokens
+ * for the bytes it has moved and sleeps when the bucket runs dry, so many workers together
+ * stay under the configured rate.
+ * </p>
+ *
+ * @see me.shivzee.util.AttachmentDownloader
+ */
+public class BandwidthLimiter {
+
+    private final long bytesPerSecond;
+    private double available;
+    private long lastRefill;
+
+    /**
+     * Constructs a new BandwidthLimiter.
+     *
+     * @param bytesPerSecond the maximum combined rate in bytes per second, {@code 0} or less for no limit
+     */
+    public BandwidthLimiter(long bytesPerSecond) {
+        this.bytesPerSecond = bytesPerSecond;
+        this.available = bytesPerSecond;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * Gets the configured rate.
+     *
+     * @return the maximum rate in bytes per second, {@code 0} or less if unlimited
+     */
+    public long getBytesPerSecond() {
+        return bytesPerSecond;
+    }
+
+    /**
+     * Accounts for transferred bytes, blocking until the rate allows them.
+     *
+     * @param bytes the number of bytes transferred
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public void acquire(long bytes) throws InterruptedException {
+        if (bytesPerSecond <= 0 || bytes <= 0) {
+            return;
+        }
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            available = Math.min(bytesPerSecond, available + (now - lastRefill) * bytesPerSecond / 1e9);
+            lastRefill = now;
+            available -= bytes;
+            waitNanos = available < 0 ? (long) (-available * 1e9 / bytesPerSecond) : 0;
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package me.shivzee.io;
+
+import java.time.Duration;
+
+/**
+ * The CircuitBreaker class stops sending requests to an endpoint that keeps failing.
+ * <p>
+ * While closed every request goes through. After a number of failures in a row the circuit
+ * opens and requests are refused at once, so callers do not wait for network timeouts during
+ * an outage. Once the open time is over the circuit is half-open and lets a single trial
+ * request through: if it succeeds the circuit closes, if it fails the circuit opens again for
+ * twice as long, up to a maximum.
+ * </p>
+ * <p>
+ * Only network failures and server errors ({@code 5xx}) count as failures. Any other answer,
+ * including {@code 4xx} and {@code 429}, shows the endpoint is up and counts as a success.
+ * </p>
+ *
+ * @see IO#setCircuitBreaker(Endpoint, CircuitBreaker)
+ * @see me.shivzee.exceptions.CircuitOpenException
+ */
+public class CircuitBreaker {
+
+    /**
+     * The state of a circuit.
+     */
+    public enum State {
+        /**
+         * Requests go through.
+         */
+        CLOSED,
+        /**
+         * Requests are refused.
+         */
+        OPEN,
+        /**
+         * A trial request is let through to find out if the endpoint recovered.
+         */
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final long maxOpenNanos;
+
+    private State state = State.CLOSED;
+    private int failures;
+    private long openedAt;
+    private long openFor;
+    private boolean probing;
+    private long probeStartedAt;
+
+    /**
+     * Constructs a new CircuitBreaker.
+     *
+     * @param failureThreshold the number of failures in a row that opens the circuit
+     * @param openDuration how long the circuit first stays open
+     * @param maxOpenDuration the longest the circuit stays open after failed trials
+     * @throws IllegalArgumentException if the threshold is not positive or the durations are invalid
+     */
+    public CircuitBreaker(int failureThreshold, Duration openDuration, Duration maxOpenDuration) {
+        if (failureThreshold <= 0 || openDuration.isNegative() || maxOpenDuration.compareTo(openDuration) < 0) {
+            throw new IllegalArgumentException("Invalid threshold " + failureThreshold + " or durations " + openDuration + " to " + maxOpenDuration);
+        }
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+        this.maxOpenNanos = maxOpenDuration.toNanos();
+        this.openFor = openNanos;
+    }
+
+    /**
+     * Creates a breaker that opens after 5 failures in a row, for 2 seconds at first and at
+     * most 30 seconds.
+     *
+     * @return the breaker
+     */
+    public static CircuitBreaker defaults() {
+        return new CircuitBreaker(5, Duration.ofSeconds(2), Duration.ofSeconds(30));
+    }
+
+    /**
+     * Asks to send a request. Every request let through must report its outcome with
+     * {@link #onSuccess()} or {@link #onFailure()}.
+     *
+     * @return true if the request may be sent
+     */
+    public synchronized boolean tryAcquire() {
+        long now = System.nanoTime();
+        if (state == State.OPEN && now - openedAt >= openFor) {
+            state = State.HALF_OPEN;
+            probing = false;
+        }
+        if (state == State.HALF_OPEN) {
+            // A trial whose outcome never came is given up after the longest open time
+            if (probing && now - probeStartedAt < maxOpenNanos) {
+                return false;
+            }
+            probing = true;
+            probeStartedAt = now;
+            return true;
+        }
+        return state == State.CLOSED;
+    }
+
+    /**
+     * Reports a request that got an answer, closing the circuit.
+     */
+    public synchronized void onSuccess() {
+        state = State.CLOSED;
+        failures = 0;
+        probing = false;
+        openFor = openNanos;
+    }
+
+    /**
+     * Reports a request that failed, opening the circuit once failures reach the threshold
+     * or if it was the trial request.
+     */
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open(Math.min(maxOpenNanos, openFor * 2));
+        } else if (state == State.CLOSED && ++failures >= failureThreshold) {
+            open(openNanos);
+        }
+    }
+
+    private void open(long nanos) {
+        state = State.OPEN;
+        openedAt = System.nanoTime();
+        openFor = nanos;
+        probing = false;
+    }
+
+    /**
+     * Gets the state of the circuit.
+     *
+     * @return the state
+     */
+    public synchronized State getState() {
+        if (state == State.OPEN && System.nanoTime() - openedAt >= openFor) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    /**
+     * Gets the time until the circuit lets a trial request through.
+     *
+     * @return the remaining open time, zero if the circuit is not open
+     */
+    public synchronized Duration getRetryAfter() {
+        if (state != State.OPEN) {
+            return Duration.ZERO;
+        }
+        return Duration.ofNanos(Math.max(0, openFor - (System.nanoTime() - openedAt)));
+    }
+}
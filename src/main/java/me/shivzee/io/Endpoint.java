@@ -0,0 +1,79 @@
+package me.shivzee.io;
+
+import me.shivzee.Config;
+
+/**
+ * The classes of API endpoints that fail together, each guarded by its own circuit breaker.
+ *
+ * @see IO#getCircuitBreaker(Endpoint)
+ */
+public enum Endpoint {
+
+    /**
+     * Account creation, lookup and deletion, {@code /accounts} and {@code /me}.
+     */
+    ACCOUNTS,
+
+    /**
+     * Login, {@code /token}.
+     */
+    TOKEN,
+
+    /**
+     * Messages, their sources and attachments, {@code /messages} and {@code /sources}.
+     */
+    MESSAGES,
+
+    /**
+     * The domain list, {@code /domains}.
+     */
+    DOMAINS,
+
+    /**
+     * The Mercure hub serving the event stream.
+     */
+    MERCURE;
+
+    /**
+     * Finds the endpoint class of a request URL.
+     *
+     * @param url the request URL
+     * @return the endpoint, or null if the URL is not one of the API
+     */
+    public static Endpoint of(String url) {
+        if (url.startsWith(Config.MERCURE_URL)) {
+            return MERCURE;
+        }
+        int start;
+        if (url.startsWith(Config.BASEURL)) {
+            start = Config.BASEURL.length();
+        } else {
+            int scheme = url.indexOf("://");
+            start = scheme < 0 ? -1 : url.indexOf('/', scheme + 3);
+            if (start < 0) {
+                return null;
+            }
+        }
+        while (start < url.length() && url.charAt(start) == '/') {
+            start++;
+        }
+        int end = start;
+        while (end < url.length() && url.charAt(end) != '/' && url.charAt(end) != '?') {
+            end++;
+        }
+        switch (url.substring(start, end)) {
+            case "accounts":
+            case "me":
+                return ACCOUNTS;
+            case "token":
+                return TOKEN;
+            case "messages":
+            case "sources":
+                return MESSAGES;
+            case "domains":
+                return DOMAINS;
+            default:
+                return null;
+        }
+    }
+}
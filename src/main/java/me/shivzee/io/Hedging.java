@@ -0,0 +1,181 @@
+package me.shivzee.io;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The Hedging class decides when an idempotent GET sends a second, hedged attempt.
+ * <p>
+ * The delay before hedging is a percentile of the latencies of recent GETs, so only requests
+ * slower than e.g. 95% of their peers are hedged, and it is kept within configurable bounds.
+ * Until enough latencies are known the upper bound is used.
+ * </p>
+ * <p>
+ * Extra load is capped by a budget. Every GET earns a fraction of a hedge, a hedge is only
+ * sent while a whole one has been earned, and the savings are capped, so with a budget of
+ * {@code 0.05} at most about 5% of the requests are sent twice, even in an outage where every
+ * request is slow.
+ * </p>
+ * <p>
+ * Example usage:
+ * <pre>{@code
+ * IO.setHedging(new Hedging(0.95, 0.05).delayBounds(Duration.ofMillis(50), Duration.ofSeconds(2)));
+ * }</pre>
+ *
+ * @see IO#setHedging(Hedging)
+ */
+public class Hedging {
+
+    private static final int WINDOW = 256;
+    private static final int MIN_SAMPLES = 20;
+    // How many samples are recorded before the percentile is computed again
+    private static final int RECOMPUTE_EVERY = 16;
+    private static final double MAX_SAVED_HEDGES = 10;
+
+    private final double percentile;
+    private final double budget;
+    private volatile long minDelayNanos = Duration.ofMillis(20).toNanos();
+    private volatile long maxDelayNanos = Duration.ofSeconds(2).toNanos();
+
+    private final long[] samples = new long[WINDOW];
+    private int sampleCount;
+    private volatile long percentileNanos = -1;
+    private double earned;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong hedges = new AtomicLong();
+    private final AtomicLong hedgeWins = new AtomicLong();
+
+    /**
+     * Constructs a new Hedging policy.
+     *
+     * @param percentile the latency percentile after which a request is hedged, e.g. {@code 0.95}
+     * @param budget the largest fraction of requests that may be hedged, e.g. {@code 0.05}
+     * @throws IllegalArgumentException if a value is not within {@code (0, 1]}
+     */
+    public Hedging(double percentile, double budget) {
+        if (!(percentile > 0 && percentile <= 1) || !(budget > 0 && budget <= 1)) {
+            throw new IllegalArgumentException("Invalid percentile " + percentile + " or budget " + budget);
+        }
+        this.percentile = percentile;
+        this.budget = budget;
+    }
+
+    /**
+     * Creates a policy hedging requests slower than the 95th percentile, within 20ms to 2s,
+     * with a budget of 5%.
+     *
+     * @return the policy
+     */
+    public static Hedging defaults() {
+        return new Hedging(0.95, 0.05);
+    }
+
+    /**
+     * Sets the bounds of the hedging delay.
+     *
+     * @param min the shortest delay
+     * @param max the longest delay, also used until enough latencies are known
+     * @return this policy
+     */
+    public Hedging delayBounds(Duration min, Duration max) {
+        if (min.isNegative() || max.compareTo(min) < 0) {
+            throw new IllegalArgumentException("Invalid bounds " + min + " to " + max);
+        }
+        this.minDelayNanos = min.toNanos();
+        this.maxDelayNanos = max.toNanos();
+        return this;
+    }
+
+    /**
+     * Gets the current delay after which a request is hedged.
+     *
+     * @return the delay
+     */
+    public Duration getDelay() {
+        return Duration.ofNanos(delayNanos());
+    }
+
+    long delayNanos() {
+        long value = percentileNanos;
+        if (value < 0) {
+            return maxDelayNanos;
+        }
+        return Math.max(minDelayNanos, Math.min(maxDelayNanos, value));
+    }
+
+    /**
+     * Counts a request, earning its share of the budget.
+     */
+    void onRequest() {
+        requests.incrementAndGet();
+        synchronized (this) {
+            earned = Math.min(MAX_SAVED_HEDGES, earned + budget);
+        }
+    }
+
+    /**
+     * Takes one hedge from the budget.
+     *
+     * @return false if the budget is used up
+     */
+    boolean tryHedge() {
+        synchronized (this) {
+            if (earned < 1) {
+                return false;
+            }
+            earned -= 1;
+        }
+        hedges.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Records the latency of an attempt that answered.
+     *
+     * @param nanos the time from sending the attempt to reading its response
+     * @param hedge true if the attempt was the hedged one
+     */
+    void record(long nanos, boolean hedge) {
+        if (hedge) {
+            hedgeWins.incrementAndGet();
+        }
+        synchronized (samples) {
+            samples[sampleCount % WINDOW] = nanos;
+            sampleCount++;
+            if (sampleCount >= MIN_SAMPLES && (sampleCount % RECOMPUTE_EVERY == 0 || percentileNanos < 0)) {
+                long[] sorted = Arrays.copyOf(samples, Math.min(sampleCount, WINDOW));
+                Arrays.sort(sorted);
+                percentileNanos = sorted[Math.min(sorted.length - 1, (int) Math.ceil(percentile * sorted.length) - 1)];
+            }
+        }
+    }
+
+    /**
+     * Gets the number of GETs sent under this policy, hedges not included.
+     *
+     * @return the number of requests
+     */
+    public long getRequests() {
+        return requests.get();
+    }
+
+    /**
+     * Gets the number of hedged attempts sent.
+     *
+     * @return the number of hedges
+     */
+    public long getHedges() {
+        return hedges.get();
+    }
+
+    /**
+     * Gets the number of requests answered by their hedged attempt.
+     *
+     * @return the number of hedges that won
+     */
+    public long getHedgeWins() {
+        return hedgeWins.get();
+    }
+}
@@ -1,13 +1,26 @@
 package me.shivzee.io;
 
+import me.shivzee.exceptions.CircuitOpenException;
 import me.shivzee.util.Response;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Dispatcher;
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.RequestBody;
+import okhttp3.ResponseBody;
 
+import java.io.IOException;
 import java.net.URL;
 import java.util.Objects;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * The IO class handles HTTP communication for the JMailTM library.
@@ -15,6 +28,11 @@ import java.util.Objects;
  * This class provides methods for making HTTP requests to the mail.tm API. It uses OkHttp
  * for HTTP communication (version {@literal >=} 0.3) and previously used HttpURLConnection (version {@literal <=} 0.2).
  * </p>
+ * <p>
+ * Requests to the API go through a {@link CircuitBreaker} per {@link Endpoint}. While the
+ * circuit of an endpoint is open the request methods throw {@link CircuitOpenException}
+ * right away instead of sending anything.
+ * </p>
  *
  * @author shivzee
  */
@@ -24,6 +42,115 @@ public class IO {
     private static final OkHttpClient client = new OkHttpClient();
     private static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
     private static final MediaType PATCH = MediaType.get("application/merge-patch+json");
+    private static final RequestBody SEEN = JsonBody.object(PATCH).put("seen" , true);
+
+    // Hedged GETs run asynchronously, without the default limit of 5 calls per host
+    private static final OkHttpClient asyncClient = client.newBuilder().dispatcher(newDispatcher()).build();
+    private static volatile Hedging hedging;
+    private static final Map<Endpoint , CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    static {
+        for(Endpoint endpoint : Endpoint.values()){
+            breakers.put(endpoint , CircuitBreaker.defaults());
+        }
+    }
+
+    private static Dispatcher newDispatcher(){
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(256);
+        dispatcher.setMaxRequestsPerHost(256);
+        return dispatcher;
+    }
+
+    /**
+     * Enables hedging of GET requests, which are all idempotent.
+     * <p>
+     * A GET that has not answered after the policy's delay is sent a second time, the first
+     * response wins and the other attempt is cancelled. Streaming requests are never hedged.
+     * </p>
+     *
+     * @param policy the hedging policy, or null to disable hedging (the default)
+     * @see Hedging
+     */
+    public static void setHedging(Hedging policy){
+        hedging = policy;
+    }
+
+    /**
+     * Gets the hedging policy of GET requests.
+     *
+     * @return the policy, or null if hedging is disabled
+     */
+    public static Hedging getHedging(){
+        return hedging;
+    }
+
+    /**
+     * Replaces the circuit breaker of an endpoint. Every endpoint starts with
+     * {@link CircuitBreaker#defaults()}.
+     *
+     * @param endpoint the endpoint
+     * @param breaker the circuit breaker, or null to never refuse requests to the endpoint
+     */
+    public static void setCircuitBreaker(Endpoint endpoint , CircuitBreaker breaker){
+        if(breaker == null){
+            breakers.remove(endpoint);
+        }else {
+            breakers.put(endpoint , breaker);
+        }
+    }
+
+    /**
+     * Gets the circuit breaker of an endpoint.
+     *
+     * @param endpoint the endpoint
+     * @return the circuit breaker, or null if there is none
+     */
+    public static CircuitBreaker getCircuitBreaker(Endpoint endpoint){
+        return breakers.get(endpoint);
+    }
+
+    /**
+     * Takes a permit from the circuit breaker of the URL's endpoint.
+     *
+     * @return the breaker to report the outcome to, or null if the URL has none
+     */
+    private static CircuitBreaker acquire(String url){
+        Endpoint endpoint = url == null ? null : Endpoint.of(url);
+        CircuitBreaker breaker = endpoint == null ? null : breakers.get(endpoint);
+        if(breaker != null && !breaker.tryAcquire()){
+            throw new CircuitOpenException(endpoint , breaker.getRetryAfter());
+        }
+        return breaker;
+    }
+
+    private static void record(CircuitBreaker breaker , int code){
+        if(breaker == null){
+            return;
+        }
+        if(code == 0 || code >= 500){
+            breaker.onFailure();
+        }else {
+            breaker.onSuccess();
+        }
+    }
+
+    private static Response send(CircuitBreaker breaker , Request request , boolean idempotent){
+        Response response;
+        try{
+            Hedging policy = hedging;
+            if(idempotent && policy != null){
+                response = hedgedGET(request , policy);
+            }else {
+                okhttp3.Response raw = client.newCall(request).execute();
+                response = new Response(raw.code() , Objects.requireNonNull(raw.body()).string());
+            }
+        }catch (Exception e){
+            response = new Response(0 , "");
+        }
+        record(breaker , response.getResponseCode());
+        return response;
+    }
 
     /**
      * Makes a POST request to the specified URL with authentication and JSON content.
@@ -32,21 +159,43 @@ public class IO {
      * @param auth the authentication token (can be null)
      * @param contentJSON the JSON content to send in the request body
      * @return a Response object containing the server's response
+     * @throws CircuitOpenException if the circuit of the endpoint is open
      */
     public static Response requestPOST(String baseUrl, String auth, String contentJSON){
+        try {
+            return requestPOST(baseUrl , auth , RequestBody.create(contentJSON, JSON));
+        }catch (CircuitOpenException e){
+            throw e;
+        }catch (Exception e){
+            return new Response(0 , "");
+        }
+    }
+
+    /**
+     * Makes a POST request to the specified URL with authentication and a prepared body.
+     *
+     * @param baseUrl the URL to send the request to
+     * @param auth the authentication token (can be null)
+     * @param body the request body, e.g. a {@link JsonBody}
+     * @return a Response object containing the server's response
+     * @throws CircuitOpenException if the circuit of the endpoint is open
+     */
+    public static Response requestPOST(String baseUrl, String auth, RequestBody body){
         try {
             URL url = new URL(baseUrl);
             Request.Builder request = new Request.Builder()
                     .url(url)
                     .addHeader("Content-Type", "application/json")
                     .addHeader("accept", "application/json")
-                    .post(RequestBody.create(contentJSON, JSON));
+                    .post(body);
             if(auth!=null){
                 request.addHeader("Authorization", "Bearer " + auth);
             }
-            okhttp3.Response response = client.newCall(request.build()).execute();
-            return new Response(response.code() , Objects.requireNonNull(response.body()).string());
+            Request built = request.build();
+            return send(acquire(baseUrl) , built , false);
 
+        }catch (CircuitOpenException e){
+            throw e;
         }catch (Exception e){
             return new Response(0 , "");
         }
@@ -58,17 +207,27 @@ public class IO {
      * @param baseUrl the URL to send the request to
      * @param contentJSON the JSON content to send in the request body
      * @return a Response object containing the server's response
+     * @throws CircuitOpenException if the circuit of the endpoint is open
      */
     public static Response requestPOST(String baseUrl , String contentJSON){
         try {
             return requestPOST(baseUrl , null , contentJSON);
+        }catch (CircuitOpenException e){
+            throw e;
         }catch (Exception e){
             return new Response(0 , ""+e);
         }
     }
 
+    /**
+     * Makes a GET request to the specified URL with authentication.
+     *
+     * @param baseUrl the URL to send the request to
+     * @param auth the authentication token (can be null)
+     * @return a Response object containing the server's response
+     * @throws CircuitOpenException if the circuit of the endpoint is open
+     */
     public static Response requestGET(String baseUrl, String auth){
-
         try {
             URL url = new URL(baseUrl);
             Request.Builder request = new Request.Builder()
@@ -79,24 +238,148 @@ public class IO {
             if(auth!=null){
                 request.addHeader("Authorization", "Bearer " + auth);
             }
-            okhttp3.Response response = client.newCall(request.build()).execute();
-            return new Response(response.code() , Objects.requireNonNull(response.body()).string());
+            Request built = request.build();
+            return send(acquire(baseUrl) , built , true);
 
+        }catch (CircuitOpenException e){
+            throw e;
         }catch (Exception e){
             return new Response(0 , "");
         }
 
     }
 
+    private static Response hedgedGET(Request request , Hedging policy) throws Exception {
+        policy.onRequest();
+        CompletableFuture<Response> winner = new CompletableFuture<>();
+        CompletableFuture<Response> primary = new CompletableFuture<>();
+        AtomicBoolean answered = new AtomicBoolean();
+        Call first = sendAttempt(request , policy , winner , primary , answered , false);
+        Call second = null;
+        try{
+            try{
+                return primary.get(policy.delayNanos() , TimeUnit.NANOSECONDS);
+            }catch (TimeoutException slow){
+                // The primary may have answered or failed just as the delay ran out
+                if(primary.isDone() && !primary.isCompletedExceptionally()){
+                    return primary.get();
+                }
+                if(!policy.tryHedge()){
+                    return primary.get();
+                }
+            }
+            CompletableFuture<Response> hedge = new CompletableFuture<>();
+            second = sendAttempt(request , policy , winner , hedge , answered , true);
+            // The first answer wins, the request only fails once neither attempt can answer anymore
+            CompletableFuture.allOf(primary , hedge).whenComplete((done , e) -> {
+                if(e != null){
+                    winner.completeExceptionally(e);
+                }
+            });
+            return winner.get();
+        }catch (ExecutionException e){
+            return new Response(0 , "");
+        }catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+            return new Response(0 , "");
+        }finally {
+            // The winner has been read already, this only stops the attempt still running
+            first.cancel();
+            if(second != null){
+                second.cancel();
+            }
+        }
+    }
+
+    private static Call sendAttempt(Request request , Hedging policy , CompletableFuture<Response> winner , CompletableFuture<Response> attempt , AtomicBoolean answered , boolean hedge){
+        long start = System.nanoTime();
+        Call call = asyncClient.newCall(request);
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call , IOException e) {
+                attempt.completeExceptionally(e);
+            }
+
+            @Override
+            public void onResponse(Call call , okhttp3.Response response) {
+                try(ResponseBody body = response.body()){
+                    Response result = new Response(response.code() , Objects.requireNonNull(body).string());
+                    // Recorded before completing so the caller sees the statistics of its request
+                    if(answered.compareAndSet(false , true)){
+                        policy.record(System.nanoTime() - start , hedge);
+                        winner.complete(result);
+                    }
+                    attempt.complete(result);
+                }catch (IOException e){
+                    onFailure(call , e);
+                }
+            }
+        });
+        return call;
+    }
+
+    /**
+     * Makes a GET request to the specified URL.
+     *
+     * @param baseUrl the URL to send the request to
+     * @return a Response object containing the server's response
+     * @throws CircuitOpenException if the circuit of the endpoint is open
+     */
     public static Response requestGET(String baseUrl){
 
         try {
             return requestGET(baseUrl , null);
+        }catch (CircuitOpenException e){
+            throw e;
         }catch (Exception e){
             return new Response(0 , "");
         }
     }
 
+    /**
+     * Opens a streaming GET request using the shared client.
+     * <p>
+     * Unlike the other methods the body is not read into memory. The caller must close the
+     * returned response (or its body stream) once done.
+     * </p>
+     *
+     * @param baseUrl the URL to send the request to
+     * @param auth the authentication token (can be null)
+     * @param offset the byte offset to start from using a range request, {@code 0} for the whole body
+     * @return the open OkHttp response
+     * @throws IOException if the request could not be made
+     * @throws CircuitOpenException if the circuit of the endpoint is open
+     */
+    public static okhttp3.Response requestStream(String baseUrl , String auth , long offset) throws IOException {
+        Request.Builder request = new Request.Builder()
+                .url(new URL(baseUrl))
+                .get();
+        if(auth!=null){
+            request.addHeader("Authorization", "Bearer " + auth);
+        }
+        if(offset > 0){
+            request.addHeader("Range", "bytes=" + offset + "-");
+        }
+        Request built = request.build();
+        CircuitBreaker breaker = acquire(baseUrl);
+        try{
+            okhttp3.Response response = client.newCall(built).execute();
+            record(breaker , response.code());
+            return response;
+        }catch (IOException | RuntimeException e){
+            record(breaker , 0);
+            throw e;
+        }
+    }
+
+    /**
+     * Makes a DELETE request to the specified URL with authentication.
+     *
+     * @param baseUrl the URL to send the request to
+     * @param auth the authentication token (can be null)
+     * @return a Response object containing the server's response
+     * @throws CircuitOpenException if the circuit of the endpoint is open
+     */
     public static Response requestDELETE(String baseUrl , String auth){
         try {
 
@@ -110,35 +393,76 @@ public class IO {
             if(auth!=null){
                 request.addHeader("Authorization", "Bearer " + auth);
             }
-            okhttp3.Response response = client.newCall(request.build()).execute();
-            return new Response(response.code() , Objects.requireNonNull(response.body()).string());
+            Request built = request.build();
+            return send(acquire(baseUrl) , built , false);
 
+        }catch (CircuitOpenException e){
+            throw e;
         }catch (Exception e){
             return new Response(0 , "");
         }
     }
 
+    /**
+     * Makes a PATCH request to the specified URL with JSON merge patch content.
+     *
+     * @param baseUrl the URL to send the request to
+     * @param auth the authentication token (can be null)
+     * @param data the JSON merge patch to send in the request body
+     * @return a Response object containing the server's response
+     * @throws CircuitOpenException if the circuit of the endpoint is open
+     */
     public static Response requestPATCH(String baseUrl , String auth , String data){
+        try {
+            return requestPATCH(baseUrl , auth , RequestBody.create(data , PATCH));
+        }catch (CircuitOpenException e){
+            throw e;
+        }catch (Exception e){
+            return new Response(0 , "");
+        }
+    }
+
+    /**
+     * Makes a PATCH request to the specified URL with a prepared body.
+     *
+     * @param baseUrl the URL to send the request to
+     * @param auth the authentication token (can be null)
+     * @param body the request body, sent as merge patch if it is a {@link JsonBody} built for it
+     * @return a Response object containing the server's response
+     * @throws CircuitOpenException if the circuit of the endpoint is open
+     */
+    public static Response requestPATCH(String baseUrl , String auth , RequestBody body){
         try {
 
             URL url = new URL(baseUrl);
             Request.Builder request = new Request.Builder()
                     .url(url)
-                    .patch(RequestBody.create(data , PATCH))
+                    .patch(body)
                     .addHeader("accept", "application/json");
 
             if(auth!=null){
                 request.addHeader("Authorization", "Bearer " + auth);
             }
-            okhttp3.Response response = client.newCall(request.build()).execute();
-            return new Response(response.code() , Objects.requireNonNull(response.body()).string());
+            Request built = request.build();
+            return send(acquire(baseUrl) , built , false);
 
+        }catch (CircuitOpenException e){
+            throw e;
         }catch (Exception e){
             return new Response(0 , "");
         }
     }
 
+    /**
+     * Marks the resource at the specified URL as seen with a PATCH request.
+     *
+     * @param baseUrl the URL to send the request to
+     * @param auth the authentication token (can be null)
+     * @return a Response object containing the server's response
+     * @throws CircuitOpenException if the circuit of the endpoint is open
+     */
     public static Response requestPATCH(String baseUrl , String auth){
-        return requestPATCH(baseUrl , auth , "{\"seen\" : true}");
+        // The body never changes, one instance is written for every request
+        return requestPATCH(baseUrl , auth , SEEN);
     }
 }
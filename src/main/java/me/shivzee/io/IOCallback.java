@@ -1,17 +1,21 @@
 package me.shivzee.io;
 
-import com.google.gson.Gson;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
+import com.launchdarkly.eventsource.ConnectionErrorHandler;
 import com.launchdarkly.eventsource.EventHandler;
 import com.launchdarkly.eventsource.MessageEvent;
+import com.launchdarkly.eventsource.UnsuccessfulResponseException;
 import me.shivzee.JMailTM;
 import me.shivzee.callbacks.EventListener;
 import me.shivzee.util.Account;
+import me.shivzee.util.JsonCodec;
+import me.shivzee.util.MessageSummary;
 
-import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
 
-public class IOCallback implements EventHandler {
+public class IOCallback implements EventHandler , ConnectionErrorHandler {
+
+    // How often a listener waiting for the circuit checks it again
+    private static final long CIRCUIT_POLL_MILLIS = 250;
 
     private final EventListener listener;
     private final JMailTM mailTM;
@@ -25,9 +29,40 @@ public class IOCallback implements EventHandler {
 
     @Override
     public void onOpen() {
+        CircuitBreaker breaker = IO.getCircuitBreaker(Endpoint.MERCURE);
+        if(breaker != null){
+            breaker.onSuccess();
+        }
         listener.onReady();
     }
 
+    /**
+     * Holds back reconnects while the circuit of the Mercure hub is open, instead of retrying
+     * on a fixed schedule against a hub that is down.
+     */
+    @Override
+    public Action onConnectionError(Throwable throwable) {
+        CircuitBreaker breaker = IO.getCircuitBreaker(Endpoint.MERCURE);
+        if(breaker == null){
+            return Action.PROCEED;
+        }
+        // A refused subscription (e.g. an expired token) means the hub itself is up
+        if(throwable instanceof UnsuccessfulResponseException && ((UnsuccessfulResponseException) throwable).getCode() < 500){
+            breaker.onSuccess();
+            return Action.PROCEED;
+        }
+        breaker.onFailure();
+        try{
+            while(!breaker.tryAcquire()){
+                TimeUnit.MILLISECONDS.sleep(Math.max(CIRCUIT_POLL_MILLIS , breaker.getRetryAfter().toMillis()));
+            }
+        }catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+            return Action.SHUTDOWN;
+        }
+        return Action.PROCEED;
+    }
+
     @Override
     public void onClosed() {
         listener.onClose();
@@ -38,25 +73,22 @@ public class IOCallback implements EventHandler {
         String data = messageEvent.getData().trim();
         try{
             if(!data.isEmpty()){
-                JsonObject json = JsonParser.parseString(messageEvent.getData()).getAsJsonObject();
-                if(json.get("@type").getAsString().equals("Message")){
-                    boolean seen = json.get("seen").getAsBoolean();
-                    boolean isDeleted = json.get("isDeleted").getAsBoolean();
+                JsonCodec codec = JsonCodec.getDefault();
+                if("Message".equals(codec.readString(data , "@type"))){
+                    MessageSummary summary = codec.fromJson(data , MessageSummary.class , null , false);
+                    listener.onMessageEvent(summary);
 
-                    String id = json.get("id").getAsString();
-                    if(isDeleted){
+                    String id = summary.getId();
+                    if(summary.isDeleted()){
                         listener.onMessageDelete(id);
                     }
-                    else if(seen){
+                    else if(summary.isSeen()){
                         listener.onMessageSeen(mailTM.getMessageById(id));
                     }else{
                         listener.onMessageReceived(mailTM.getMessageById(id));
                     }
                 }else{
-                    Field field = mailTM.getClass().getDeclaredField("gson");
-                    field.setAccessible(true);
-                    Gson gson = (Gson) field.get(mailTM);
-                    Account account = gson.fromJson(json , Account.class);
+                    Account account = codec.fromJson(data , Account.class , null , false);
                     if(account.isDeleted()){
                         listener.onAccountDelete(account);
                     }else{
@@ -0,0 +1,311 @@
+package me.shivzee.io;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A request body holding a flat JSON object, encoded straight into the request sink.
+ * <p>
+ * The members are kept as they are given and only escaped while OkHttp writes the body, so
+ * no intermediate JSON string is built. Quotes, backslashes and control characters in values
+ * are escaped as JSON requires. The exact content length is computed without encoding, so
+ * the request is sent with a {@code Content-Length} rather than chunked. A body can be
+ * written any number of times and shared between requests once built.
+ * </p>
+ * <p>
+ * Example usage:
+ * <pre>{@code
+ * RequestBody body = JsonBody.object().put("address", email).put("password", password);
+ * }</pre>
+ */
+public final class JsonBody extends RequestBody {
+
+    private static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
+    private static final byte[] HEX = "0123456789abcdef".getBytes();
+
+    // How a string is written, decided while measuring it
+    private static final byte ASCII = 0;
+    private static final byte UNICODE = 1;
+    private static final byte ESCAPED = 2;
+
+    private static final char LINE_SEPARATOR = 0x2028;
+    private static final char PARAGRAPH_SEPARATOR = 0x2029;
+
+    // Plain ASCII bodies up to this length are assembled in a per-thread buffer and written at once
+    private static final int SCRATCH_SIZE = 512;
+    private static final ThreadLocal<byte[]> SCRATCH = ThreadLocal.withInitial(() -> new byte[SCRATCH_SIZE]);
+
+    /**
+     * The measured form of the members, published as one immutable object so that a body
+     * shared between threads never sees a length without the matching kinds.
+     */
+    private static final class Layout {
+        final long length;
+        final byte[] kinds;
+        final boolean ascii;
+
+        Layout(long length, byte[] kinds) {
+            this.length = length;
+            this.kinds = kinds;
+            boolean plain = true;
+            for (byte kind : kinds) {
+                plain &= kind == ASCII;
+            }
+            this.ascii = plain;
+        }
+    }
+
+    private final MediaType contentType;
+    private String[] names = new String[2];
+    private Object[] values = new Object[2];
+    private int size;
+    private volatile Layout layout;
+
+    private JsonBody(MediaType contentType) {
+        this.contentType = contentType;
+    }
+
+    /**
+     * Starts an empty JSON object sent as {@code application/json}.
+     *
+     * @return the new body
+     */
+    public static JsonBody object() {
+        return new JsonBody(JSON);
+    }
+
+    /**
+     * Starts an empty JSON object sent with the given content type.
+     *
+     * @param contentType the content type of the request
+     * @return the new body
+     */
+    public static JsonBody object(MediaType contentType) {
+        return new JsonBody(contentType);
+    }
+
+    /**
+     * Adds a string member.
+     *
+     * @param name the member name
+     * @param value the value, null is written as JSON null
+     * @return this body
+     */
+    public JsonBody put(String name, String value) {
+        return add(name, value);
+    }
+
+    /**
+     * Adds a boolean member.
+     *
+     * @param name the member name
+     * @param value the value
+     * @return this body
+     */
+    public JsonBody put(String name, boolean value) {
+        return add(name, value);
+    }
+
+    private JsonBody add(String name, Object value) {
+        if (size == names.length) {
+            names = Arrays.copyOf(names, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        names[size] = name;
+        values[size] = value;
+        size++;
+        layout = null;
+        return this;
+    }
+
+    @Override
+    public MediaType contentType() {
+        return contentType;
+    }
+
+    @Override
+    public long contentLength() {
+        return layout().length;
+    }
+
+    private Layout layout() {
+        Layout current = layout;
+        if (current == null) {
+            byte[] kinds = new byte[size * 2];
+            long total = 2 + Math.max(0, size - 1) + size;
+            for (int i = 0; i < size; i++) {
+                total += measure(names[i], kinds, i * 2);
+                Object value = values[i];
+                if (value == null) {
+                    total += 4;
+                } else if (value instanceof Boolean) {
+                    total += (Boolean) value ? 4 : 5;
+                } else {
+                    total += measure((String) value, kinds, i * 2 + 1);
+                }
+            }
+            current = new Layout(total, kinds);
+            layout = current;
+        }
+        return current;
+    }
+
+    @Override
+    public void writeTo(BufferedSink sink) throws IOException {
+        // OkHttp asks for the length first, which also tells how each string is written
+        Layout current = layout();
+        if (current.ascii && current.length <= SCRATCH_SIZE) {
+            writeAscii(sink, (int) current.length);
+            return;
+        }
+        byte[] kinds = current.kinds;
+        sink.writeByte('{');
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                sink.writeByte(',');
+            }
+            writeString(sink, names[i], kinds[i * 2]);
+            sink.writeByte(':');
+            Object value = values[i];
+            if (value == null) {
+                sink.writeUtf8("null");
+            } else if (value instanceof Boolean) {
+                sink.writeUtf8((Boolean) value ? "true" : "false");
+            } else {
+                writeString(sink, (String) value, kinds[i * 2 + 1]);
+            }
+        }
+        sink.writeByte('}');
+    }
+
+    /**
+     * Writes a body with nothing to escape or encode, copying each string as bytes in one go
+     * instead of encoding it character by character.
+     */
+    @SuppressWarnings("deprecation")
+    private void writeAscii(BufferedSink sink, int length) throws IOException {
+        byte[] out = SCRATCH.get();
+        int pos = 0;
+        out[pos++] = '{';
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                out[pos++] = ',';
+            }
+            pos = copyQuoted(names[i], out, pos);
+            out[pos++] = ':';
+            Object value = values[i];
+            if (value instanceof String) {
+                pos = copyQuoted((String) value, out, pos);
+            } else {
+                String literal = value == null ? "null" : (Boolean) value ? "true" : "false";
+                literal.getBytes(0, literal.length(), out, pos);
+                pos += literal.length();
+            }
+        }
+        out[pos++] = '}';
+        sink.write(out, 0, length);
+    }
+
+    @SuppressWarnings("deprecation")
+    private static int copyQuoted(String value, byte[] out, int pos) {
+        out[pos++] = '"';
+        value.getBytes(0, value.length(), out, pos);
+        pos += value.length();
+        out[pos++] = '"';
+        return pos;
+    }
+
+    private static void writeString(BufferedSink sink, String value, byte kind) throws IOException {
+        if (kind == ESCAPED) {
+            writeString(sink, value);
+        } else {
+            sink.writeByte('"').writeUtf8(value).writeByte('"');
+        }
+    }
+
+    /**
+     * Writes a quoted and escaped JSON string, copying unescaped runs in one go.
+     */
+    static void writeString(BufferedSink sink, String value) throws IOException {
+        sink.writeByte('"');
+        int run = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (!needsEscape(c)) {
+                continue;
+            }
+            if (i > run) {
+                sink.writeUtf8(value, run, i);
+            }
+            run = i + 1;
+            switch (c) {
+                case '"': sink.writeByte('\\').writeByte('"'); break;
+                case '\\': sink.writeByte('\\').writeByte('\\'); break;
+                case '\n': sink.writeByte('\\').writeByte('n'); break;
+                case '\r': sink.writeByte('\\').writeByte('r'); break;
+                case '\t': sink.writeByte('\\').writeByte('t'); break;
+                case '\b': sink.writeByte('\\').writeByte('b'); break;
+                case '\f': sink.writeByte('\\').writeByte('f'); break;
+                default:
+                    sink.writeByte('\\').writeByte('u')
+                            .writeByte(HEX[c >> 12 & 0xf]).writeByte(HEX[c >> 8 & 0xf])
+                            .writeByte(HEX[c >> 4 & 0xf]).writeByte(HEX[c & 0xf]);
+            }
+        }
+        if (value.length() > run) {
+            sink.writeUtf8(value, run, value.length());
+        }
+        sink.writeByte('"');
+    }
+
+    /**
+     * Counts the UTF-8 bytes a string is written as, quotes included, and records its kind.
+     */
+    private static long measure(String value, byte[] kinds, int index) {
+        int length = value.length();
+        int i = 0;
+        // Addresses and most passwords are plain ASCII, settle those in one tight loop
+        while (i < length) {
+            char c = value.charAt(i);
+            if (c < 0x20 || c >= 0x80 || c == '"' || c == '\\') {
+                break;
+            }
+            i++;
+        }
+        kinds[index] = ASCII;
+        if (i == length) {
+            return length + 2;
+        }
+        kinds[index] = UNICODE;
+        long total = 2 + i;
+        for (; i < length; i++) {
+            char c = value.charAt(i);
+            if (needsEscape(c)) {
+                total += c == '"' || c == '\\' || c == '\n' || c == '\r' || c == '\t' || c == '\b' || c == '\f' ? 2 : 6;
+                kinds[index] = ESCAPED;
+            } else if (c < 0x80) {
+                total += 1;
+            } else if (c < 0x800) {
+                total += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                total += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                // Okio writes an unpaired surrogate as '?'
+                total += 1;
+            } else {
+                total += 3;
+            }
+        }
+        return total;
+    }
+
+    // Line and paragraph separators are valid JSON but break JavaScript consumers, Gson escapes them too
+    private static boolean needsEscape(char c) {
+        return c < 0x20 || c == '"' || c == '\\' || c == LINE_SEPARATOR || c == PARAGRAPH_SEPARATOR;
+    }
+}
@@ -0,0 +1,75 @@
+package me.shivzee.io;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Collapses concurrent identical calls into one.
+ * <p>
+ * The first caller for a key runs the call on its own thread. Callers that ask for the same
+ * key while it is still running do not start their own, they wait for it and get the same
+ * result or the same exception. Once the call is done the key is forgotten, so nothing is
+ * cached: a caller that comes later runs a new call.
+ * </p>
+ * <p>
+ * Only meant for idempotent reads, where a caller can be handed a result it did not ask for
+ * itself. Results are shared between callers and should not be modified.
+ * </p>
+ *
+ * @see me.shivzee.JMailTM#getMessageById(String)
+ */
+public final class SingleFlight {
+
+    private final ConcurrentMap<String, CompletableFuture<Object>> calls = new ConcurrentHashMap<>();
+
+    /**
+     * Runs a call, or waits for the identical call already running.
+     *
+     * @param <T> the type of the result
+     * @param key identifies the call, e.g. the request URL
+     * @param call the call to run if none is running for the key
+     * @return the result of the call
+     * @throws Exception the exception thrown by the call, or {@link InterruptedException} if interrupted while waiting
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Callable<T> call) throws Exception {
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> running = calls.putIfAbsent(key, mine);
+        if (running != null) {
+            try {
+                return (T) running.get();
+            } catch (ExecutionException e) {
+                throw rethrow(e.getCause());
+            }
+        }
+        try {
+            T result = call.call();
+            calls.remove(key, mine);
+            mine.complete(result);
+            return result;
+        } catch (Throwable t) {
+            calls.remove(key, mine);
+            mine.completeExceptionally(t);
+            throw rethrow(t);
+        }
+    }
+
+    /**
+     * Gets the number of calls running right now.
+     *
+     * @return the number of distinct keys in flight
+     */
+    public int size() {
+        return calls.size();
+    }
+
+    private static Exception rethrow(Throwable t) {
+        if (t instanceof Error) {
+            throw (Error) t;
+        }
+        return (Exception) t;
+    }
+}
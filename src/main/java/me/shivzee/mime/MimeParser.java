@@ -0,0 +1,422 @@
+package me.shivzee.mime;
+
+import me.shivzee.callbacks.MimeHandler;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The MimeParser class is an incremental parser for raw MIME ({@code .eml}) messages.
+ * <p>
+ * The message is read line by line from the stream and reported to a {@link MimeHandler}
+ * as it goes, so memory use stays constant no matter how large the message or its parts are.
+ * Lines longer than the internal buffer are passed on in chunks. Nested multiparts are
+ * supported, and base64 and quoted-printable bodies are decoded on the fly.
+ * </p>
+ * <p>
+ * Example usage:
+ * <pre>{@code
+ * try (InputStream raw = message.openRawStream()) {
+ *     new MimeParser(new MimeHandler() {
+ *         {@literal @}Override
+ *         public void onHeader(String name, String value) {
+ *             if (name.equalsIgnoreCase("DKIM-Signature")) System.out.println(value);
+ *         }
+ *
+ *         {@literal @}Override
+ *         public boolean onHeadersEnd(int depth, String contentType) {
+ *             return false; // Only the top level headers are needed
+ *         }
+ *     }).parse(raw);
+ * }
+ * }</pre>
+ *
+ * @see me.shivzee.util.Message#openRawStream()
+ */
+public class MimeParser {
+
+    private static final int MAX_LINE = 8192;
+    private static final int MAX_HEADER = 65536;
+    private static final int EOF = -1;
+    private static final byte[] CRLF = {'\r', '\n'};
+    private static final byte[] LF = {'\n'};
+
+    private static final int IDENTITY = 0;
+    private static final int BASE64 = 1;
+    private static final int QUOTED_PRINTABLE = 2;
+
+    private final MimeHandler handler;
+    private final List<byte[]> boundaries = new ArrayList<>();
+
+    private InputStream in;
+    private final byte[] buffer = new byte[MAX_LINE];
+    private int position;
+    private int limit;
+    private final byte[] line = new byte[MAX_LINE];
+    private int lineLength;
+    private boolean lineEnded;
+    private boolean atLineStart;
+    private boolean stopped;
+
+    private final byte[] decoded = new byte[MAX_LINE];
+    private int base64Bits;
+    private int base64BitCount;
+
+    private static final int[] BASE64_VALUES = new int[128];
+
+    static {
+        Arrays.fill(BASE64_VALUES, -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+        for (int i = 0; i < alphabet.length(); i++) {
+            BASE64_VALUES[alphabet.charAt(i)] = i;
+        }
+    }
+
+    /**
+     * Constructs a new MimeParser.
+     *
+     * @param handler the handler to report the parts to
+     */
+    public MimeParser(MimeHandler handler) {
+        this.handler = handler;
+    }
+
+    /**
+     * Parses a raw MIME message.
+     * <p>
+     * The stream is read up to the end of the message, or until the handler asks to stop.
+     * Bytes past the point where parsing stopped may already have been read. The stream is not closed.
+     * </p>
+     *
+     * @param in the raw message
+     * @throws IOException if the stream could not be read
+     */
+    public void parse(InputStream in) throws IOException {
+        this.in = in;
+        this.position = 0;
+        this.limit = 0;
+        this.boundaries.clear();
+        this.lineLength = 0;
+        this.lineEnded = false;
+        this.stopped = false;
+        parsePart(0);
+    }
+
+    /**
+     * Reads a parameter from a structured header value such as {@code Content-Type}.
+     *
+     * @param headerValue the header value, e.g. {@code multipart/mixed; boundary="abc"}
+     * @param name the parameter name, matched case-insensitively
+     * @return the parameter value without quotes, or null if it is not present
+     */
+    public static String parameter(String headerValue, String name) {
+        if (headerValue == null) {
+            return null;
+        }
+        String lower = headerValue.toLowerCase(Locale.ROOT);
+        String key = name.toLowerCase(Locale.ROOT);
+        int from = 0;
+        while (true) {
+            int semicolon = lower.indexOf(';', from);
+            if (semicolon < 0) {
+                return null;
+            }
+            int start = semicolon + 1;
+            while (start < lower.length() && Character.isWhitespace(lower.charAt(start))) {
+                start++;
+            }
+            if (lower.startsWith(key, start)) {
+                int equals = start + key.length();
+                while (equals < lower.length() && Character.isWhitespace(lower.charAt(equals))) {
+                    equals++;
+                }
+                if (equals < lower.length() && lower.charAt(equals) == '=') {
+                    int value = equals + 1;
+                    while (value < headerValue.length() && Character.isWhitespace(headerValue.charAt(value))) {
+                        value++;
+                    }
+                    if (value < headerValue.length() && headerValue.charAt(value) == '"') {
+                        int end = headerValue.indexOf('"', value + 1);
+                        return headerValue.substring(value + 1, end < 0 ? headerValue.length() : end);
+                    }
+                    int end = headerValue.indexOf(';', value);
+                    return headerValue.substring(value, end < 0 ? headerValue.length() : end).trim();
+                }
+            }
+            from = start;
+        }
+    }
+
+    /**
+     * Parses one part and returns the marker that ended it, see {@link #matchBoundary()}.
+     */
+    private int parsePart(int depth) throws IOException {
+        handler.onPartStart(depth);
+        String contentType = "text/plain";
+        String transferEncoding = null;
+
+        StringBuilder header = null;
+        int marker = EOF;
+        while (readLine() != EOF) {
+            if (atLineStart && contentLength() == 0) {
+                break;
+            }
+            boolean continuation = !atLineStart || line[0] == ' ' || line[0] == '\t';
+            if (continuation && header != null) {
+                if (header.length() < MAX_HEADER) {
+                    header.append(new String(line, 0, contentLength(), StandardCharsets.UTF_8));
+                }
+                continue;
+            }
+            if (header != null) {
+                String[] parsed = emitHeader(header);
+                if (parsed[0].equalsIgnoreCase("Content-Type")) {
+                    contentType = parsed[1];
+                } else if (parsed[0].equalsIgnoreCase("Content-Transfer-Encoding")) {
+                    transferEncoding = parsed[1];
+                }
+            }
+            header = new StringBuilder(new String(line, 0, contentLength(), StandardCharsets.UTF_8));
+        }
+        if (header != null) {
+            String[] parsed = emitHeader(header);
+            if (parsed[0].equalsIgnoreCase("Content-Type")) {
+                contentType = parsed[1];
+            } else if (parsed[0].equalsIgnoreCase("Content-Transfer-Encoding")) {
+                transferEncoding = parsed[1];
+            }
+        }
+
+        String mediaType = contentType.split(";", 2)[0].trim().toLowerCase(Locale.ROOT);
+        if (!handler.onHeadersEnd(depth, mediaType)) {
+            stopped = true;
+            return EOF;
+        }
+
+        String boundary = parameter(contentType, "boundary");
+        if (mediaType.startsWith("multipart/") && boundary != null) {
+            boundaries.add(("--" + boundary).getBytes(StandardCharsets.ISO_8859_1));
+            int level = boundaries.size() - 1;
+            marker = skipUntilBoundary();
+            while (!stopped && marker != EOF && (marker >> 1) == level && (marker & 1) == 0) {
+                marker = parsePart(depth + 1);
+            }
+            if (!stopped && marker != EOF && (marker >> 1) == level) {
+                // Closing boundary, skip the epilogue up to the parent's next boundary
+                boundaries.remove(level);
+                marker = skipUntilBoundary();
+            } else {
+                boundaries.remove(level);
+            }
+        } else if (!stopped) {
+            marker = readBody(encoding(transferEncoding));
+        }
+        if (!stopped) {
+            handler.onPartEnd(depth);
+        }
+        return stopped ? EOF : marker;
+    }
+
+    private String[] emitHeader(StringBuilder header) {
+        int colon = header.indexOf(":");
+        String name = colon < 0 ? header.toString().trim() : header.substring(0, colon).trim();
+        String value = colon < 0 ? "" : header.substring(colon + 1).trim();
+        handler.onHeader(name, value);
+        return new String[]{name, value};
+    }
+
+    private static int encoding(String transferEncoding) {
+        if (transferEncoding == null) {
+            return IDENTITY;
+        }
+        String value = transferEncoding.trim().toLowerCase(Locale.ROOT);
+        if (value.equals("base64")) {
+            return BASE64;
+        }
+        if (value.equals("quoted-printable")) {
+            return QUOTED_PRINTABLE;
+        }
+        return IDENTITY;
+    }
+
+    private int skipUntilBoundary() throws IOException {
+        while (readLine() != EOF) {
+            int marker = matchBoundary();
+            if (marker != EOF) {
+                return marker;
+            }
+        }
+        return EOF;
+    }
+
+    private int readBody(int encoding) throws IOException {
+        base64Bits = 0;
+        base64BitCount = 0;
+        // The line break before a boundary belongs to the boundary, so it is held back
+        byte[] pendingBreak = null;
+        int marker = EOF;
+        while (readLine() != EOF) {
+            marker = matchBoundary();
+            if (marker != EOF) {
+                break;
+            }
+            int content = contentLength();
+            if (encoding == BASE64) {
+                decodeBase64(content);
+                continue;
+            }
+            if (pendingBreak != null) {
+                handler.onBody(pendingBreak, 0, pendingBreak.length);
+                pendingBreak = null;
+            }
+            boolean softBreak = false;
+            if (encoding == QUOTED_PRINTABLE) {
+                softBreak = lineEnded && content > 0 && line[content - 1] == '=';
+                int length = decodeQuotedPrintable(softBreak ? content - 1 : content);
+                if (length > 0) {
+                    handler.onBody(decoded, 0, length);
+                }
+            } else if (content > 0) {
+                handler.onBody(line, 0, content);
+            }
+            if (lineEnded && !softBreak) {
+                pendingBreak = lineLength - content == 2 ? CRLF : LF;
+            }
+        }
+        return marker;
+    }
+
+    private void decodeBase64(int content) {
+        int out = 0;
+        for (int i = 0; i < content; i++) {
+            int b = line[i] & 0xFF;
+            int value = b < 128 ? BASE64_VALUES[b] : -1;
+            if (value < 0) {
+                // Padding, whitespace and stray characters carry no bits
+                continue;
+            }
+            base64Bits = (base64Bits << 6) | value;
+            base64BitCount += 6;
+            if (base64BitCount >= 8) {
+                base64BitCount -= 8;
+                decoded[out++] = (byte) (base64Bits >> base64BitCount);
+                if (out == decoded.length) {
+                    handler.onBody(decoded, 0, out);
+                    out = 0;
+                }
+            }
+        }
+        if (out > 0) {
+            handler.onBody(decoded, 0, out);
+        }
+    }
+
+    private int decodeQuotedPrintable(int content) {
+        int out = 0;
+        for (int i = 0; i < content; i++) {
+            byte b = line[i];
+            if (b == '=' && i + 2 < content) {
+                int high = Character.digit(line[i + 1], 16);
+                int low = Character.digit(line[i + 2], 16);
+                if (high >= 0 && low >= 0) {
+                    decoded[out++] = (byte) ((high << 4) | low);
+                    i += 2;
+                    continue;
+                }
+            }
+            decoded[out++] = b;
+        }
+        return out;
+    }
+
+    /**
+     * Checks whether the current line is one of the open boundaries.
+     *
+     * @return {@code EOF} if it is not, otherwise the boundary level shifted left by one with
+     * the lowest bit set for a closing boundary
+     */
+    private int matchBoundary() {
+        if (!atLineStart || !lineEnded && lineLength == MAX_LINE) {
+            return EOF;
+        }
+        int length = contentLength();
+        while (length > 0 && (line[length - 1] == ' ' || line[length - 1] == '\t')) {
+            length--;
+        }
+        if (length < 2 || line[0] != '-' || line[1] != '-') {
+            return EOF;
+        }
+        for (int level = boundaries.size() - 1; level >= 0; level--) {
+            byte[] boundary = boundaries.get(level);
+            if (length != boundary.length && length != boundary.length + 2) {
+                continue;
+            }
+            boolean match = true;
+            for (int i = 0; i < boundary.length && match; i++) {
+                match = line[i] == boundary[i];
+            }
+            if (!match) {
+                continue;
+            }
+            if (length == boundary.length) {
+                return level << 1;
+            }
+            if (line[length - 2] == '-' && line[length - 1] == '-') {
+                return (level << 1) | 1;
+            }
+        }
+        return EOF;
+    }
+
+    /**
+     * Reads the next line, or the next chunk of a line longer than the buffer.
+     *
+     * @return the number of bytes read including the line break, or {@code EOF}
+     */
+    private int readLine() throws IOException {
+        atLineStart = lineLength == 0 || lineEnded;
+        lineLength = 0;
+        lineEnded = false;
+        while (lineLength < MAX_LINE && !lineEnded) {
+            if (position == limit) {
+                // Refill in bulk, a read() per byte is a synchronized call on buffered streams
+                limit = Math.max(in.read(buffer, 0, buffer.length), 0);
+                position = 0;
+                if (limit == 0) {
+                    break;
+                }
+            }
+            int start = position;
+            int end = Math.min(limit, position + MAX_LINE - lineLength);
+            while (position < end && buffer[position] != '\n') {
+                position++;
+            }
+            if (position < end) {
+                position++;
+                lineEnded = true;
+            }
+            System.arraycopy(buffer, start, line, lineLength, position - start);
+            lineLength += position - start;
+        }
+        return lineLength == 0 ? EOF : lineLength;
+    }
+
+    /**
+     * @return the length of the current line without its line break
+     */
+    private int contentLength() {
+        int length = lineLength;
+        if (lineEnded) {
+            length--;
+            if (length > 0 && line[length - 1] == '\r') {
+                length--;
+            }
+        }
+        return length;
+    }
+}
@@ -0,0 +1,246 @@
+package me.shivzee.store;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A content-addressed, size-bounded cache of downloaded files on local disk.
+ * <p>
+ * Every file put into the cache is stored once under its SHA-256 hash, and any number of keys
+ * (e.g. attachment download URLs) can point at the same content. A cache hit is served by
+ * copying the cached file to the target, so no network I/O is needed. When the total size of
+ * the cached content goes above the limit the least recently used content is evicted.
+ * </p>
+ * <p>
+ * Files are always copied in and out, never linked, so changing a file served from the cache
+ * or one that was put into it does not affect the cached content.
+ * </p>
+ * <p>
+ * The cache is safe for concurrent use. Files are copied and hashed outside of its lock, so
+ * parallel downloads only wait on each other for the index update.
+ * </p>
+ *
+ * @see me.shivzee.util.Attachment#setDefaultCache(AttachmentCache)
+ */
+public class AttachmentCache {
+
+    private final Path directory;
+    private final Path indexFile;
+    private final long maxBytes;
+
+    private final Map<String, String> keys = new LinkedHashMap<>();
+    private final LinkedHashMap<String, Long> blobs = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    /**
+     * Opens or creates a cache in the given directory.
+     *
+     * @param directory the cache directory
+     * @param maxBytes the maximum total size of cached content in bytes
+     * @throws IOException if the directory or its index could not be read
+     */
+    public AttachmentCache(Path directory, long maxBytes) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.indexFile = directory.resolve("index");
+        this.maxBytes = maxBytes;
+        load();
+    }
+
+    private void load() throws IOException {
+        if (!Files.exists(indexFile)) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(indexFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int tab = line.lastIndexOf('\t');
+                if (tab < 0) {
+                    continue;
+                }
+                String hash = line.substring(tab + 1);
+                Path blob = blob(hash);
+                if (!Files.exists(blob)) {
+                    continue;
+                }
+                if (!blobs.containsKey(hash)) {
+                    long size = Files.size(blob);
+                    blobs.put(hash, size);
+                    totalBytes += size;
+                }
+                keys.put(line.substring(0, tab), hash);
+            }
+        }
+    }
+
+    private Path blob(String hash) {
+        return directory.resolve(hash);
+    }
+
+    /**
+     * Checks if content is cached for a key.
+     *
+     * @param key the cache key
+     * @return {@code true} if the key is cached; {@code false} otherwise
+     */
+    public synchronized boolean contains(String key) {
+        return keys.containsKey(key);
+    }
+
+    /**
+     * Gets the content hash cached for a key.
+     *
+     * @param key the cache key
+     * @return the SHA-256 hash in hex, or null if the key is not cached
+     */
+    public synchronized String getHash(String key) {
+        return keys.get(key);
+    }
+
+    /**
+     * Writes the cached content of a key to a target file.
+     *
+     * @param key the cache key
+     * @param target the file to write, replaced if it exists
+     * @return {@code true} if the content was cached and written; {@code false} on a cache miss
+     * @throws IOException if the target could not be written
+     */
+    public boolean copyTo(String key, Path target) throws IOException {
+        String hash;
+        synchronized (this) {
+            hash = keys.get(key);
+            if (hash == null) {
+                return false;
+            }
+            // Marks the content as recently used
+            blobs.get(hash);
+        }
+        try {
+            Files.copy(blob(hash), target, StandardCopyOption.REPLACE_EXISTING);
+            return true;
+        } catch (NoSuchFileException e) {
+            synchronized (this) {
+                if (Files.exists(blob(hash))) {
+                    throw e;
+                }
+                // Evicted meanwhile or deleted from the disk
+                forget(hash);
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Puts a downloaded file into the cache under the given key.
+     * <p>
+     * The file is copied into the cache and hashed there. Content that is already cached under
+     * another key is not stored a second time.
+     * </p>
+     *
+     * @param key the cache key
+     * @param file the complete downloaded file
+     * @return the SHA-256 hash of the content in hex
+     * @throws IOException if the file could not be read or the cache could not be written
+     */
+    public String put(String key, Path file) throws IOException {
+        Path temp = Files.createTempFile(directory, "put", ".tmp");
+        try {
+            Files.copy(file, temp, StandardCopyOption.REPLACE_EXISTING);
+            String hash = hash(temp);
+            synchronized (this) {
+                if (!blobs.containsKey(hash)) {
+                    Path blob = blob(hash);
+                    Files.move(temp, blob, StandardCopyOption.REPLACE_EXISTING);
+                    long size = Files.size(blob);
+                    blobs.put(hash, size);
+                    totalBytes += size;
+                } else {
+                    blobs.get(hash);
+                }
+                keys.put(key, hash);
+                evict(hash);
+                writeIndex();
+            }
+            return hash;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Gets the total size of the cached content.
+     *
+     * @return the cached bytes
+     */
+    public synchronized long size() {
+        return totalBytes;
+    }
+
+    private void evict(String keep) throws IOException {
+        Iterator<Map.Entry<String, Long>> oldest = blobs.entrySet().iterator();
+        while (totalBytes > maxBytes && oldest.hasNext()) {
+            Map.Entry<String, Long> entry = oldest.next();
+            if (entry.getKey().equals(keep)) {
+                continue;
+            }
+            oldest.remove();
+            totalBytes -= entry.getValue();
+            keys.values().removeIf(entry.getKey()::equals);
+            Files.deleteIfExists(blob(entry.getKey()));
+        }
+    }
+
+    private void forget(String hash) throws IOException {
+        Long size = blobs.remove(hash);
+        if (size != null) {
+            totalBytes -= size;
+        }
+        keys.values().removeIf(hash::equals);
+        writeIndex();
+    }
+
+    private void writeIndex() throws IOException {
+        Path temp = directory.resolve("index.tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, String> entry : keys.entrySet()) {
+                writer.write(entry.getKey());
+                writer.write('\t');
+                writer.write(entry.getValue());
+                writer.newLine();
+            }
+        }
+        Files.move(temp, indexFile, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static String hash(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+        byte[] buffer = new byte[8192];
+        try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+            while (in.read(buffer) != -1) {
+                // Reading feeds the digest
+            }
+        }
+        StringBuilder hex = new StringBuilder(64);
+        for (byte b : digest.digest()) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+}
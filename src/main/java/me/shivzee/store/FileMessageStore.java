@@ -0,0 +1,240 @@
+package me.shivzee.store;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A {@link MessageStore} backed by an append-only log file on local disk.
+ * <p>
+ * Every {@link #put(String, String, String)} and {@link #remove(String)} appends a record to the
+ * log, nothing is ever rewritten in place. The index (message id to file offset, and
+ * {@code createdAt} order) lives in memory and is rebuilt by scanning the log when the store is
+ * opened. A record left half written by a crash is cut off on open. Replaced and removed
+ * messages keep using disk space until {@link #compact()} is called.
+ * </p>
+ * <p>
+ * Record layout : op {@code byte}, then the id, and for puts the {@code createdAt} and the JSON,
+ * each written as an {@code int} length followed by UTF-8 bytes.
+ * </p>
+ */
+public class FileMessageStore implements MessageStore {
+
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+
+    private final Path file;
+    private FileChannel channel;
+    private final Map<String, Entry> index = new HashMap<>();
+    private final TreeMap<String, String> byCreatedAt = new TreeMap<>();
+
+    private static final class Entry {
+        final String createdAt;
+        final long offset;
+        final int length;
+
+        Entry(String createdAt, long offset, int length) {
+            this.createdAt = createdAt;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    /**
+     * Opens or creates a message store in the given file.
+     *
+     * @param file the log file
+     * @throws IOException if the file could not be opened or read
+     */
+    public FileMessageStore(Path file) throws IOException {
+        this.file = file;
+        open();
+    }
+
+    private void open() throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        index.clear();
+        byCreatedAt.clear();
+
+        long position = 0;
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel.position(0))));
+        try {
+            while (true) {
+                byte op = in.readByte();
+                byte[] id = readBytes(in);
+                long next = position + 1 + 4 + id.length;
+                if (op == PUT) {
+                    byte[] createdAt = readBytes(in);
+                    int length = in.readInt();
+                    long offset = next + 4 + createdAt.length + 4;
+                    if (in.skipBytes(length) != length) {
+                        throw new EOFException();
+                    }
+                    index(new String(id, StandardCharsets.UTF_8), new Entry(new String(createdAt, StandardCharsets.UTF_8), offset, length));
+                    next = offset + length;
+                } else if (op == REMOVE) {
+                    unindex(new String(id, StandardCharsets.UTF_8));
+                } else {
+                    throw new EOFException();
+                }
+                position = next;
+            }
+        } catch (EOFException endOfLog) {
+            // Anything past the last complete record is a partial write
+            channel.truncate(position);
+        }
+        channel.position(position);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            throw new EOFException();
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private void index(String id, Entry entry) {
+        unindex(id);
+        index.put(id, entry);
+        byCreatedAt.put(entry.createdAt + '\u0000' + id, id);
+    }
+
+    private void unindex(String id) {
+        Entry old = index.remove(id);
+        if (old != null) {
+            byCreatedAt.remove(old.createdAt + '\u0000' + id);
+        }
+    }
+
+    @Override
+    public synchronized boolean contains(String id) {
+        return index.containsKey(id);
+    }
+
+    @Override
+    public synchronized void put(String id, String createdAt, String json) throws IOException {
+        byte[] idBytes = id.getBytes(StandardCharsets.UTF_8);
+        byte[] createdAtBytes = (createdAt == null ? "" : createdAt).getBytes(StandardCharsets.UTF_8);
+        byte[] jsonBytes = json.getBytes(StandardCharsets.UTF_8);
+
+        ByteArrayOutputStream record = new ByteArrayOutputStream(17 + idBytes.length + createdAtBytes.length + jsonBytes.length);
+        DataOutputStream out = new DataOutputStream(record);
+        out.writeByte(PUT);
+        writeBytes(out, idBytes);
+        writeBytes(out, createdAtBytes);
+        writeBytes(out, jsonBytes);
+
+        long start = append(record.toByteArray());
+        long offset = start + record.size() - jsonBytes.length;
+        index(id, new Entry(new String(createdAtBytes, StandardCharsets.UTF_8), offset, jsonBytes.length));
+    }
+
+    @Override
+    public synchronized String get(String id) throws IOException {
+        Entry entry = index.get(id);
+        if (entry == null) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(entry.length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, entry.offset + buffer.position()) < 0) {
+                throw new EOFException("Message store " + file + " is truncated");
+            }
+        }
+        return new String(buffer.array(), StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public synchronized void remove(String id) throws IOException {
+        if (!index.containsKey(id)) {
+            return;
+        }
+        byte[] idBytes = id.getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream record = new ByteArrayOutputStream(5 + idBytes.length);
+        DataOutputStream out = new DataOutputStream(record);
+        out.writeByte(REMOVE);
+        writeBytes(out, idBytes);
+        append(record.toByteArray());
+        unindex(id);
+    }
+
+    private long append(byte[] record) throws IOException {
+        long start = channel.size();
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, start + buffer.position());
+        }
+        return start;
+    }
+
+    @Override
+    public synchronized List<String> getIds() {
+        List<String> ids = new ArrayList<>(byCreatedAt.values());
+        Collections.reverse(ids);
+        return ids;
+    }
+
+    @Override
+    public synchronized List<String> getIdsAfter(String createdAt) {
+        List<String> ids = new ArrayList<>(byCreatedAt.tailMap(createdAt + '\uffff', false).values());
+        Collections.reverse(ids);
+        return ids;
+    }
+
+    @Override
+    public synchronized int size() {
+        return index.size();
+    }
+
+    /**
+     * Rewrites the log keeping only the current version of every stored message.
+     *
+     * @throws IOException if the log could not be rewritten
+     */
+    public synchronized void compact() throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".compact");
+        try (FileMessageStore compacted = new FileMessageStore(temp)) {
+            compacted.channel.truncate(0);
+            for (String id : byCreatedAt.values()) {
+                compacted.put(id, index.get(id).createdAt, get(id));
+            }
+        }
+        channel.close();
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        open();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,128 @@
+package me.shivzee.store;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@link SessionStore} backed by a single local file in a compact binary format.
+ * <p>
+ * The file is read once on first use and kept in memory. Every change rewrites the whole file
+ * into a temporary file which is then moved over the old one, so a crash never leaves a half
+ * written store behind. Use {@link #saveAll(Collection)} to persist many accounts with one write.
+ * </p>
+ * <p>
+ * Layout : magic {@code int}, version {@code byte}, count {@code int}, then per session the id,
+ * address and token as modified UTF-8 followed by the expiry as a {@code long}.
+ * </p>
+ */
+public class FileSessionStore implements SessionStore {
+
+    private static final int MAGIC = 0x4A4D5453; // "JMTS"
+    private static final byte VERSION = 1;
+
+    private final Path file;
+    private Map<String, Session> sessions;
+
+    /**
+     * Constructs a FileSessionStore for the given file. The file is created on the first save.
+     *
+     * @param file the file to store the sessions in
+     */
+    public FileSessionStore(Path file) {
+        this.file = file;
+    }
+
+    @Override
+    public synchronized void saveAll(Collection<Session> toSave) throws IOException {
+        Map<String, Session> current = sessions();
+        for (Session session : toSave) {
+            current.put(session.getId(), session);
+        }
+        write(current);
+    }
+
+    @Override
+    public synchronized Session load(String id) throws IOException {
+        return sessions().get(id);
+    }
+
+    @Override
+    public synchronized List<Session> loadAll() throws IOException {
+        return new ArrayList<>(sessions().values());
+    }
+
+    @Override
+    public synchronized void remove(String id) throws IOException {
+        Map<String, Session> current = sessions();
+        if (current.remove(id) != null) {
+            write(current);
+        }
+    }
+
+    private Map<String, Session> sessions() throws IOException {
+        if (sessions == null) {
+            sessions = read();
+        }
+        return sessions;
+    }
+
+    private Map<String, Session> read() throws IOException {
+        Map<String, Session> result = new LinkedHashMap<>();
+        if (!Files.exists(file)) {
+            return result;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(file + " is not a session store");
+            }
+            byte version = in.readByte();
+            if (version != VERSION) {
+                throw new IOException("Unsupported session store version " + version);
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String id = in.readUTF();
+                String address = in.readUTF();
+                String token = in.readUTF();
+                long expiresAt = in.readLong();
+                result.put(id, new Session(id, address.isEmpty() ? null : address, token, expiresAt));
+            }
+        }
+        return result;
+    }
+
+    private void write(Map<String, Session> toWrite) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeInt(toWrite.size());
+            for (Session session : toWrite.values()) {
+                out.writeUTF(session.getId());
+                out.writeUTF(session.getAddress() == null ? "" : session.getAddress());
+                out.writeUTF(session.getToken());
+                out.writeLong(session.getExpiresAt());
+            }
+        }
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException atomicNotSupported) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
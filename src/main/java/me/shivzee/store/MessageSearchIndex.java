@@ -0,0 +1,268 @@
+package me.shivzee.store;
+
+import me.shivzee.util.Message;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * An in-memory inverted index over the subject, sender and text of messages.
+ * <p>
+ * Every field is split into lower-cased terms of letters and digits, and each term maps to
+ * the ids of the messages containing it. A query is a list of terms that must all match, a
+ * term ending in {@code *} matches every term with that prefix. Lookups only touch the
+ * postings of the query terms, so they stay fast however many messages are indexed.
+ * </p>
+ * <p>
+ * One index can be shared by several accounts. Once set on an account, messages are added as
+ * they are hydrated (by {@code fetchMessages}, {@code getMessageById} or the event listener)
+ * and removed when the event listener reports them deleted.
+ * </p>
+ * <p>
+ * Example usage:
+ * <pre>{@code
+ * MessageSearchIndex index = new MessageSearchIndex();
+ * mailer.setSearchIndex(index);
+ * mailer.fetchMessages(callback);
+ * List<Message> found = index.search("invoice march*");
+ * List<Message> fromBank = index.search(MessageSearchIndex.Field.SENDER, "bank");
+ * }</pre>
+ *
+ * @see me.shivzee.JMailTM#setSearchIndex(MessageSearchIndex)
+ */
+public class MessageSearchIndex {
+
+    /**
+     * The indexed parts of a message.
+     */
+    public enum Field {
+        /** The subject line */
+        SUBJECT,
+        /** The sender address and display name */
+        SENDER,
+        /** The plain text content */
+        TEXT
+    }
+
+    private static final Field[] FIELDS = Field.values();
+
+    private static final class Document {
+        final Message message;
+        final Map<Field, Set<String>> terms;
+
+        Document(Message message, Map<Field, Set<String>> terms) {
+            this.message = message;
+            this.terms = terms;
+        }
+    }
+
+    private final Map<Field, TreeMap<String, Set<String>>> postings = new EnumMap<>(Field.class);
+    private final Map<String, Document> documents = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Constructs a new empty MessageSearchIndex.
+     */
+    public MessageSearchIndex() {
+        for (Field field : FIELDS) {
+            postings.put(field, new TreeMap<>());
+        }
+    }
+
+    /**
+     * Adds a message to the index, replacing any previous version with the same id.
+     *
+     * @param message the message to index
+     */
+    public void add(Message message) {
+        Map<Field, Set<String>> terms = new EnumMap<>(Field.class);
+        terms.put(Field.SUBJECT, tokenize(message.getSubject()));
+        Set<String> sender = tokenize(message.getSenderAddress());
+        sender.addAll(tokenize(message.getSenderName()));
+        terms.put(Field.SENDER, sender);
+        terms.put(Field.TEXT, tokenize(message.getContent()));
+
+        lock.writeLock().lock();
+        try {
+            unindex(message.getId());
+            documents.put(message.getId(), new Document(message, terms));
+            for (Map.Entry<Field, Set<String>> entry : terms.entrySet()) {
+                TreeMap<String, Set<String>> fieldPostings = postings.get(entry.getKey());
+                for (String term : entry.getValue()) {
+                    fieldPostings.computeIfAbsent(term, t -> new HashSet<>()).add(message.getId());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a message from the index.
+     *
+     * @param id the message id
+     * @return {@code true} if the message was indexed; {@code false} otherwise
+     */
+    public boolean remove(String id) {
+        lock.writeLock().lock();
+        try {
+            return unindex(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the messages matching every term of the query in any field.
+     *
+     * @param query the terms separated by spaces or punctuation, a trailing {@code *} makes a term a prefix
+     * @return the matching messages, newest first
+     */
+    public List<Message> search(String query) {
+        return search(FIELDS, query);
+    }
+
+    /**
+     * Finds the messages matching every term of the query in the given field.
+     *
+     * @param field the field to search
+     * @param query the terms separated by spaces or punctuation, a trailing {@code *} makes a term a prefix
+     * @return the matching messages, newest first
+     */
+    public List<Message> search(Field field, String query) {
+        return search(new Field[]{field}, query);
+    }
+
+    /**
+     * Gets the number of indexed messages.
+     *
+     * @return the message count
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Message> search(Field[] fields, String query) {
+        List<String> terms = new ArrayList<>();
+        List<Boolean> prefixes = new ArrayList<>();
+        String lower = query.toLowerCase(Locale.ROOT);
+        int i = 0;
+        while (i < lower.length()) {
+            while (i < lower.length() && !Character.isLetterOrDigit(lower.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < lower.length() && Character.isLetterOrDigit(lower.charAt(i))) {
+                i++;
+            }
+            if (i > start) {
+                terms.add(lower.substring(start, i));
+                prefixes.add(i < lower.length() && lower.charAt(i) == '*');
+            }
+        }
+        if (terms.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<Message> results = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Set<String> matches = null;
+            for (int t = 0; t < terms.size(); t++) {
+                Set<String> ids = lookup(fields, terms.get(t), prefixes.get(t));
+                if (matches == null) {
+                    matches = ids;
+                } else {
+                    matches.retainAll(ids);
+                }
+                if (matches.isEmpty()) {
+                    return Collections.emptyList();
+                }
+            }
+            for (String id : matches) {
+                results.add(documents.get(id).message);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        // ISO-8601 timestamps from the API sort chronologically as strings
+        results.sort((a, b) -> {
+            String left = a.getCreatedAt() == null ? "" : a.getCreatedAt();
+            String right = b.getCreatedAt() == null ? "" : b.getCreatedAt();
+            return right.compareTo(left);
+        });
+        return results;
+    }
+
+    private Set<String> lookup(Field[] fields, String term, boolean prefix) {
+        Set<String> ids = new HashSet<>();
+        for (Field field : fields) {
+            TreeMap<String, Set<String>> fieldPostings = postings.get(field);
+            if (prefix) {
+                for (Set<String> posting : fieldPostings.subMap(term, true, term + Character.MAX_VALUE, false).values()) {
+                    ids.addAll(posting);
+                }
+            } else {
+                Set<String> posting = fieldPostings.get(term);
+                if (posting != null) {
+                    ids.addAll(posting);
+                }
+            }
+        }
+        return ids;
+    }
+
+    private boolean unindex(String id) {
+        Document document = documents.remove(id);
+        if (document == null) {
+            return false;
+        }
+        for (Map.Entry<Field, Set<String>> entry : document.terms.entrySet()) {
+            TreeMap<String, Set<String>> fieldPostings = postings.get(entry.getKey());
+            for (String term : entry.getValue()) {
+                Set<String> posting = fieldPostings.get(term);
+                if (posting != null && posting.remove(id) && posting.isEmpty()) {
+                    fieldPostings.remove(term);
+                }
+            }
+        }
+        return true;
+    }
+
+    private static Set<String> tokenize(String value) {
+        Set<String> terms = new HashSet<>();
+        if (value == null) {
+            return terms;
+        }
+        String lower = value.toLowerCase(Locale.ROOT);
+        int i = 0;
+        while (i < lower.length()) {
+            while (i < lower.length() && !Character.isLetterOrDigit(lower.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < lower.length() && Character.isLetterOrDigit(lower.charAt(i))) {
+                i++;
+            }
+            if (i > start) {
+                terms.add(lower.substring(start, i));
+            }
+        }
+        return terms;
+    }
+}
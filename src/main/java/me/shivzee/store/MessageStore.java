@@ -0,0 +1,77 @@
+package me.shivzee.store;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Interface for keeping a local copy of an inbox.
+ * <p>
+ * Messages are stored as the raw JSON returned by the API, keyed by message id and ordered by
+ * their {@code createdAt} timestamp. {@link me.shivzee.JMailTM} decodes them on read, so the
+ * store does not need to know about the model classes. Implementations must be safe to call
+ * from multiple threads.
+ * </p>
+ *
+ * @see me.shivzee.store.FileMessageStore
+ * @see me.shivzee.JMailTM#setMessageStore(MessageStore)
+ */
+public interface MessageStore extends Closeable {
+
+    /**
+     * Checks if a message is stored.
+     *
+     * @param id the message id
+     * @return {@code true} if the message is stored; {@code false} otherwise
+     */
+    boolean contains(String id);
+
+    /**
+     * Stores a message, replacing any previous version with the same id.
+     *
+     * @param id the message id
+     * @param createdAt the creation timestamp of the message as returned by the API
+     * @param json the raw JSON of the message
+     * @throws IOException if the message could not be written
+     */
+    void put(String id, String createdAt, String json) throws IOException;
+
+    /**
+     * Reads the raw JSON of a stored message.
+     *
+     * @param id the message id
+     * @return the raw JSON, or null if the message is not stored
+     * @throws IOException if the store could not be read
+     */
+    String get(String id) throws IOException;
+
+    /**
+     * Removes a message from the store.
+     *
+     * @param id the message id
+     * @throws IOException if the store could not be written
+     */
+    void remove(String id) throws IOException;
+
+    /**
+     * Gets the ids of every stored message.
+     *
+     * @return the stored message ids, newest first
+     */
+    List<String> getIds();
+
+    /**
+     * Gets the ids of the messages created strictly after the given timestamp.
+     *
+     * @param createdAt the timestamp in the API format
+     * @return the matching message ids, newest first
+     */
+    List<String> getIdsAfter(String createdAt);
+
+    /**
+     * Gets the number of stored messages.
+     *
+     * @return the number of stored messages
+     */
+    int size();
+}
@@ -0,0 +1,121 @@
+package me.shivzee.store;
+
+import me.shivzee.util.JsonCodec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * The Session class holds everything needed to rebuild a {@link me.shivzee.JMailTM} instance
+ * without talking to the API.
+ * <p>
+ * A session is the account id, the address, the bearer token and the token expiry. The expiry
+ * is read from the {@code exp} claim of the JWT, so no network call is needed to know whether a
+ * stored token is still usable.
+ * </p>
+ *
+ * @see me.shivzee.store.SessionStore
+ */
+public class Session {
+
+    private final String id;
+    private final String address;
+    private final String token;
+    private final long expiresAt;
+
+    /**
+     * Constructs a new Session.
+     *
+     * @param id the account id
+     * @param address the email address of the account (can be null if unknown)
+     * @param token the bearer token (JWT) of the account
+     * @param expiresAt the token expiry in epoch seconds, {@code 0} if unknown
+     */
+    public Session(String id, String address, String token, long expiresAt) {
+        this.id = id;
+        this.address = address;
+        this.token = token;
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * Creates a Session and reads the expiry from the {@code exp} claim of the token.
+     *
+     * @param id the account id
+     * @param address the email address of the account (can be null if unknown)
+     * @param token the bearer token (JWT) of the account
+     * @return the new Session
+     */
+    public static Session of(String id, String address, String token) {
+        return new Session(id, address, token, readExpiry(token));
+    }
+
+    /**
+     * Reads the {@code exp} claim of a JWT without verifying it.
+     *
+     * @param token the JWT
+     * @return the expiry in epoch seconds, or {@code 0} if the token has no readable expiry
+     */
+    public static long readExpiry(String token) {
+        try {
+            String[] parts = token.split("\\.");
+            if (parts.length < 2) {
+                return 0;
+            }
+            String payload = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8);
+            String exp = JsonCodec.getDefault().readString(payload, "exp");
+            return exp == null ? 0 : Long.parseLong(exp);
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Gets the account id.
+     *
+     * @return the account id
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Gets the email address.
+     *
+     * @return the email address, or null if it was not known when the session was saved
+     */
+    public String getAddress() {
+        return address;
+    }
+
+    /**
+     * Gets the bearer token.
+     *
+     * @return the bearer token (JWT)
+     */
+    public String getToken() {
+        return token;
+    }
+
+    /**
+     * Gets the token expiry.
+     *
+     * @return the expiry in epoch seconds, {@code 0} if unknown
+     */
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    /**
+     * Checks if the token has expired.
+     * <p>
+     * Sessions with an unknown expiry are never considered expired, they are validated
+     * by the first request that uses them.
+     * </p>
+     *
+     * @return {@code true} if the token is past its expiry; {@code false} otherwise
+     */
+    public boolean isExpired() {
+        return expiresAt > 0 && expiresAt <= System.currentTimeMillis() / 1000;
+    }
+}
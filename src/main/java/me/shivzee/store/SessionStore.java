@@ -0,0 +1,62 @@
+package me.shivzee.store;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Interface for persisting account sessions so that {@link me.shivzee.JMailTM} instances can be
+ * rebuilt after a restart without logging in again.
+ * <p>
+ * Implementations must be safe to call from multiple threads.
+ * </p>
+ *
+ * @see me.shivzee.store.FileSessionStore
+ * @see me.shivzee.util.JMailBuilder#restore(SessionStore)
+ */
+public interface SessionStore {
+
+    /**
+     * Saves or replaces the given sessions, keyed by account id.
+     *
+     * @param sessions the sessions to save
+     * @throws IOException if the sessions could not be written
+     */
+    void saveAll(Collection<Session> sessions) throws IOException;
+
+    /**
+     * Saves or replaces a single session.
+     *
+     * @param session the session to save
+     * @throws IOException if the session could not be written
+     */
+    default void save(Session session) throws IOException {
+        saveAll(Collections.singletonList(session));
+    }
+
+    /**
+     * Loads a single session.
+     *
+     * @param id the account id
+     * @return the session, or null if no session is stored for the id
+     * @throws IOException if the store could not be read
+     */
+    Session load(String id) throws IOException;
+
+    /**
+     * Loads every stored session.
+     *
+     * @return the stored sessions
+     * @throws IOException if the store could not be read
+     */
+    List<Session> loadAll() throws IOException;
+
+    /**
+     * Removes the session of an account.
+     *
+     * @param id the account id
+     * @throws IOException if the store could not be written
+     */
+    void remove(String id) throws IOException;
+}
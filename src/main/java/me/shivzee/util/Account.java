@@ -1,10 +1,17 @@
 package me.shivzee.util;
 
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import me.shivzee.exceptions.DateTimeParserException;
 
+import java.io.IOException;
+import java.time.Instant;
+import java.time.ZoneId;
 import java.time.ZonedDateTime;
 
-import static me.shivzee.util.Utility.parseToDefaultTimeZone;
+import static me.shivzee.util.ModelAdapters.nextBoolean;
+import static me.shivzee.util.ModelAdapters.nextString;
+import static me.shivzee.util.Utility.parseInstant;
 
 /**
  * The Account class represents a user account in the email system.
@@ -22,6 +29,8 @@ public class Account {
     private Boolean isDeleted;
     private String createdAt;
     private String updatedAt;
+    private transient Instant createdInstant;
+    private transient Instant updatedInstant;
 
     /**
      * Gets the user ID.
@@ -100,13 +109,47 @@ public class Account {
         return updatedAt;
     }
 
+    /**
+     * Get the account creation time as an Instant
+     * <p>
+     * The timestamp is parsed on the first call and the result is reused.
+     * </p>
+     * @return the instant at which the account was created
+     * @throws DateTimeParserException when fail to parse
+     */
+    public Instant getCreatedInstant() throws DateTimeParserException {
+        Instant instant = createdInstant;
+        if (instant == null) {
+            instant = parseInstant(createdAt);
+            createdInstant = instant;
+        }
+        return instant;
+    }
+
+    /**
+     * Get the account update time as an Instant
+     * <p>
+     * The timestamp is parsed on the first call and the result is reused.
+     * </p>
+     * @return the instant at which the account was last updated
+     * @throws DateTimeParserException when fail to parse
+     */
+    public Instant getUpdatedInstant() throws DateTimeParserException {
+        Instant instant = updatedInstant;
+        if (instant == null) {
+            instant = parseInstant(updatedAt);
+            updatedInstant = instant;
+        }
+        return instant;
+    }
+
     /**
      * Get the account creation Date/Time in ZonedDateTime format
      * @return the date at which the account was created
      * @throws DateTimeParserException when fail to parse
      */
     public ZonedDateTime getCreatedDateTime() throws DateTimeParserException {
-        return parseToDefaultTimeZone(createdAt, "yyyy-MM-dd'T'HH:mm:ss'+00:00'");
+        return getCreatedInstant().atZone(ZoneId.systemDefault());
     }
 
     /**
@@ -116,6 +159,31 @@ public class Account {
      * @see me.shivzee.callbacks.EventListener
      */
     public ZonedDateTime getUpdatedDateTime() throws DateTimeParserException {
-        return parseToDefaultTimeZone(updatedAt, "yyyy-MM-dd'T'HH:mm:ss'+00:00'");
+        return getUpdatedInstant().atZone(ZoneId.systemDefault());
+    }
+
+    void decode(String member, JsonReader in, ModelAdapters.Context context) throws IOException {
+        switch (member) {
+            case "id": id = nextString(in); break;
+            case "address": address = nextString(in); break;
+            case "quota": quota = nextString(in); break;
+            case "used": used = nextString(in); break;
+            case "isDisabled": isDisabled = nextBoolean(in); break;
+            case "isDeleted": isDeleted = nextBoolean(in); break;
+            case "createdAt": createdAt = nextString(in); break;
+            case "updatedAt": updatedAt = nextString(in); break;
+            default: in.skipValue();
+        }
+    }
+
+    void encode(JsonWriter out, ModelAdapters.Context context) throws IOException {
+        out.name("id").value(id);
+        out.name("address").value(address);
+        out.name("quota").value(quota);
+        out.name("used").value(used);
+        out.name("isDisabled").value(isDisabled);
+        out.name("isDeleted").value(isDeleted);
+        out.name("createdAt").value(createdAt);
+        out.name("updatedAt").value(updatedAt);
     }
 }
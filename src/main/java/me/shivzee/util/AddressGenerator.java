@@ -0,0 +1,205 @@
+package me.shivzee.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The AddressGenerator class generates random email addresses for new accounts.
+ * <p>
+ * The local part is an optional fixed prefix followed by {@code length} characters drawn from
+ * an alphabet, giving {@code length * log2(alphabet size)} bits of entropy. Characters are
+ * drawn from {@link ThreadLocalRandom}, so threads generating at the same time never contend,
+ * and each address is built in a single buffer without allocating per character.
+ * </p>
+ * <p>
+ * The generator remembers the last addresses it issued. An address drawn again while it is
+ * still remembered is replaced before it is returned, since creating it a second time could
+ * only fail with a {@code 422}. Generators are thread-safe and meant to be shared.
+ * </p>
+ * <p>
+ * Example usage:
+ * <pre>{@code
+ * AddressGenerator generator = AddressGenerator.ofEntropy(64).prefix("qa-");
+ * List<String> addresses = generator.next(100, Domains.fetchDomains());
+ * }</pre>
+ *
+ * @see JMailBuilder#setAddressGenerator(AddressGenerator)
+ */
+public final class AddressGenerator {
+
+    /**
+     * The default alphabet, lowercase letters and digits.
+     */
+    public static final String ALPHANUMERIC = "abcdefghijklmnopqrstuvwxyz0123456789";
+
+    private static final int DEFAULT_LENGTH = 10;
+    private static final int DEFAULT_RECENT = 4096;
+    // A redraw only happens on a collision, so a few are plenty unless the space is tiny
+    private static final int MAX_DRAWS = 16;
+
+    private final char[] alphabet;
+    private final int length;
+    private volatile String prefix = "";
+
+    private final Set<String> recent;
+    private final AtomicReferenceArray<String> ring;
+    private final AtomicLong issued = new AtomicLong();
+
+    /**
+     * Constructs a new AddressGenerator.
+     *
+     * @param alphabet the characters of the random part, all valid in an email local part
+     * @param length the number of random characters
+     * @param recentCapacity the number of issued addresses remembered, 0 to remember none
+     * @throws IllegalArgumentException if the alphabet is empty, the length is not positive or the capacity is negative
+     */
+    public AddressGenerator(String alphabet, int length, int recentCapacity) {
+        if (alphabet == null || alphabet.isEmpty()) {
+            throw new IllegalArgumentException("The alphabet is empty");
+        }
+        if (length <= 0 || recentCapacity < 0) {
+            throw new IllegalArgumentException("Invalid length " + length + " or capacity " + recentCapacity);
+        }
+        this.alphabet = alphabet.toCharArray();
+        this.length = length;
+        this.recent = ConcurrentHashMap.newKeySet(recentCapacity);
+        this.ring = recentCapacity == 0 ? null : new AtomicReferenceArray<>(recentCapacity);
+    }
+
+    /**
+     * Creates a generator of 10 lowercase letters and digits (about 51 bits) that remembers
+     * the last 4096 addresses.
+     *
+     * @return the generator
+     */
+    public static AddressGenerator defaults() {
+        return new AddressGenerator(ALPHANUMERIC, DEFAULT_LENGTH, DEFAULT_RECENT);
+    }
+
+    /**
+     * Creates a generator of lowercase letters and digits with at least the given entropy,
+     * remembering the last 4096 addresses.
+     *
+     * @param bits the minimum number of random bits per address
+     * @return the generator
+     */
+    public static AddressGenerator ofEntropy(int bits) {
+        int length = (int) Math.ceil(bits / (Math.log(ALPHANUMERIC.length()) / Math.log(2)));
+        return new AddressGenerator(ALPHANUMERIC, Math.max(1, length), DEFAULT_RECENT);
+    }
+
+    /**
+     * Sets a fixed prefix put before the random part, e.g. to tell test accounts apart.
+     *
+     * @param prefix the prefix, null for none
+     * @return this generator
+     */
+    public AddressGenerator prefix(String prefix) {
+        this.prefix = prefix == null ? "" : prefix;
+        return this;
+    }
+
+    /**
+     * Gets the number of random bits in each address.
+     *
+     * @return the entropy in bits
+     */
+    public double getEntropyBits() {
+        return length * Math.log(alphabet.length) / Math.log(2);
+    }
+
+    /**
+     * Generates a random local part, without the domain.
+     *
+     * @return the local part
+     */
+    public String localPart() {
+        String prefix = this.prefix;
+        char[] buffer = new char[prefix.length() + length];
+        prefix.getChars(0, prefix.length(), buffer, 0);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = prefix.length(); i < buffer.length; i++) {
+            buffer[i] = alphabet[random.nextInt(alphabet.length)];
+        }
+        return new String(buffer);
+    }
+
+    /**
+     * Generates an address on the given domain that was not issued recently.
+     *
+     * @param domain the domain name
+     * @return the address
+     */
+    public String next(String domain) {
+        String address = localPart() + "@" + domain;
+        for (int draws = 1; !remember(address) && draws < MAX_DRAWS; draws++) {
+            address = localPart() + "@" + domain;
+        }
+        return address;
+    }
+
+    /**
+     * Generates an address on a random one of the given domains.
+     *
+     * @param domains the domains to choose from
+     * @return the address
+     * @throws IllegalArgumentException if there are no domains
+     */
+    public String next(List<Domain> domains) {
+        if (domains.isEmpty()) {
+            throw new IllegalArgumentException("No domains to choose from");
+        }
+        return next(domains.get(ThreadLocalRandom.current().nextInt(domains.size())).getDomainName());
+    }
+
+    /**
+     * Generates many distinct addresses, each on a random one of the given domains.
+     *
+     * @param count the number of addresses
+     * @param domains the domains to choose from
+     * @return the addresses
+     * @throws IllegalArgumentException if there are no domains
+     */
+    public List<String> next(int count, List<Domain> domains) {
+        List<String> addresses = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            addresses.add(next(domains));
+        }
+        return addresses;
+    }
+
+    /**
+     * Checks if an address was issued by this generator and is still remembered.
+     *
+     * @param address the address
+     * @return true if the address was issued recently
+     */
+    public boolean isRecent(String address) {
+        return recent.contains(address);
+    }
+
+    /**
+     * Adds an address to the recently issued ones, evicting the oldest once full.
+     *
+     * @return false if the address was remembered already
+     */
+    private boolean remember(String address) {
+        if (ring == null) {
+            return true;
+        }
+        if (!recent.add(address)) {
+            return false;
+        }
+        int slot = (int) (issued.getAndIncrement() % ring.length());
+        String evicted = ring.getAndSet(slot, address);
+        if (evicted != null) {
+            recent.remove(evicted);
+        }
+        return true;
+    }
+}
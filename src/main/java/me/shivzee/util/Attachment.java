@@ -1,13 +1,28 @@
 package me.shivzee.util;
 
-
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import me.shivzee.callbacks.WorkCallback;
+import me.shivzee.exceptions.CircuitOpenException;
+import me.shivzee.io.BandwidthLimiter;
+import me.shivzee.io.IO;
+import me.shivzee.store.AttachmentCache;
+import okio.BufferedSource;
 
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
 
+import static me.shivzee.util.ModelAdapters.nextBoolean;
+import static me.shivzee.util.ModelAdapters.nextLong;
+import static me.shivzee.util.ModelAdapters.nextString;
 
 /**
  * The Attachment class represents an email attachment.
@@ -21,6 +36,11 @@ import java.nio.file.Paths;
  * </p>
  */
 public class Attachment {
+
+    private static final long TRANSFER_CHUNK = 1 << 20;
+    private static final long THROTTLED_CHUNK = 1 << 16;
+    private static volatile AttachmentCache defaultCache;
+
     private String id;
     private String filename;
     private String contentType;
@@ -105,7 +125,206 @@ public class Attachment {
      * @return the download URL for the attachment
      */
     public String getDownloadUrl() {
-        return "https://api.mail.tm"+downloadUrl;
+        return Utility.resolveUrl(downloadUrl);
+    }
+
+    /**
+     * Opens the attachment content as a stream through the shared HTTP client.
+     * <p>
+     * Nothing is buffered in memory, the caller must close the stream once done.
+     * </p>
+     *
+     * @return the attachment content
+     * @throws IOException if the request fails, the circuit of the endpoint is open or the server
+     * does not respond with 200
+     */
+    public InputStream openStream() throws IOException {
+        okhttp3.Response response;
+        try {
+            response = IO.requestStream(getDownloadUrl(), bearerToken, 0);
+        } catch (CircuitOpenException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+        if (response.code() != 200 || response.body() == null) {
+            response.close();
+            throw new IOException(getDownloadUrl() + " responded : " + response.code());
+        }
+        return response.body().byteStream();
+    }
+
+    /**
+     * Opens the attachment content as a channel through the shared HTTP client.
+     *
+     * @return the attachment content, must be closed by the caller
+     * @throws IOException if the request fails, the circuit of the endpoint is open or the server
+     * does not respond with 200
+     * @see #openStream()
+     */
+    public ReadableByteChannel openChannel() throws IOException {
+        return Channels.newChannel(openStream());
+    }
+
+    /**
+     * (Synchronous) Downloads the Attachment to a file
+     * <p>
+     * The body is streamed into the file channel in chunks through a small transfer buffer, it is
+     * never held in memory as a whole. It is written to {@code <target>.part} first and moved to the target
+     * once complete. A {@code .part} file left by an interrupted download is continued with an
+     * HTTP range request as long as it is smaller than {@link #getSize()}; if the server ignores
+     * the range or rejects it the download starts over.
+     * </p>
+     * <p>
+     * An existing target is never overwritten, the download fails instead.
+     * </p>
+     *
+     * @param target the file to write to
+     * @return the result with the number of bytes transferred and the time taken
+     */
+    public DownloadResult download(Path target) {
+        return download(target, null);
+    }
+
+    /**
+     * (Synchronous) Downloads the Attachment to a file, sharing a bandwidth limit with other downloads
+     *
+     * @param target the file to write to
+     * @param limiter the bandwidth limiter to account the transfer against (can be null)
+     * @return the result with the number of bytes transferred and the time taken
+     * @see #download(Path)
+     * @see me.shivzee.util.AttachmentDownloader
+     */
+    public DownloadResult download(Path target, BandwidthLimiter limiter) {
+        return download(target, limiter, defaultCache);
+    }
+
+    /**
+     * (Synchronous) Downloads the Attachment to a file, serving it from a local cache when possible
+     * <p>
+     * On a cache hit the file is copied from the cache and no request is made. On a
+     * miss the attachment is downloaded and the complete file is added to the cache.
+     * </p>
+     *
+     * @param target the file to write to
+     * @param limiter the bandwidth limiter to account the transfer against (can be null)
+     * @param cache the attachment cache to use (can be null)
+     * @return the result with the number of bytes transferred and the time taken
+     * @see me.shivzee.store.AttachmentCache
+     */
+    public DownloadResult download(Path target, BandwidthLimiter limiter, AttachmentCache cache) {
+        long start = System.nanoTime();
+        if (Files.exists(target)) {
+            return new DownloadResult(target, false, 0, 0, elapsed(start), false);
+        }
+        if (cache != null) {
+            try {
+                if (cache.copyTo(getDownloadUrl(), target)) {
+                    return new DownloadResult(target, true, 0, 0, elapsed(start), false, true);
+                }
+            } catch (IOException e) {
+                // Fall back to the network
+            }
+        }
+        DownloadResult result = transfer(target, limiter, start);
+        if (cache != null && result.isSuccess()) {
+            try {
+                cache.put(getDownloadUrl(), target);
+            } catch (IOException e) {
+                // The download itself succeeded, the cache just stays cold
+            }
+        }
+        return result;
+    }
+
+    private DownloadResult transfer(Path target, BandwidthLimiter limiter, long start) {
+        Path part = target.resolveSibling(target.getFileName() + ".part");
+        long offset = 0;
+        int code = 0;
+        try {
+            offset = resumableLength(part);
+            while (true) {
+                try (okhttp3.Response response = IO.requestStream(getDownloadUrl(), bearerToken, offset)) {
+                    code = response.code();
+                    if (offset > 0 && (code == 416 || (code == 206 && !startsAt(response, offset)))) {
+                        // The partial file does not match the attachment, start over
+                        Files.delete(part);
+                        offset = 0;
+                        continue;
+                    }
+                    if ((code != 200 && code != 206) || response.body() == null || (code == 206 && !startsAt(response, offset))) {
+                        return new DownloadResult(target, false, code, 0, elapsed(start), false);
+                    }
+                    boolean resumed = code == 206;
+                    long position = resumed ? offset : 0;
+                    long written = 0;
+                    try (FileChannel file = FileChannel.open(part, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                        if (!resumed) {
+                            file.truncate(0);
+                        }
+                        BufferedSource source = response.body().source();
+                        long chunk = limiter == null ? TRANSFER_CHUNK : THROTTLED_CHUNK;
+                        long transferred;
+                        while ((transferred = file.transferFrom(source, position + written, chunk)) > 0) {
+                            written += transferred;
+                            if (limiter != null) {
+                                limiter.acquire(transferred);
+                            }
+                        }
+                    }
+                    Files.move(part, target);
+                    return new DownloadResult(target, true, code, written, elapsed(start), resumed);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new DownloadResult(target, false, code, 0, elapsed(start), offset > 0);
+        } catch (IOException | CircuitOpenException e) {
+            return new DownloadResult(target, false, code, 0, elapsed(start), offset > 0);
+        }
+    }
+
+    /**
+     * Gets the length of a partial file that can be continued, deleting it when it is
+     * already as large as the attachment and so cannot be a prefix of it.
+     */
+    private long resumableLength(Path part) throws IOException {
+        if (!Files.exists(part)) {
+            return 0;
+        }
+        long length = Files.size(part);
+        if (size != null && length >= size * 1024) {
+            Files.delete(part);
+            return 0;
+        }
+        return length;
+    }
+
+    private static boolean startsAt(okhttp3.Response response, long offset) {
+        String range = response.header("Content-Range");
+        return range != null && range.startsWith("bytes " + offset + "-");
+    }
+
+    /**
+     * Sets the cache used by every download that is not given a cache explicitly,
+     * including {@link #saveSync()} and {@link #save()}.
+     *
+     * @param cache the attachment cache, or null to disable caching
+     * @see me.shivzee.store.AttachmentCache
+     */
+    public static void setDefaultCache(AttachmentCache cache) {
+        defaultCache = cache;
+    }
+
+    /**
+     * Gets the cache used by downloads that are not given a cache explicitly.
+     *
+     * @return the default attachment cache, or null if caching is disabled
+     */
+    public static AttachmentCache getDefaultCache() {
+        return defaultCache;
+    }
+
+    private static long elapsed(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
     }
 
     /**
@@ -113,23 +332,10 @@ public class Attachment {
      * @param path The Path to Save the File eg("C:/Data/Downloads/")
      * @param filename The File Name of The Attachment
      * @return <code>true</code> if download was successful, else <code>false</code>
+     * @see #download(Path)
      */
 	public boolean saveSync(String path, String filename) {
-		try {
-			URL attachmentUrl = new URL(getDownloadUrl());
-			HttpURLConnection connection = (HttpURLConnection) attachmentUrl.openConnection();
-			connection.setRequestMethod("GET");
-			connection.setRequestProperty("Authorization", "Bearer " + bearerToken);
-			if (connection.getResponseCode() == 200) {
-				Files.copy(connection.getInputStream(), Paths.get(path + filename));
-				return true;
-			} else {
-				return false;
-			}
-		} catch (Exception e) {
-			return false;
-		}
-
+		return download(Paths.get(path, filename)).isSuccess();
 	}
 
     /**
@@ -197,4 +403,34 @@ public class Attachment {
         save("./", filename , callback);
     }
 
+    void setBearerToken(String bearerToken) {
+        this.bearerToken = bearerToken;
+    }
+
+    void decode(String member, JsonReader in, ModelAdapters.Context context) throws IOException {
+        switch (member) {
+            case "id": id = nextString(in); break;
+            case "filename": filename = nextString(in); break;
+            case "contentType": contentType = nextString(in); break;
+            case "disposition": disposition = nextString(in); break;
+            case "transferEncoding": transferEncoding = nextString(in); break;
+            case "related": related = nextBoolean(in); break;
+            case "size": size = nextLong(in); break;
+            case "downloadUrl": downloadUrl = nextString(in); break;
+            case "bearerToken": bearerToken = nextString(in); break;
+            default: in.skipValue();
+        }
+    }
+
+    void encode(JsonWriter out, ModelAdapters.Context context) throws IOException {
+        out.name("id").value(id);
+        out.name("filename").value(filename);
+        out.name("contentType").value(contentType);
+        out.name("disposition").value(disposition);
+        out.name("transferEncoding").value(transferEncoding);
+        out.name("related").value(related);
+        out.name("size").value(size);
+        out.name("downloadUrl").value(downloadUrl);
+        out.name("bearerToken").value(bearerToken);
+    }
 }
@@ -0,0 +1,175 @@
+package me.shivzee.util;
+
+import me.shivzee.io.BandwidthLimiter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * The AttachmentDownloader class downloads many attachments over a bounded worker pool.
+ * <p>
+ * All downloads of one downloader share a fixed number of worker threads and a single
+ * {@link BandwidthLimiter}, so large batches neither spawn a thread per file nor saturate the
+ * network. Downloads are deduplicated by download URL and target file: requesting the same
+ * attachment into the same file again while it is queued or downloading returns the same
+ * result instead of fetching it twice.
+ * </p>
+ * <p>
+ * Example usage:
+ * <pre>{@code
+ * AttachmentDownloader downloader = new AttachmentDownloader(8, 5 * 1024 * 1024);
+ * downloader.downloadMessages(messages, Paths.get("archive"))
+ *         .thenAccept(results -> System.out.println(results.size() + " files done"));
+ * }</pre>
+ *
+ * @see me.shivzee.util.Attachment#download(Path, BandwidthLimiter)
+ */
+public class AttachmentDownloader {
+
+    private final ExecutorService pool;
+    private final BandwidthLimiter limiter;
+    private final Map<String, CompletableFuture<DownloadResult>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new AttachmentDownloader.
+     *
+     * @param concurrency the maximum number of simultaneous downloads
+     * @param bytesPerSecond the combined bandwidth limit in bytes per second, {@code 0} for no limit
+     */
+    public AttachmentDownloader(int concurrency, long bytesPerSecond) {
+        AtomicInteger counter = new AtomicInteger();
+        this.pool = Executors.newFixedThreadPool(Math.max(1, concurrency), runnable -> {
+            Thread thread = new Thread(runnable, "Attachment_Download_Worker_" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.limiter = new BandwidthLimiter(bytesPerSecond);
+    }
+
+    /**
+     * (Asynchronous) Downloads a single attachment.
+     *
+     * @param attachment the attachment to download
+     * @param target the file to write to
+     * @return a future of the download result
+     */
+    public CompletableFuture<DownloadResult> download(Attachment attachment, Path target) {
+        String key = attachment.getDownloadUrl() + '\n' + target.toAbsolutePath().normalize();
+        CompletableFuture<DownloadResult> created = new CompletableFuture<>();
+        CompletableFuture<DownloadResult> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            return existing;
+        }
+        pool.execute(() -> {
+            try {
+                created.complete(attachment.download(target, limiter));
+            } catch (Throwable e) {
+                created.completeExceptionally(e);
+            } finally {
+                inFlight.remove(key, created);
+            }
+        });
+        return created;
+    }
+
+    /**
+     * (Asynchronous) Downloads a batch of attachments.
+     * <p>
+     * A failing entry does not fail the batch, it is reported as an unsuccessful
+     * {@link DownloadResult} in its place.
+     * </p>
+     *
+     * @param attachments the attachments to download
+     * @param target maps each attachment to the file it is written to
+     * @return a future of the results, in the order of the given attachments
+     */
+    public CompletableFuture<List<DownloadResult>> downloadAll(Collection<Attachment> attachments, Function<Attachment, Path> target) {
+        List<CompletableFuture<DownloadResult>> futures = new ArrayList<>(attachments.size());
+        for (Attachment attachment : attachments) {
+            futures.add(downloadOrFail(attachment, target));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).thenApply(done -> {
+            List<DownloadResult> results = new ArrayList<>(futures.size());
+            for (CompletableFuture<DownloadResult> future : futures) {
+                results.add(future.join());
+            }
+            return results;
+        });
+    }
+
+    private CompletableFuture<DownloadResult> downloadOrFail(Attachment attachment, Function<Attachment, Path> target) {
+        Path path = null;
+        try {
+            path = target.apply(attachment);
+            Path resolved = path;
+            return download(attachment, path).exceptionally(e -> failed(resolved));
+        } catch (RuntimeException e) {
+            return CompletableFuture.completedFuture(failed(path));
+        }
+    }
+
+    private static DownloadResult failed(Path path) {
+        return new DownloadResult(path, false, 0, 0, 0, false);
+    }
+
+    /**
+     * (Asynchronous) Downloads every attachment of the given messages.
+     * <p>
+     * Each message gets its own sub directory named after the message id. Files are named
+     * {@code <attachment id>-<filename>} so attachments sharing a filename do not overwrite
+     * each other, attachments without a filename are named after their id.
+     * </p>
+     *
+     * @param messages the messages whose attachments to download
+     * @param directory the directory to download into
+     * @return a future of the results, in message and attachment order
+     * @see #downloadAll(Collection, Function)
+     */
+    public CompletableFuture<List<DownloadResult>> downloadMessages(List<Message> messages, Path directory) {
+        List<Attachment> attachments = new ArrayList<>();
+        Map<Attachment, String> messageIds = new IdentityHashMap<>();
+        for (Message message : messages) {
+            if (!message.hasAttachments() || message.getAttachments() == null) {
+                continue;
+            }
+            for (Attachment attachment : message.getAttachments()) {
+                attachments.add(attachment);
+                messageIds.put(attachment, message.getId());
+            }
+        }
+        return downloadAll(attachments, attachment -> target(directory.resolve(messageIds.get(attachment)), attachment));
+    }
+
+    private static Path target(Path folder, Attachment attachment) {
+        try {
+            Files.createDirectories(folder);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        String filename = attachment.getFilename();
+        // Only keep the last path element so a crafted filename cannot escape the folder
+        Path name = filename == null ? null : Paths.get(filename).getFileName();
+        return folder.resolve(name == null ? attachment.getId() : attachment.getId() + "-" + name);
+    }
+
+    /**
+     * Stops the worker pool after the queued downloads have finished.
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+}
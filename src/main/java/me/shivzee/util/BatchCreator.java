@@ -0,0 +1,191 @@
+package me.shivzee.util;
+
+import me.shivzee.JMailTM;
+import me.shivzee.exceptions.CircuitOpenException;
+import me.shivzee.io.BandwidthLimiter;
+import me.shivzee.io.IO;
+import me.shivzee.io.JsonBody;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.security.auth.login.LoginException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Creates and logs in to many accounts at once for {@link JMailBuilder#createBatch(int, String, int, int)}.
+ * <p>
+ * Every account still needs its {@code POST /accounts} before its {@code POST /token}, but a
+ * pool of workers runs many accounts side by side, so the token request of one account
+ * overlaps the creation of the next ones. All requests of a batch draw from one token bucket
+ * (a {@link BandwidthLimiter} counting requests instead of bytes), so the batch as a whole
+ * stays under the API rate limit.
+ * </p>
+ * <p>
+ * Rate limiting, server errors and network failures are retried with exponential backoff.
+ * A creation that failed without an answer may still have gone through, so a later
+ * {@code 422} for the same address is taken as our own account and confirmed by logging in
+ * with its password. A {@code 422} on a fresh address means it is taken and a new address is
+ * drawn. A request refused by an open circuit breaker was never sent and is retried like a
+ * rate limited one.
+ * </p>
+ */
+final class BatchCreator {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BatchCreator.class);
+
+    static final int MAX_ATTEMPTS = 6;
+    private static final long BASE_BACKOFF_MILLIS = 250;
+    private static final long MAX_BACKOFF_MILLIS = 8000;
+
+    private final String baseUrl;
+    private final String password;
+    private final Supplier<String> addresses;
+    private final BandwidthLimiter limiter;
+
+    BatchCreator(String baseUrl, String password, Supplier<String> addresses, int requestsPerSecond) {
+        this.baseUrl = baseUrl;
+        this.password = password;
+        this.addresses = addresses;
+        this.limiter = new BandwidthLimiter(requestsPerSecond);
+    }
+
+    CompletableFuture<List<JMailTM>> run(int count, int concurrency) {
+        AtomicInteger counter = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, Math.min(concurrency, count)), runnable -> {
+            Thread thread = new Thread(runnable, "Account_Batch_Worker_" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<CompletableFuture<JMailTM>> futures = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return createOne();
+                } catch (LoginException e) {
+                    throw new CompletionException(e);
+                }
+            }, pool).exceptionally(e -> {
+                LOG.warn("Batch account creation failed " + (e.getCause() == null ? e : e.getCause()));
+                return null;
+            }));
+        }
+        // Already queued tasks still run, the threads end once the queue is empty
+        pool.shutdown();
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).thenApply(done -> {
+            List<JMailTM> accounts = new ArrayList<>(count);
+            for (CompletableFuture<JMailTM> future : futures) {
+                JMailTM account = future.join();
+                if (account != null) {
+                    accounts.add(account);
+                }
+            }
+            return accounts;
+        });
+    }
+
+    JMailTM createOne() throws LoginException {
+        int attempts = 0;
+        while (true) {
+            String address = addresses.get();
+            boolean maybeCreated = false;
+            int created;
+            while (true) {
+                Response response = post("/accounts", address);
+                if (response == null) {
+                    attempts = pause(attempts);
+                    continue;
+                }
+                created = response.getResponseCode();
+                if (created == 201 || created == 422) {
+                    break;
+                }
+                if (!isTransient(created)) {
+                    throw new LoginException("Account creation failed with " + created + " : " + response.getResponse());
+                }
+                // Without an answer, or with a server error, the account may exist already
+                maybeCreated |= created == 0 || created >= 500;
+                attempts = pause(attempts);
+            }
+            if (created == 422 && !maybeCreated) {
+                // The address is taken, draw another one right away
+                if (++attempts >= MAX_ATTEMPTS) {
+                    throw new LoginException("Gave up after " + attempts + " attempts");
+                }
+                continue;
+            }
+
+            while (true) {
+                Response response = post("/token", address);
+                if (response == null) {
+                    attempts = pause(attempts);
+                    continue;
+                }
+                int code = response.getResponseCode();
+                if (code == 200) {
+                    JsonCodec codec = JsonCodec.getDefault();
+                    String token = codec.readString(response.getResponse(), "token");
+                    String id = codec.readString(response.getResponse(), "id");
+                    if (token == null || id == null) {
+                        throw new LoginException("Login after creation returned no token : " + response.getResponse());
+                    }
+                    return new JMailTM(token, id, address);
+                }
+                if (code == 401 && created == 422) {
+                    // The existing account was not ours after all
+                    break;
+                }
+                if (!isTransient(code)) {
+                    throw new LoginException("Login after creation failed with " + code + " : " + response.getResponse());
+                }
+                attempts = pause(attempts);
+            }
+            attempts = pause(attempts);
+        }
+    }
+
+    /**
+     * @return the response, or null if the circuit of the endpoint is open and nothing was sent
+     */
+    private Response post(String path, String address) throws LoginException {
+        try {
+            limiter.acquire(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LoginException("Interrupted while waiting for the rate limit");
+        }
+        try {
+            return IO.requestPOST(baseUrl + path, null, JsonBody.object().put("address", address).put("password", password));
+        } catch (CircuitOpenException e) {
+            return null;
+        }
+    }
+
+    private static boolean isTransient(int code) {
+        return code == 0 || code == 429 || code >= 500;
+    }
+
+    private static int pause(int attempts) throws LoginException {
+        attempts++;
+        if (attempts >= MAX_ATTEMPTS) {
+            throw new LoginException("Gave up after " + attempts + " attempts");
+        }
+        long backoff = Math.min(MAX_BACKOFF_MILLIS, BASE_BACKOFF_MILLIS << (attempts - 1));
+        try {
+            // Jitter keeps the workers of a batch from retrying in lockstep
+            TimeUnit.MILLISECONDS.sleep(backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LoginException("Interrupted while backing off");
+        }
+        return attempts;
+    }
+}
@@ -0,0 +1,278 @@
+package me.shivzee.util;
+
+import me.shivzee.exceptions.DateTimeParserException;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A read-only, memory-compact copy of a {@link Message} for holding large inboxes in memory.
+ * <p>
+ * The flags are packed into a single {@code int}, the size and timestamps are primitives,
+ * sender and receiver strings are interned so that the few distinct addresses of an inbox are
+ * stored once, and the download URL is derived from the id instead of being kept. The bearer
+ * token is not copied at all: it stays with the account, use
+ * {@link me.shivzee.JMailTM#getMessageById(String)} to get a full message back for deleting or
+ * marking it as read.
+ * </p>
+ *
+ * @see Message#compact()
+ */
+public final class CompactMessage {
+
+    private static final int SEEN = 1;
+    private static final int FLAGGED = 1 << 1;
+    private static final int DELETED = 1 << 2;
+    private static final int RETENTION = 1 << 3;
+    private static final int HAS_ATTACHMENTS = 1 << 4;
+
+    private static final String[] NONE = new String[0];
+
+    private final String id;
+    private final String msgid;
+    private final String senderAddress;
+    private final String senderName;
+    private final String[] receivers;
+    private final String subject;
+    private final String text;
+    private final HtmlBody html;
+    private final List<Attachment> attachments;
+    private final String retentionDate;
+    private final long size;
+    private final long createdAt;
+    private final long updatedAt;
+    private final int flags;
+
+    CompactMessage(Message message) throws DateTimeParserException {
+        this.id = message.getId();
+        this.msgid = message.getMsgid();
+        this.senderAddress = intern(message.getSenderAddress());
+        this.senderName = intern(message.getSenderName());
+        List<Receiver> to = message.getReceivers();
+        if (to.isEmpty()) {
+            this.receivers = NONE;
+        } else {
+            // Address and name pairs in one flat array
+            this.receivers = new String[to.size() * 2];
+            for (int i = 0; i < to.size(); i++) {
+                receivers[i * 2] = intern(to.get(i).getAddress());
+                receivers[i * 2 + 1] = intern(to.get(i).getName());
+            }
+        }
+        this.subject = message.getSubject();
+        this.text = message.getContent();
+        this.html = message.getHtml();
+        List<Attachment> list = message.getAttachments();
+        this.attachments = list == null || list.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(list);
+        this.retentionDate = message.getRetentionDate();
+        this.size = message.getSize();
+        this.createdAt = toEpochMilli(message.getCreatedAt() == null ? null : message.getCreatedInstant());
+        this.updatedAt = toEpochMilli(message.getUpdatedAt() == null ? null : message.getUpdatedInstant());
+        this.flags = (message.isSeen() ? SEEN : 0)
+                | (message.isFlagged() ? FLAGGED : 0)
+                | (message.isDeleted() ? DELETED : 0)
+                | (message.retention() ? RETENTION : 0)
+                | (message.hasAttachments() ? HAS_ATTACHMENTS : 0);
+    }
+
+    private static String intern(String value) {
+        return value == null ? null : value.intern();
+    }
+
+    private static long toEpochMilli(Instant instant) {
+        return instant == null ? Long.MIN_VALUE : instant.toEpochMilli();
+    }
+
+    private static Instant toInstant(long epochMilli) {
+        return epochMilli == Long.MIN_VALUE ? null : Instant.ofEpochMilli(epochMilli);
+    }
+
+    /**
+     * Gets the message ID.
+     *
+     * @return the unique identifier of the message
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Gets the message ID from the email headers.
+     *
+     * @return the message ID from the email headers
+     */
+    public String getMsgid() {
+        return msgid;
+    }
+
+    /**
+     * Gets the sender's email address.
+     *
+     * @return the email address of the sender
+     */
+    public String getSenderAddress() {
+        return senderAddress;
+    }
+
+    /**
+     * Gets the sender's display name.
+     *
+     * @return the display name of the sender
+     */
+    public String getSenderName() {
+        return senderName;
+    }
+
+    /**
+     * Gets the list of recipients.
+     * <p>
+     * The list is built on every call from the compact form.
+     * </p>
+     *
+     * @return the list of recipients to whom the email was sent
+     */
+    public List<Receiver> getReceivers() {
+        List<Receiver> list = new ArrayList<>(receivers.length / 2);
+        for (int i = 0; i < receivers.length; i += 2) {
+            list.add(new Receiver(receivers[i], receivers[i + 1]));
+        }
+        return list;
+    }
+
+    /**
+     * Gets the email subject.
+     *
+     * @return the subject line of the email
+     */
+    public String getSubject() {
+        return subject;
+    }
+
+    /**
+     * Gets the plain text content of the email.
+     *
+     * @return the plain text version of the email content
+     */
+    public String getContent() {
+        return text;
+    }
+
+    /**
+     * Checks if the message has been read.
+     *
+     * @return {@code true} if the message has been read; {@code false} otherwise
+     */
+    public boolean isSeen() {
+        return (flags & SEEN) != 0;
+    }
+
+    /**
+     * Checks if the message has been flagged.
+     *
+     * @return {@code true} if the message has been flagged; {@code false} otherwise
+     */
+    public boolean isFlagged() {
+        return (flags & FLAGGED) != 0;
+    }
+
+    /**
+     * Checks if the message has been deleted.
+     *
+     * @return {@code true} if the message has been deleted; {@code false} otherwise
+     */
+    public boolean isDeleted() {
+        return (flags & DELETED) != 0;
+    }
+
+    /**
+     * Gets the retention status of the message.
+     *
+     * @return {@code true} if the message is retained; {@code false} otherwise
+     */
+    public boolean retention() {
+        return (flags & RETENTION) != 0;
+    }
+
+    /**
+     * Gets the retention date of the message.
+     *
+     * @return the date when the message will be retained until
+     */
+    public String getRetentionDate() {
+        return retentionDate;
+    }
+
+    /**
+     * Gets the HTML content of the email.
+     *
+     * @return the HTML content of the email, or an empty string if there is none or it was not decoded
+     */
+    public String getRawHTML() {
+        return html == null ? "" : html.toString();
+    }
+
+    /**
+     * Gets the HTML content of the email without concatenating its parts.
+     *
+     * @return the HTML body, or null if there is none or it was not decoded
+     */
+    public HtmlBody getHtml() {
+        return html;
+    }
+
+    /**
+     * Checks if the message has attachments.
+     *
+     * @return {@code true} if the message has attachments; {@code false} otherwise
+     */
+    public boolean hasAttachments() {
+        return (flags & HAS_ATTACHMENTS) != 0;
+    }
+
+    /**
+     * Gets the list of attachments.
+     *
+     * @return the unmodifiable list of attachments in the message
+     */
+    public List<Attachment> getAttachments() {
+        return attachments;
+    }
+
+    /**
+     * Gets the size of the message in bytes.
+     *
+     * @return the size of the message
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Gets the download URL for the message.
+     *
+     * @return the URL path where the message can be downloaded
+     */
+    public String getDownloadUrl() {
+        return "/messages/" + id + "/download";
+    }
+
+    /**
+     * Gets the creation time of the message.
+     *
+     * @return the instant at which the message was created, or null if unknown
+     */
+    public Instant getCreatedInstant() {
+        return toInstant(createdAt);
+    }
+
+    /**
+     * Gets the last update time of the message.
+     *
+     * @return the instant at which the message was last updated, or null if unknown
+     */
+    public Instant getUpdatedInstant() {
+        return toInstant(updatedAt);
+    }
+}
@@ -1,5 +1,13 @@
 package me.shivzee.util;
 
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+import static me.shivzee.util.ModelAdapters.nextBoolean;
+import static me.shivzee.util.ModelAdapters.nextString;
+
 /**
  * The Domain Class to Wrap Domains
  * Check https://api.mail.tm for more info
@@ -60,4 +68,25 @@ public class Domain {
     public String getUpdatedAt() {
         return updatedAt;
     }
+
+    void decode(String member, JsonReader in, ModelAdapters.Context context) throws IOException {
+        switch (member) {
+            case "id": id = nextString(in); break;
+            case "domain": domain = nextString(in); break;
+            case "isActive": isActive = Boolean.TRUE.equals(nextBoolean(in)); break;
+            case "isPrivate": isPrivate = Boolean.TRUE.equals(nextBoolean(in)); break;
+            case "createdAt": createdAt = nextString(in); break;
+            case "updatedAt": updatedAt = nextString(in); break;
+            default: in.skipValue();
+        }
+    }
+
+    void encode(JsonWriter out, ModelAdapters.Context context) throws IOException {
+        out.name("id").value(id);
+        out.name("domain").value(domain);
+        out.name("isActive").value(isActive);
+        out.name("isPrivate").value(isPrivate);
+        out.name("createdAt").value(createdAt);
+        out.name("updatedAt").value(updatedAt);
+    }
 }
@@ -1,17 +1,13 @@
 package me.shivzee.util;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
-import com.google.gson.Gson;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
-
 import me.shivzee.Config;
 import me.shivzee.exceptions.DomainNotFoundException;
 import me.shivzee.io.IO;
+import me.shivzee.io.SingleFlight;
 
 /**
  * The Domains class provides functionality for managing email domains.
@@ -26,8 +22,8 @@ import me.shivzee.io.IO;
 public class Domains {
 
     private static final String baseUrl = Config.BASEURL;
-    private static final Gson gson = new Gson();
-    private static List<Domain> domains = new ArrayList<>();
+    private static volatile List<Domain> domains = new ArrayList<>();
+    private static final SingleFlight inFlight = new SingleFlight();
 
     /**
      * Gets the list of available domains.
@@ -61,7 +57,8 @@ public class Domains {
      * Updates the list of available domains from the server.
      * <p>
      * This method fetches the latest list of domains from the mail.tm API and updates
-     * the internal domain list.
+     * the internal domain list. Concurrent calls share one fetch, and the list is replaced only
+     * once all pages are read, so {@link #getDomainList()} never returns a partial list.
      * </p>
      *
      * @return {@code true} if the domain list was successfully updated
@@ -69,7 +66,18 @@ public class Domains {
      * @throws DomainNotFoundException if the domain list cannot be fetched or no domains are available
      */
     public static boolean updateDomains() throws DomainNotFoundException {
-        domains = new ArrayList<>();
+        try {
+            domains = inFlight.execute("/domains", Domains::fetchAllPages);
+            return true;
+        } catch (DomainNotFoundException e) {
+            throw e;
+        } catch (Exception other) {
+            throw new DomainNotFoundException("Failed to parse domain list: " + other.getMessage(), other);
+        }
+    }
+
+    private static List<Domain> fetchAllPages() throws DomainNotFoundException {
+        List<Domain> domains = new ArrayList<>();
         try {
             int page = 1;
             while (true) {
@@ -77,19 +85,17 @@ public class Domains {
                 if (response.getResponseCode() != 200)
                     throw new DomainNotFoundException(baseUrl + "/domains?page=" + page + " responded : " + response.getResponseCode());
 
-                JsonArray array = JsonParser.parseString(response.getResponse()).getAsJsonArray();
-                if (array.isEmpty()) break;
+                Domain[] array = JsonCodec.getDefault().fromJson(response.getResponse(), Domain[].class, null, false);
+                if (array.length == 0) break;
 
-                for (JsonElement domain : array) {
-                    domains.add(gson.fromJson(domain, Domain.class));
-                }
+                Collections.addAll(domains, array);
                 page++;
             }
 
             if (domains.isEmpty())
                 throw new DomainNotFoundException("No available domains found!");
 
-            return true;
+            return domains;
         } catch (DomainNotFoundException e) {
             throw e;
         } catch (Exception other) {
@@ -111,8 +117,7 @@ public class Domains {
             Response response = IO.requestGET(baseUrl+"/domains/"+id);
 
             if(response.getResponseCode() == 200){
-                JsonObject json = JsonParser.parseString(response.getResponse()).getAsJsonObject();
-                return gson.fromJson(json , Domain.class);
+                return JsonCodec.getDefault().fromJson(response.getResponse() , Domain.class , null , false);
             }else{
                 throw new DomainNotFoundException("ID Specified can not be Found!");
             }
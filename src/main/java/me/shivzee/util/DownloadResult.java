@@ -0,0 +1,125 @@
+package me.shivzee.util;
+
+import java.nio.file.Path;
+
+/**
+ * The DownloadResult class describes the outcome of a file download.
+ * <p>
+ * It reports whether the download succeeded, how many bytes were transferred over the
+ * network, how long it took and whether a partial file was resumed.
+ * </p>
+ *
+ * @see me.shivzee.util.Attachment#download(Path)
+ */
+public class DownloadResult {
+
+    private final Path path;
+    private final boolean success;
+    private final int responseCode;
+    private final long bytes;
+    private final long durationMillis;
+    private final boolean resumed;
+    private final boolean cached;
+
+    /**
+     * Constructs a new DownloadResult.
+     *
+     * @param path the file that was written
+     * @param success whether the download completed
+     * @param responseCode the HTTP response code, {@code 0} if no response was received
+     * @param bytes the number of bytes transferred by this download
+     * @param durationMillis the time taken in milliseconds
+     * @param resumed whether an existing partial file was continued
+     */
+    public DownloadResult(Path path, boolean success, int responseCode, long bytes, long durationMillis, boolean resumed) {
+        this(path, success, responseCode, bytes, durationMillis, resumed, false);
+    }
+
+    /**
+     * Constructs a new DownloadResult.
+     *
+     * @param path the file that was written
+     * @param success whether the download completed
+     * @param responseCode the HTTP response code, {@code 0} if no response was received
+     * @param bytes the number of bytes transferred by this download
+     * @param durationMillis the time taken in milliseconds
+     * @param resumed whether an existing partial file was continued
+     * @param cached whether the file was served from the local cache without a request
+     */
+    public DownloadResult(Path path, boolean success, int responseCode, long bytes, long durationMillis, boolean resumed, boolean cached) {
+        this.path = path;
+        this.success = success;
+        this.responseCode = responseCode;
+        this.bytes = bytes;
+        this.durationMillis = durationMillis;
+        this.resumed = resumed;
+        this.cached = cached;
+    }
+
+    /**
+     * Gets the file that was written.
+     *
+     * @return the target path of the download, or null if no target could be determined for it
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Checks if the download completed.
+     *
+     * @return {@code true} if the file is complete on disk; {@code false} otherwise
+     */
+    public boolean isSuccess() {
+        return success;
+    }
+
+    /**
+     * Gets the HTTP response code.
+     *
+     * @return the response code, {@code 0} if no response was received
+     */
+    public int getResponseCode() {
+        return responseCode;
+    }
+
+    /**
+     * Gets the number of bytes transferred.
+     * <p>
+     * For resumed downloads this only counts the bytes fetched by this call.
+     * </p>
+     *
+     * @return the number of bytes written
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Gets the time taken by the download.
+     *
+     * @return the duration in milliseconds
+     */
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    /**
+     * Checks if an existing partial file was continued using an HTTP range request.
+     *
+     * @return {@code true} if the download was resumed; {@code false} otherwise
+     */
+    public boolean isResumed() {
+        return resumed;
+    }
+
+    /**
+     * Checks if the file was served from the local cache.
+     *
+     * @return {@code true} if no network request was made; {@code false} otherwise
+     * @see me.shivzee.store.AttachmentCache
+     */
+    public boolean isCached() {
+        return cached;
+    }
+}
@@ -0,0 +1,69 @@
+package me.shivzee.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The fields of a {@link Message} that can be requested in a projection.
+ * <p>
+ * Fields that are not requested are skipped while parsing and keep their default value
+ * ({@code null}, {@code false} or {@code 0}) in the returned message. The message id and the
+ * bearer token are always filled in so that {@code delete()} and {@code markAsRead()} still work.
+ * </p>
+ *
+ * @see me.shivzee.JMailTM#getMessageById(String, Fields...)
+ * @see me.shivzee.util.MessageProjection
+ */
+public enum Fields {
+    ID("id"),
+    MSGID("msgid"),
+    FROM("from"),
+    TO("to"),
+    SUBJECT("subject"),
+    TEXT("text"),
+    SEEN("seen"),
+    FLAGGED("flagged"),
+    IS_DELETED("isDeleted"),
+    RETENTION("retention"),
+    RETENTION_DATE("retentionDate"),
+    HTML("html"),
+    HAS_ATTACHMENTS("hasAttachments"),
+    ATTACHMENTS("attachments"),
+    SIZE("size"),
+    DOWNLOAD_URL("downloadUrl"),
+    CREATED_AT("createdAt"),
+    UPDATED_AT("updatedAt");
+
+    private static final Map<String, Fields> BY_JSON_NAME = new HashMap<>();
+
+    static {
+        for (Fields field : values()) {
+            BY_JSON_NAME.put(field.jsonName, field);
+        }
+    }
+
+    private final String jsonName;
+
+    Fields(String jsonName) {
+        this.jsonName = jsonName;
+    }
+
+    /**
+     * Gets the name of the field in the API's JSON.
+     *
+     * @return the JSON member name
+     */
+    public String getJsonName() {
+        return jsonName;
+    }
+
+    /**
+     * Looks up a field by its JSON member name.
+     *
+     * @param jsonName the JSON member name
+     * @return the field, or null if the name is not a message field
+     */
+    public static Fields forJsonName(String jsonName) {
+        return BY_JSON_NAME.get(jsonName);
+    }
+}
@@ -0,0 +1,178 @@
+package me.shivzee.util;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import me.shivzee.adapters.HtmlBodyAdapter;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+/**
+ * The GsonCodec class is the default {@link JsonCodec}, shared by every account in the JVM.
+ * <p>
+ * Gson instances are thread-safe and cache one type adapter per type, so building one per
+ * account repeats that warm-up for every account. Instead the library keeps a single pair of
+ * Gson instances (with and without HTML decoding) and passes the account context, the bearer
+ * token, in at decode time. The token is attached to the decoded messages and their
+ * attachments after binding, without touching the JSON.
+ * </p>
+ * <p>
+ * The model classes are bound by hand-written streaming adapters instead of Gson's
+ * reflective adapter, and the adapters of annotated types are registered directly rather
+ * than instantiated from their annotation, so decoding does not use reflection at all.
+ * </p>
+ *
+ * <p>
+ * Other backends can reuse the bindings through {@link #fromJson(JsonReader, Class, String, boolean)}
+ * by handing in a {@link JsonReader} backed by their own tokenizer.
+ * </p>
+ *
+ * @see me.shivzee.JMailTM#setHtmlDecoding(boolean)
+ * @see JsonCodec
+ */
+public final class GsonCodec implements JsonCodec {
+
+    private static final GsonCodec INSTANCE = new GsonCodec();
+
+    private final Gson gson = new GsonBuilder()
+            .registerTypeAdapterFactory(ModelAdapters.FACTORY)
+            .registerTypeAdapter(HtmlBody.class, new HtmlBodyAdapter())
+            .create();
+    private final Gson gsonWithoutHtml = new GsonBuilder()
+            .registerTypeAdapterFactory(ModelAdapters.FACTORY)
+            .registerTypeAdapter(HtmlBody.class, HtmlBodyAdapter.SKIP)
+            .create();
+
+    private GsonCodec() {
+    }
+
+    /**
+     * Gets the shared codec.
+     *
+     * @return the codec instance
+     */
+    public static GsonCodec getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Gets the underlying Gson instance.
+     *
+     * @param decodeHtml {@code false} for the instance that skips the HTML body of messages
+     * @return the shared Gson instance
+     */
+    public Gson getGson(boolean decodeHtml) {
+        return decodeHtml ? gson : gsonWithoutHtml;
+    }
+
+    /**
+     * Decodes JSON and attaches the account context to the result.
+     *
+     * @param json the JSON text
+     * @param type the type to decode into
+     * @param bearerToken the bearer token of the account the JSON belongs to
+     * @param decodeHtml {@code false} to skip the HTML body of messages
+     * @param <T> the decoded type
+     * @return the decoded value
+     */
+    @Override
+    public <T> T fromJson(String json, Class<T> type, String bearerToken, boolean decodeHtml) {
+        T value = getGson(decodeHtml).fromJson(json, type);
+        bind(value, bearerToken);
+        return value;
+    }
+
+    /**
+     * Decodes the next value of a reader and attaches the account context to the result.
+     *
+     * @param in the reader positioned at the value
+     * @param type the type to decode into
+     * @param bearerToken the bearer token of the account the JSON belongs to
+     * @param decodeHtml {@code false} to skip the HTML body of messages
+     * @param <T> the decoded type
+     * @return the decoded value
+     * @throws IOException if the reader fails
+     */
+    public <T> T fromJson(JsonReader in, Class<T> type, String bearerToken, boolean decodeHtml) throws IOException {
+        T value = getGson(decodeHtml).getAdapter(type).read(in);
+        bind(value, bearerToken);
+        return value;
+    }
+
+    /**
+     * Decodes a parsed JSON tree and attaches the account context to the result.
+     *
+     * @param json the JSON tree
+     * @param type the type to decode into
+     * @param bearerToken the bearer token of the account the JSON belongs to
+     * @param <T> the decoded type
+     * @return the decoded value
+     */
+    public <T> T fromJson(JsonElement json, Class<T> type, String bearerToken) {
+        T value = gson.fromJson(json, type);
+        bind(value, bearerToken);
+        return value;
+    }
+
+    @Override
+    public String toJson(Object value) {
+        return gson.toJson(value);
+    }
+
+    @Override
+    public String readString(String json, String member) {
+        try (JsonReader in = new JsonReader(new StringReader(json))) {
+            return readString(in, member);
+        } catch (IOException | IllegalStateException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Reads one top-level member of the object a reader is positioned at.
+     *
+     * @param in the reader positioned at an object
+     * @param member the member name
+     * @return the member value as a string, or null if it is missing, null or not a scalar
+     * @throws IOException if the reader fails
+     */
+    public static String readString(JsonReader in, String member) throws IOException {
+        if (in.peek() != JsonToken.BEGIN_OBJECT) {
+            return null;
+        }
+        in.beginObject();
+        while (in.hasNext()) {
+            if (!in.nextName().equals(member)) {
+                in.skipValue();
+                continue;
+            }
+            switch (in.peek()) {
+                case STRING:
+                case NUMBER:
+                    return in.nextString();
+                case BOOLEAN:
+                    return String.valueOf(in.nextBoolean());
+                default:
+                    return null;
+            }
+        }
+        return null;
+    }
+
+    private static void bind(Object value, String bearerToken) {
+        if (value instanceof Message) {
+            ((Message) value).setBearerToken(bearerToken);
+        } else if (value instanceof Attachment) {
+            ((Attachment) value).setBearerToken(bearerToken);
+        } else if (value instanceof Message[]) {
+            for (Message message : (Message[]) value) {
+                if (message != null) {
+                    message.setBearerToken(bearerToken);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package me.shivzee.util;
+
+import com.google.gson.annotations.JsonAdapter;
+import me.shivzee.adapters.HtmlBodyAdapter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The HtmlBody class holds the HTML parts of a message.
+ * <p>
+ * The API sends the HTML body as a list of parts. They are kept as they were decoded and only
+ * concatenated the first time the whole body is needed as a single string, the result is then
+ * reused. Use {@link #writeTo(Writer)} to stream the body without building that string at all.
+ * </p>
+ *
+ * @see me.shivzee.util.Message#getHtml()
+ */
+@JsonAdapter(HtmlBodyAdapter.class)
+public class HtmlBody implements CharSequence {
+
+    private final List<String> parts;
+    private volatile String joined;
+
+    /**
+     * Constructs a new HtmlBody.
+     *
+     * @param parts the HTML parts in order
+     */
+    public HtmlBody(List<String> parts) {
+        this.parts = Collections.unmodifiableList(parts);
+    }
+
+    /**
+     * Gets the HTML parts as sent by the API.
+     *
+     * @return the unmodifiable list of parts
+     */
+    public List<String> getParts() {
+        return parts;
+    }
+
+    /**
+     * Writes the HTML body part by part without concatenating it.
+     *
+     * @param writer the writer to write to
+     * @throws IOException if the writer fails
+     */
+    public void writeTo(Writer writer) throws IOException {
+        for (String part : parts) {
+            writer.write(part);
+        }
+    }
+
+    @Override
+    public int length() {
+        if (joined != null) {
+            return joined.length();
+        }
+        int length = 0;
+        for (String part : parts) {
+            length += part.length();
+        }
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        return toString().charAt(index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return toString().subSequence(start, end);
+    }
+
+    /**
+     * Gets the whole HTML body, concatenating the parts on the first call.
+     *
+     * @return the HTML body
+     */
+    @Override
+    public String toString() {
+        String result = joined;
+        if (result == null) {
+            result = parts.size() == 1 ? parts.get(0) : String.join("", parts);
+            joined = result;
+        }
+        return result;
+    }
+}
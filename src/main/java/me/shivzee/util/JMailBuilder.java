@@ -1,12 +1,18 @@
 package me.shivzee.util;
 
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
 import me.shivzee.Config;
 import me.shivzee.JMailTM;
+import me.shivzee.exceptions.DomainNotFoundException;
 import me.shivzee.io.IO;
+import me.shivzee.io.JsonBody;
+import me.shivzee.store.Session;
+import me.shivzee.store.SessionStore;
 
 import javax.security.auth.login.LoginException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * The JMailBuilder class provides methods for account creation and authentication.
@@ -15,12 +21,18 @@ import javax.security.auth.login.LoginException;
  * It provides both synchronous and asynchronous methods for these operations.
  * </p>
  * <p>
+ * While the circuit breaker of an endpoint is open the methods fail at once without a
+ * request. The {@code LoginException} they throw then has the
+ * {@link me.shivzee.exceptions.CircuitOpenException} as its cause.
+ * </p>
+ * <p>
  * For more information about the API, see <a href="https://api.mail.tm">API Documentation</a>.
  * </p>
  */
 public class JMailBuilder {
 
     private static final String baseUrl = Config.BASEURL;
+    private static volatile AddressGenerator addressGenerator = AddressGenerator.defaults();
 
     /**
      * Logs in to the API and returns a JMailTM instance.
@@ -39,17 +51,22 @@ public class JMailBuilder {
     public static JMailTM login(String email , String password) throws LoginException{
 
         try{
-            String jsonData = "{\"address\" : \""+email.trim()+"\",\"password\" : \""+password.trim()+"\"}";
-            Response response = IO.requestPOST(baseUrl+"/token" , jsonData);
+            JsonBody body = JsonBody.object().put("address" , email.trim()).put("password" , password.trim());
+            Response response = IO.requestPOST(baseUrl+"/token" , null , body);
             if(response.getResponseCode() == 200){
-                JsonObject json = JsonParser.parseString(response.getResponse()).getAsJsonObject();
-                return new JMailTM(json.get("token").getAsString() , json.get("id").getAsString());
+                JsonCodec codec = JsonCodec.getDefault();
+                String token = codec.readString(response.getResponse() , "token");
+                String id = codec.readString(response.getResponse() , "id");
+                if(token == null || id == null){
+                    throw new LoginException("Login returned no token : " + response.getResponse());
+                }
+                return new JMailTM(token , id , email.trim());
             }else {
                 throw new LoginException(response.getResponse());
             }
 
         }catch (Exception e){
-            throw new LoginException("Network error something went wrong " + e);
+            throw loginFailed("Network error something went wrong " + e , e);
         }
     }
 
@@ -69,8 +86,8 @@ public class JMailBuilder {
 
         try{
 
-            String jsonData = "{\"address\" : \""+email.trim().toLowerCase()+"\",\"password\" : \""+password.trim().toLowerCase()+"\"}";
-            Response response = IO.requestPOST(baseUrl+"/accounts" , jsonData);
+            JsonBody body = JsonBody.object().put("address" , email.trim().toLowerCase()).put("password" , password.trim().toLowerCase());
+            Response response = IO.requestPOST(baseUrl+"/accounts" , null , body);
 
             return response.getResponseCode() == 200 || response.getResponseCode() == 201;
 
@@ -97,8 +114,8 @@ public class JMailBuilder {
 
         try{
 
-            String jsonData = "{\"address\" : \""+email.trim().toLowerCase()+"\",\"password\" : \""+password.trim()+"\"}";
-            Response response = IO.requestPOST(baseUrl+"/accounts" , jsonData);
+            JsonBody body = JsonBody.object().put("address" , email.trim().toLowerCase()).put("password" , password.trim());
+            Response response = IO.requestPOST(baseUrl+"/accounts" , null , body);
 
             if(response.getResponseCode() == 201){
                 return login(email.trim().toLowerCase() , password.trim());
@@ -112,7 +129,7 @@ public class JMailBuilder {
             }
 
         }catch (Exception e){
-            throw new LoginException(e.toString());
+            throw loginFailed(e.toString() , e);
         }
 
     }
@@ -135,15 +152,92 @@ public class JMailBuilder {
      */
     public static JMailTM createDefault(String password) throws LoginException{
         try{
-            String email = Utility.createRandomString(8)+"@"+Domains.getRandomDomain().getDomainName();
+            String email = addressGenerator.next(Domains.getRandomDomain().getDomainName());
             return createAndLogin(email , password);
         } catch (LoginException e) {
             throw e;
         } catch (Exception other) {
-            throw new LoginException(other.toString());
+            throw loginFailed(other.toString() , other);
+        }
+    }
+
+    /**
+     * (Asynchronous) Creates and logs in to many randomly generated accounts at once.
+     * <p>
+     * Uses 8 workers and stays under 8 requests per second, the documented limit of the API.
+     * </p>
+     *
+     * @param count the number of accounts to create
+     * @param password the password for every account
+     * @return a future of the accounts that were created and logged in
+     * @see #createBatch(int, String, int, int)
+     */
+    public static CompletableFuture<List<JMailTM>> createBatch(int count , String password){
+        return createBatch(count , password , 8 , 8);
+    }
+
+    /**
+     * (Asynchronous) Creates and logs in to many randomly generated accounts at once.
+     * <p>
+     * The create and login requests of different accounts run side by side on a pool of
+     * workers, while all requests of the batch share one rate limit. Rate limiting, server
+     * errors and network failures are retried with backoff, and an address found to be
+     * taken is replaced by a new one. The domain list is fetched once for the whole batch.
+     * </p>
+     * <p>
+     * Accounts that still fail after their retries are logged and left out, so the returned
+     * list can be shorter than {@code count}. The future fails only if the domain list cannot
+     * be fetched.
+     * </p>
+     * <p>
+     * Example usage:
+     * <pre>{@code
+     * List<JMailTM> inboxes = JMailBuilder.createBatch(1000, "password", 16, 8).join();
+     * }</pre>
+     *
+     * @param count the number of accounts to create
+     * @param password the password for every account
+     * @param concurrency the number of accounts in progress at the same time
+     * @param requestsPerSecond the combined rate of create and login requests
+     * @return a future of the accounts that were created and logged in
+     */
+    public static CompletableFuture<List<JMailTM>> createBatch(int count , String password , int concurrency , int requestsPerSecond){
+        String trimmed = password.trim();
+        AddressGenerator generator = addressGenerator;
+        // The domain list is fetched in the background too, so that the call never blocks
+        CompletableFuture<List<Domain>> domains = new CompletableFuture<>();
+        new Thread(() -> {
+            try{
+                domains.complete(new ArrayList<>(Domains.fetchDomains()));
+            }catch (DomainNotFoundException | RuntimeException e){
+                domains.completeExceptionally(e);
+            }
+        }, "Account_Batch_Domains").start();
+        return domains.thenCompose(list -> new BatchCreator(baseUrl , trimmed , () -> generator.next(list) , requestsPerSecond).run(count , concurrency));
+    }
+
+    /**
+     * Sets the generator of the random addresses used by {@link #createDefault(String)} and
+     * {@link #createBatch(int, String, int, int)}.
+     *
+     * @param generator the address generator
+     * @see AddressGenerator
+     */
+    public static void setAddressGenerator(AddressGenerator generator){
+        if(generator == null){
+            throw new IllegalArgumentException("The address generator is null");
         }
+        addressGenerator = generator;
     }
 
+    /**
+     * Gets the generator of the random addresses of new accounts.
+     *
+     * @return the address generator
+     */
+    public static AddressGenerator getAddressGenerator(){
+        return addressGenerator;
+    }
 
     /**
      * Login into an account with token
@@ -158,15 +252,59 @@ public class JMailBuilder {
                 throw new LoginException("Invalid Token Provided");
             }
             if(response.getResponseCode() == 200){
-                JsonObject json = JsonParser.parseString(response.getResponse()).getAsJsonObject();
-                return new JMailTM(token , json.get("id").getAsString());
+                Account account = JsonCodec.getDefault().fromJson(response.getResponse() , Account.class , null , false);
+                return new JMailTM(token , account.getId() , account.getEmail());
             }
             throw new LoginException("Invalid response received");
         }catch (Exception e){
-            throw new LoginException(e.getMessage());
+            throw loginFailed(e.getMessage() , e);
         }
     }
 
+    /**
+     * Rebuilds a JMailTM instance from a stored session without any network call.
+     * <p>
+     * The token is not checked against the API here. An invalid or revoked token shows up
+     * on the first request made with the returned instance.
+     * </p>
+     *
+     * @param session the stored session
+     * @return the JMailTM instance for the session's account
+     * @throws LoginException if the session's token has already expired
+     * @see me.shivzee.store.SessionStore
+     */
+    public static JMailTM restore(Session session) throws LoginException {
+        if(session.isExpired()){
+            throw new LoginException("Session token for " + session.getId() + " has expired");
+        }
+        return new JMailTM(session.getToken() , session.getId() , session.getAddress());
+    }
 
+    /**
+     * Rebuilds JMailTM instances for every session in the store without any network call.
+     * <p>
+     * Sessions whose token has already expired are skipped, use {@link #login(String, String)}
+     * to refresh them.
+     * </p>
+     *
+     * @param store the session store to read from
+     * @return the JMailTM instances of all unexpired sessions
+     * @throws IOException if the store could not be read
+     * @see #restore(Session)
+     */
+    public static List<JMailTM> restore(SessionStore store) throws IOException {
+        List<JMailTM> accounts = new ArrayList<>();
+        for(Session session : store.loadAll()){
+            if(!session.isExpired()){
+                accounts.add(new JMailTM(session.getToken() , session.getId() , session.getAddress()));
+            }
+        }
+        return accounts;
+    }
 
+    private static LoginException loginFailed(String message , Exception cause){
+        LoginException exception = new LoginException(message);
+        exception.initCause(cause);
+        return exception;
+    }
 }
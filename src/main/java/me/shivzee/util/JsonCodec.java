@@ -0,0 +1,67 @@
+package me.shivzee.util;
+
+import java.util.ServiceLoader;
+
+/**
+ * The JsonCodec interface is the JSON backend used by the library for every encode and decode.
+ * <p>
+ * The default is {@link GsonCodec}. Another backend is picked up automatically when a jar on
+ * the classpath declares it in {@code META-INF/services/me.shivzee.util.JsonCodec}, or it can
+ * be set explicitly with {@link #setDefault(JsonCodec)}. Implementations are shared by every
+ * account and must be thread-safe.
+ * </p>
+ * <p>
+ * Partial decoding with {@link Fields} always goes through Gson, whatever codec is set.
+ * </p>
+ *
+ * @see GsonCodec
+ */
+public interface JsonCodec {
+
+    /**
+     * Decodes JSON and attaches the account context to the result.
+     *
+     * @param json the JSON text
+     * @param type the type to decode into, a model class or an array of one
+     * @param bearerToken the bearer token of the account the JSON belongs to, may be null
+     * @param decodeHtml {@code false} to skip the HTML body of messages
+     * @param <T> the decoded type
+     * @return the decoded value
+     */
+    <T> T fromJson(String json, Class<T> type, String bearerToken, boolean decodeHtml);
+
+    /**
+     * Encodes a value as JSON.
+     *
+     * @param value the value to encode
+     * @return the JSON text
+     */
+    String toJson(Object value);
+
+    /**
+     * Reads one top-level member of a JSON object as a string, without binding the rest.
+     *
+     * @param json the JSON text of an object
+     * @param member the member name
+     * @return the member value as a string, or null if it is missing, null or not a scalar
+     */
+    String readString(String json, String member);
+
+    /**
+     * Gets the codec used by the library.
+     *
+     * @return the explicitly set codec, else the first one found by {@link ServiceLoader}, else {@link GsonCodec}
+     */
+    static JsonCodec getDefault() {
+        return JsonCodecs.getDefault();
+    }
+
+    /**
+     * Sets the codec used by the library.
+     *
+     * @param codec the codec, or null to go back to discovery
+     */
+    static void setDefault(JsonCodec codec) {
+        JsonCodecs.setDefault(codec);
+    }
+}
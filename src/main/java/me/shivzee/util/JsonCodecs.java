@@ -0,0 +1,35 @@
+package me.shivzee.util;
+
+import java.util.Iterator;
+import java.util.ServiceLoader;
+
+/**
+ * Holds the codec returned by {@link JsonCodec#getDefault()}, interfaces cannot have mutable
+ * static fields and a nested class would be part of the public API.
+ */
+final class JsonCodecs {
+
+    private static volatile JsonCodec codec;
+
+    private JsonCodecs() {
+    }
+
+    static JsonCodec getDefault() {
+        JsonCodec current = codec;
+        if (current == null) {
+            synchronized (JsonCodecs.class) {
+                current = codec;
+                if (current == null) {
+                    Iterator<JsonCodec> found = ServiceLoader.load(JsonCodec.class).iterator();
+                    current = found.hasNext() ? found.next() : GsonCodec.getInstance();
+                    codec = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    static void setDefault(JsonCodec value) {
+        codec = value;
+    }
+}
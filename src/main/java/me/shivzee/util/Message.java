@@ -1,19 +1,32 @@
 package me.shivzee.util;
 
-import com.google.gson.Gson;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import me.shivzee.Config;
+import me.shivzee.adapters.ReceiversAdapter;
+import me.shivzee.callbacks.MimeHandler;
 import me.shivzee.callbacks.WorkCallback;
+import me.shivzee.exceptions.CircuitOpenException;
 import me.shivzee.exceptions.DateTimeParserException;
 import me.shivzee.io.IO;
+import me.shivzee.mime.MimeParser;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.time.Instant;
+import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.Collections;
 import java.util.List;
-import java.util.ArrayList;
-import java.util.Map;
 
-import static me.shivzee.util.Utility.parseToDefaultTimeZone;
+import static me.shivzee.util.ModelAdapters.nextBoolean;
+import static me.shivzee.util.ModelAdapters.nextLong;
+import static me.shivzee.util.ModelAdapters.nextString;
+import static me.shivzee.util.Utility.parseInstant;
 
 /**
  * The Message class represents an email message in the system.
@@ -28,12 +41,15 @@ import static me.shivzee.util.Utility.parseToDefaultTimeZone;
  */
 public class Message {
 
-    private final Logger LOG = LoggerFactory.getLogger(Message.class);
+    private static final ReceiversAdapter RECEIVERS = new ReceiversAdapter();
+
+    private static final Logger LOG = LoggerFactory.getLogger(Message.class);
 
     private String id ;
     private String msgid;
     private Sender from;
-    private Object to;
+    @JsonAdapter(ReceiversAdapter.class)
+    private List<Receiver> to;
     private String subject;
     private String text;
     private Boolean seen;
@@ -41,13 +57,15 @@ public class Message {
     private Boolean isDeleted;
     private Boolean retention;
     private String retentionDate;
-    private List<String> html;
+    private HtmlBody html;
     private Boolean hasAttachments;
     private List<Attachment> attachments;
     private Long size;
     private String downloadUrl;
     private String createdAt;
     private String updatedAt;
+    private transient Instant createdInstant;
+    private transient Instant updatedInstant;
     private String bearerToken;
 
     /**
@@ -78,7 +96,7 @@ public class Message {
      * @return the email address of the sender
      */
     public String getSenderAddress() {
-        return from.getAddress();
+        return from == null ? null : from.getAddress();
     }
 
     /**
@@ -87,38 +105,20 @@ public class Message {
      * @return the display name of the sender
      */
     public String getSenderName() {
-        return from.getName();
+        return from == null ? null : from.getName();
     }
 
     /**
      * Gets the list of recipients.
+     * <p>
+     * The recipients are decoded once when the message is parsed, every call returns the
+     * same immutable list.
+     * </p>
      *
      * @return the list of recipients to whom the email was sent
      */
     public List<Receiver> getReceivers() {
-        List<Receiver> receivers = new ArrayList<>();
-
-        if (to instanceof List) {
-            List<?> toList = (List<?>) to;
-            for (Object item : toList) {
-                if (item instanceof String) {
-                    // Handle string format: "email@example.com"
-                    Receiver receiver = new Receiver();
-                    receiver.setAddress((String) item);
-                    receiver.setName("");
-                    receivers.add(receiver);
-                } else if (item instanceof Map) {
-                    // Handle object format: {"address": "email", "name": "name"}
-                    Map<?, ?> map = (Map<?, ?>) item;
-                    Receiver receiver = new Receiver();
-                    receiver.setAddress((String) map.get("address"));
-                    receiver.setName((String) map.get("name"));
-                    receivers.add(receiver);
-                }
-            }
-        }
-
-        return receivers;
+        return to == null ? Collections.emptyList() : to;
     }
 
     /**
@@ -145,7 +145,7 @@ public class Message {
      * @return {@code true} if the message has been read; {@code false} otherwise
      */
     public boolean isSeen() {
-        return seen;
+        return seen != null && seen;
     }
 
     /**
@@ -154,7 +154,7 @@ public class Message {
      * @return {@code true} if the message has been flagged; {@code false} otherwise
      */
     public boolean isFlagged() {
-        return flagged;
+        return flagged != null && flagged;
     }
 
     /**
@@ -163,7 +163,7 @@ public class Message {
      * @return {@code true} if the message has been deleted; {@code false} otherwise
      */
     public boolean isDeleted() {
-        return isDeleted;
+        return isDeleted != null && isDeleted;
     }
 
     /**
@@ -172,7 +172,7 @@ public class Message {
      * @return {@code true} if the message is retained; {@code false} otherwise
      */
     public boolean retention() {
-        return retention;
+        return retention != null && retention;
     }
 
     /**
@@ -186,11 +186,37 @@ public class Message {
 
     /**
      * Gets the HTML content of the email.
+     * <p>
+     * The HTML parts are concatenated on the first call and the result is reused.
+     * </p>
      *
-     * @return the list of HTML parts of the email content
+     * @return the HTML content of the email, or an empty string if there is none or it was not decoded
+     * @see #getHtml()
      */
     public String getRawHTML() {
-        return html.toString();
+        return html == null ? "" : html.toString();
+    }
+
+    /**
+     * Gets the HTML content of the email without concatenating its parts.
+     *
+     * @return the HTML body, or null if there is none or it was not decoded
+     * @see me.shivzee.JMailTM#setHtmlDecoding(boolean)
+     */
+    public HtmlBody getHtml() {
+        return html;
+    }
+
+    /**
+     * Writes the HTML content of the email to a writer part by part.
+     *
+     * @param writer the writer to write to
+     * @throws IOException if the writer fails
+     */
+    public void writeHtml(Writer writer) throws IOException {
+        if (html != null) {
+            html.writeTo(writer);
+        }
     }
 
     /**
@@ -199,7 +225,7 @@ public class Message {
      * @return {@code true} if the message has attachments; {@code false} otherwise
      */
     public boolean hasAttachments() {
-        return hasAttachments;
+        return hasAttachments != null && hasAttachments;
     }
 
     /**
@@ -217,7 +243,7 @@ public class Message {
      * @return the size of the message
      */
     public long getSize() {
-        return size;
+        return size == null ? 0 : size;
     }
 
     /**
@@ -229,6 +255,49 @@ public class Message {
         return downloadUrl;
     }
 
+    /**
+     * Opens the raw source ({@code .eml}) of the message as a stream through the shared HTTP client.
+     * <p>
+     * Nothing is buffered in memory, the caller must close the stream once done.
+     * </p>
+     *
+     * @return the raw MIME source of the message
+     * @throws IOException if the request fails, the circuit of the endpoint is open or the server
+     * does not respond with 200
+     * @see me.shivzee.mime.MimeParser
+     */
+    public InputStream openRawStream() throws IOException {
+        String url = Utility.resolveUrl(downloadUrl);
+        okhttp3.Response response;
+        try {
+            response = IO.requestStream(url, bearerToken, 0);
+        } catch (CircuitOpenException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+        if (response.code() != 200 || response.body() == null) {
+            response.close();
+            throw new IOException(url + " responded : " + response.code());
+        }
+        return response.body().byteStream();
+    }
+
+    /**
+     * Streams the raw source of the message through a {@link MimeParser}.
+     * <p>
+     * The download stops as soon as the handler asks the parser to stop, so reading only the
+     * headers of a large message does not fetch its body.
+     * </p>
+     *
+     * @param handler the handler to receive the headers and parts
+     * @throws IOException if the raw source could not be fetched or read
+     * @see me.shivzee.callbacks.MimeHandler
+     */
+    public void parseRaw(MimeHandler handler) throws IOException {
+        try (InputStream raw = openRawStream()) {
+            new MimeParser(handler).parse(raw);
+        }
+    }
+
     /**
      * Gets the creation timestamp of the message.
      *
@@ -238,13 +307,47 @@ public class Message {
         return createdAt;
     }
 
+    /**
+     * Get the Message creation time as an Instant
+     * <p>
+     * The timestamp is parsed on the first call and the result is reused.
+     * </p>
+     * @return the instant at which the message was created
+     * @throws DateTimeParserException when fail to parse
+     */
+    public Instant getCreatedInstant() throws DateTimeParserException {
+        Instant instant = createdInstant;
+        if (instant == null) {
+            instant = parseInstant(createdAt);
+            createdInstant = instant;
+        }
+        return instant;
+    }
+
+    /**
+     * Get the Message update time as an Instant
+     * <p>
+     * The timestamp is parsed on the first call and the result is reused.
+     * </p>
+     * @return the instant at which the message was last updated
+     * @throws DateTimeParserException when fail to parse
+     */
+    public Instant getUpdatedInstant() throws DateTimeParserException {
+        Instant instant = updatedInstant;
+        if (instant == null) {
+            instant = parseInstant(updatedAt);
+            updatedInstant = instant;
+        }
+        return instant;
+    }
+
     /**
      * Get the Message Received Date/Time in ZonedDateTime format
      * @return the date at which the message was sent/created/received
      * @throws DateTimeParserException when fail to parse
      */
     public ZonedDateTime getCreatedDateTime() throws DateTimeParserException {
-        return parseToDefaultTimeZone(createdAt, "yyyy-MM-dd'T'HH:mm:ss'+00:00'");
+        return getCreatedInstant().atZone(ZoneId.systemDefault());
     }
 
     /**
@@ -254,7 +357,7 @@ public class Message {
      * @see me.shivzee.callbacks.EventListener
      */
     public ZonedDateTime getUpdatedDateTime() throws DateTimeParserException {
-        return parseToDefaultTimeZone(updatedAt, "yyyy-MM-dd'T'HH:mm:ss'+00:00'");
+        return getUpdatedInstant().atZone(ZoneId.systemDefault());
     }
 
     /**
@@ -271,7 +374,7 @@ public class Message {
      * @return true if message was deleted from the server
      */
     public boolean delete(){
-        if(isDeleted){
+        if(isDeleted()){
             return true;
         }
         try{
@@ -312,7 +415,7 @@ public class Message {
      * @return true if the message was marked as read on server
      */
     public boolean markAsRead() {
-        if(seen){
+        if(isSeen()){
             return true;
         }
         try {
@@ -347,12 +450,86 @@ public class Message {
         new Thread(() -> { this.markAsRead(callback); }, "Mark_Message_As_Read_" + id).start();
     }
 
+    /**
+     * Creates a read-only, memory-compact copy of this message.
+     * <p>
+     * Use it to hold large numbers of messages in memory, the copy does not keep the bearer
+     * token or any boxed values.
+     * </p>
+     *
+     * @return the compact copy
+     * @throws DateTimeParserException if the timestamps cannot be parsed
+     * @see me.shivzee.util.CompactMessage
+     */
+    public CompactMessage compact() throws DateTimeParserException {
+        return new CompactMessage(this);
+    }
+
+    void setBearerToken(String bearerToken) {
+        this.bearerToken = bearerToken;
+        if (attachments != null) {
+            for (Attachment attachment : attachments) {
+                attachment.setBearerToken(bearerToken);
+            }
+        }
+    }
+
+    void decode(Fields field, JsonReader in, ModelAdapters.Context context) throws IOException {
+        switch (field) {
+            case ID: id = nextString(in); break;
+            case MSGID: msgid = nextString(in); break;
+            case FROM: from = context.sender().read(in); break;
+            case TO: to = RECEIVERS.read(in); break;
+            case SUBJECT: subject = nextString(in); break;
+            case TEXT: text = nextString(in); break;
+            case SEEN: seen = nextBoolean(in); break;
+            case FLAGGED: flagged = nextBoolean(in); break;
+            case IS_DELETED: isDeleted = nextBoolean(in); break;
+            case RETENTION: retention = nextBoolean(in); break;
+            case RETENTION_DATE: retentionDate = nextString(in); break;
+            case HTML: html = context.htmlBody().read(in); break;
+            case HAS_ATTACHMENTS: hasAttachments = nextBoolean(in); break;
+            case ATTACHMENTS: attachments = context.attachments().read(in); break;
+            case SIZE: size = nextLong(in); break;
+            case DOWNLOAD_URL: downloadUrl = nextString(in); break;
+            case CREATED_AT: createdAt = nextString(in); break;
+            case UPDATED_AT: updatedAt = nextString(in); break;
+            default: in.skipValue();
+        }
+    }
+
+    void encode(JsonWriter out, ModelAdapters.Context context) throws IOException {
+        out.name("id").value(id);
+        out.name("msgid").value(msgid);
+        out.name("from");
+        context.sender().write(out, from);
+        out.name("to");
+        RECEIVERS.write(out, to);
+        out.name("subject").value(subject);
+        out.name("text").value(text);
+        out.name("seen").value(seen);
+        out.name("flagged").value(flagged);
+        out.name("isDeleted").value(isDeleted);
+        out.name("retention").value(retention);
+        out.name("retentionDate").value(retentionDate);
+        out.name("html");
+        context.htmlBody().write(out, html);
+        out.name("hasAttachments").value(hasAttachments);
+        out.name("attachments");
+        context.attachments().write(out, attachments);
+        out.name("size").value(size);
+        out.name("downloadUrl").value(downloadUrl);
+        out.name("createdAt").value(createdAt);
+        out.name("updatedAt").value(updatedAt);
+        out.name("bearerToken").value(bearerToken);
+    }
+
     /**
      * Get the Raw JSON Response For Message
      * @return the raw json response to parse manually
      */
     public String getRawJson(){
-        return new Gson().toJson(this);
+        return JsonCodec.getDefault().toJson(this);
     }
 
 
@@ -0,0 +1,72 @@
+package me.shivzee.util;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * The MessageProjection adapter decodes only the requested fields of a message.
+ * <p>
+ * The JSON is read as a stream, members that were not requested are skipped by the reader
+ * without being decoded or allocated. This makes reading the subject and text of a message
+ * with a large HTML body or many attachments much cheaper than binding the whole object.
+ * </p>
+ *
+ * @see me.shivzee.util.Fields
+ * @see me.shivzee.JMailTM#getMessageById(String, Fields...)
+ */
+public class MessageProjection extends TypeAdapter<Message> {
+
+    private final Gson gson;
+    private final ModelAdapters.Context context;
+    private final Set<Fields> fields;
+    private final String bearerToken;
+
+    /**
+     * Constructs a new MessageProjection.
+     *
+     * @param gson the Gson instance used for the nested values (sender, receivers, attachments, html)
+     * @param bearerToken the bearer token to attach to the decoded message
+     * @param fields the fields to decode
+     */
+    public MessageProjection(Gson gson, String bearerToken, Fields... fields) {
+        this.gson = gson;
+        this.context = new ModelAdapters.Context(gson);
+        this.bearerToken = bearerToken;
+        this.fields = fields.length == 0 ? EnumSet.noneOf(Fields.class) : EnumSet.copyOf(Arrays.asList(fields));
+        this.fields.add(Fields.ID);
+    }
+
+    @Override
+    public void write(JsonWriter out, Message value) throws IOException {
+        gson.getAdapter(Message.class).write(out, value);
+    }
+
+    @Override
+    public Message read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        Message message = new Message();
+        in.beginObject();
+        while (in.hasNext()) {
+            Fields field = Fields.forJsonName(in.nextName());
+            if (field == null || !fields.contains(field)) {
+                in.skipValue();
+            } else {
+                message.decode(field, in, context);
+            }
+        }
+        in.endObject();
+        message.setBearerToken(bearerToken);
+        return message;
+    }
+}
@@ -0,0 +1,232 @@
+package me.shivzee.util;
+
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import me.shivzee.adapters.ReceiversAdapter;
+import me.shivzee.exceptions.DateTimeParserException;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+
+import static me.shivzee.util.ModelAdapters.nextBoolean;
+import static me.shivzee.util.ModelAdapters.nextLong;
+import static me.shivzee.util.ModelAdapters.nextString;
+import static me.shivzee.util.Utility.parseInstant;
+
+/**
+ * The MessageSummary class represents a message as it appears in the message listing and in
+ * server-sent events.
+ * <p>
+ * A summary carries the sender, receivers, subject, a short intro of the text and the flags of
+ * a message, but not its body or attachments. It is available without fetching the full
+ * message, use {@link me.shivzee.JMailTM#getMessageById(String)} to hydrate it.
+ * </p>
+ * <p>
+ * For more information about the API, see <a href="https://api.mail.tm">API Documentation</a>.
+ * </p>
+ *
+ * @see me.shivzee.util.Message
+ */
+public class MessageSummary {
+
+    private static final ReceiversAdapter RECEIVERS = new ReceiversAdapter();
+
+    private String id;
+    private String msgid;
+    private Sender from;
+    @JsonAdapter(ReceiversAdapter.class)
+    private List<Receiver> to;
+    private String subject;
+    private String intro;
+    private Boolean seen;
+    private Boolean isDeleted;
+    private Boolean hasAttachments;
+    private Long size;
+    private String downloadUrl;
+    private String createdAt;
+    private String updatedAt;
+    private transient Instant createdInstant;
+
+    /**
+     * Gets the message ID.
+     *
+     * @return the unique identifier of the message
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Gets the message ID from the email headers.
+     *
+     * @return the message ID from the email headers
+     */
+    public String getMsgid() {
+        return msgid;
+    }
+
+    /**
+     * Gets the sender's email address.
+     *
+     * @return the email address of the sender
+     */
+    public String getSenderAddress() {
+        return from == null ? null : from.getAddress();
+    }
+
+    /**
+     * Gets the sender's display name.
+     *
+     * @return the display name of the sender
+     */
+    public String getSenderName() {
+        return from == null ? null : from.getName();
+    }
+
+    /**
+     * Gets the list of recipients.
+     *
+     * @return the list of recipients to whom the email was sent
+     */
+    public List<Receiver> getReceivers() {
+        return to == null ? Collections.emptyList() : to;
+    }
+
+    /**
+     * Gets the email subject.
+     *
+     * @return the subject line of the email
+     */
+    public String getSubject() {
+        return subject;
+    }
+
+    /**
+     * Gets the start of the plain text content.
+     *
+     * @return the short intro of the email content
+     */
+    public String getIntro() {
+        return intro;
+    }
+
+    /**
+     * Checks if the message has been read.
+     *
+     * @return {@code true} if the message has been read; {@code false} otherwise
+     */
+    public boolean isSeen() {
+        return seen != null && seen;
+    }
+
+    /**
+     * Checks if the message has been deleted.
+     *
+     * @return {@code true} if the message has been deleted; {@code false} otherwise
+     */
+    public boolean isDeleted() {
+        return isDeleted != null && isDeleted;
+    }
+
+    /**
+     * Checks if the message has attachments.
+     *
+     * @return {@code true} if the message has attachments; {@code false} otherwise
+     */
+    public boolean hasAttachments() {
+        return hasAttachments != null && hasAttachments;
+    }
+
+    /**
+     * Gets the size of the message in bytes.
+     *
+     * @return the size of the message
+     */
+    public long getSize() {
+        return size == null ? 0 : size;
+    }
+
+    /**
+     * Gets the download URL for the message.
+     *
+     * @return the URL where the message can be downloaded
+     */
+    public String getDownloadUrl() {
+        return downloadUrl;
+    }
+
+    /**
+     * Gets the creation timestamp of the message.
+     *
+     * @return the date and time when the message was created
+     */
+    public String getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * Gets the update timestamp of the message.
+     *
+     * @return the date and time when the message was last updated
+     */
+    public String getUpdatedAt() {
+        return updatedAt;
+    }
+
+    /**
+     * Get the Message creation time as an Instant
+     * <p>
+     * The timestamp is parsed on the first call and the result is reused.
+     * </p>
+     * @return the instant at which the message was created
+     * @throws DateTimeParserException when fail to parse
+     */
+    public Instant getCreatedInstant() throws DateTimeParserException {
+        Instant instant = createdInstant;
+        if (instant == null) {
+            instant = parseInstant(createdAt);
+            createdInstant = instant;
+        }
+        return instant;
+    }
+
+    void decode(String member, JsonReader in, ModelAdapters.Context context) throws IOException {
+        switch (member) {
+            case "id": id = nextString(in); break;
+            case "msgid": msgid = nextString(in); break;
+            case "from": from = context.sender().read(in); break;
+            case "to": to = RECEIVERS.read(in); break;
+            case "subject": subject = nextString(in); break;
+            case "intro": intro = nextString(in); break;
+            case "seen": seen = nextBoolean(in); break;
+            case "isDeleted": isDeleted = nextBoolean(in); break;
+            case "hasAttachments": hasAttachments = nextBoolean(in); break;
+            case "size": size = nextLong(in); break;
+            case "downloadUrl": downloadUrl = nextString(in); break;
+            case "createdAt": createdAt = nextString(in); break;
+            case "updatedAt": updatedAt = nextString(in); break;
+            default: in.skipValue();
+        }
+    }
+
+    void encode(JsonWriter out, ModelAdapters.Context context) throws IOException {
+        out.name("id").value(id);
+        out.name("msgid").value(msgid);
+        out.name("from");
+        context.sender().write(out, from);
+        out.name("to");
+        RECEIVERS.write(out, to);
+        out.name("subject").value(subject);
+        out.name("intro").value(intro);
+        out.name("seen").value(seen);
+        out.name("isDeleted").value(isDeleted);
+        out.name("hasAttachments").value(hasAttachments);
+        out.name("size").value(size);
+        out.name("downloadUrl").value(downloadUrl);
+        out.name("createdAt").value(createdAt);
+        out.name("updatedAt").value(updatedAt);
+    }
+}
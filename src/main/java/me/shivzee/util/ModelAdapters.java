@@ -0,0 +1,190 @@
+package me.shivzee.util;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import me.shivzee.adapters.ReceiverAdapter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Streaming type adapters for the model classes, registered on the shared codec in place of
+ * Gson's reflective adapter.
+ * <p>
+ * Every model reads and writes its own members in a package-private {@code decode} and
+ * {@code encode} method, these adapters only walk the JSON object. {@code decode} is called
+ * once per member with its name and sets the matching field, skipping members it does not
+ * know; messages are decoded by {@link Fields} so that {@link MessageProjection} can share
+ * the same method. No field is looked up or set through reflection, so the first decode of a
+ * type does not pay for building a reflective binding and the models work unchanged in a
+ * native image.
+ * </p>
+ */
+final class ModelAdapters implements TypeAdapterFactory {
+
+    static final ModelAdapters FACTORY = new ModelAdapters();
+
+    private ModelAdapters() {
+    }
+
+    interface Decoder<T> {
+        void decode(T value, String member, JsonReader in, Context context) throws IOException;
+    }
+
+    interface Encoder<T> {
+        void encode(T value, JsonWriter out, Context context) throws IOException;
+    }
+
+    /**
+     * The adapters for nested values, looked up from the Gson instance once and then reused.
+     */
+    static final class Context {
+
+        // Built without an anonymous subclass, whose generic signature would need reflection in a native image
+        @SuppressWarnings("unchecked")
+        private static final TypeToken<List<Attachment>> ATTACHMENT_LIST =
+                (TypeToken<List<Attachment>>) TypeToken.getParameterized(List.class, Attachment.class);
+
+        private final Gson gson;
+        private TypeAdapter<Sender> sender;
+        private TypeAdapter<HtmlBody> htmlBody;
+        private TypeAdapter<List<Attachment>> attachments;
+
+        Context(Gson gson) {
+            this.gson = gson;
+        }
+
+        TypeAdapter<Sender> sender() {
+            if (sender == null) {
+                sender = gson.getAdapter(Sender.class);
+            }
+            return sender;
+        }
+
+        TypeAdapter<HtmlBody> htmlBody() {
+            if (htmlBody == null) {
+                htmlBody = gson.getAdapter(HtmlBody.class);
+            }
+            return htmlBody;
+        }
+
+        TypeAdapter<List<Attachment>> attachments() {
+            if (attachments == null) {
+                attachments = gson.getAdapter(ATTACHMENT_LIST);
+            }
+            return attachments;
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        Class<? super T> raw = type.getRawType();
+        Context context = new Context(gson);
+        if (raw == Message.class) {
+            return (TypeAdapter<T>) new ModelAdapter<>(context, Message::new, ModelAdapters::decodeMessage, Message::encode);
+        }
+        if (raw == MessageSummary.class) {
+            return (TypeAdapter<T>) new ModelAdapter<>(context, MessageSummary::new, MessageSummary::decode, MessageSummary::encode);
+        }
+        if (raw == Attachment.class) {
+            return (TypeAdapter<T>) new ModelAdapter<>(context, Attachment::new, Attachment::decode, Attachment::encode);
+        }
+        if (raw == Account.class) {
+            return (TypeAdapter<T>) new ModelAdapter<>(context, Account::new, Account::decode, Account::encode);
+        }
+        if (raw == Domain.class) {
+            return (TypeAdapter<T>) new ModelAdapter<>(context, Domain::new, Domain::decode, Domain::encode);
+        }
+        if (raw == Sender.class) {
+            return (TypeAdapter<T>) new ModelAdapter<>(context, Sender::new, Sender::decode, Sender::encode);
+        }
+        if (raw == Receiver.class) {
+            // Receivers are immutable and built from the decoded values
+            return (TypeAdapter<T>) new ReceiverAdapter();
+        }
+        return null;
+    }
+
+    private static final class ModelAdapter<T> extends TypeAdapter<T> {
+
+        private final Context context;
+        private final Supplier<T> constructor;
+        private final Decoder<T> decoder;
+        private final Encoder<T> encoder;
+
+        ModelAdapter(Context context, Supplier<T> constructor, Decoder<T> decoder, Encoder<T> encoder) {
+            this.context = context;
+            this.constructor = constructor;
+            this.decoder = decoder;
+            this.encoder = encoder;
+        }
+
+        @Override
+        public void write(JsonWriter out, T value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            encoder.encode(value, out, context);
+            out.endObject();
+        }
+
+        @Override
+        public T read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            T value = constructor.get();
+            in.beginObject();
+            while (in.hasNext()) {
+                decoder.decode(value, in.nextName(), in, context);
+            }
+            in.endObject();
+            return value;
+        }
+    }
+
+    private static void decodeMessage(Message message, String member, JsonReader in, Context context) throws IOException {
+        Fields field = Fields.forJsonName(member);
+        if (field != null) {
+            message.decode(field, in, context);
+        } else if (member.equals("bearerToken")) {
+            message.setBearerToken(nextString(in));
+        } else {
+            in.skipValue();
+        }
+    }
+
+    static String nextString(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextString();
+    }
+
+    static Boolean nextBoolean(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextBoolean();
+    }
+
+    static Long nextLong(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextLong();
+    }
+}
@@ -3,10 +3,31 @@ package me.shivzee.util;
 /**
  * The Receiver Class to Wrap Multiple SendTo
  * Check https://api.mail.tm for more info
+ * <p>
+ * Receivers are immutable: a message and its receivers can be shared by every caller that
+ * fetched it at the same time.
+ * </p>
  */
 public class Receiver {
-    private String address;
-    private String name;
+    private final String address;
+    private final String name;
+
+    /**
+     * Constructs an empty Receiver
+     */
+    public Receiver() {
+        this(null, null);
+    }
+
+    /**
+     * Constructs a Receiver
+     * @param address the email address
+     * @param name the display name
+     */
+    public Receiver(String address, String name) {
+        this.address = address;
+        this.name = name;
+    }
 
     /**
      * Get Email
@@ -23,12 +44,4 @@ public class Receiver {
     public String getName() {
         return name;
     }
-
-    public void setAddress(String address) {
-        this.address = address;
-    }
-
-    public void setName(String name) {
-        this.name = name;
-    }
 }
@@ -1,5 +1,12 @@
 package me.shivzee.util;
 
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+import static me.shivzee.util.ModelAdapters.nextString;
+
 public class Sender {
     private String address;
     private String name;
@@ -11,4 +18,17 @@ public class Sender {
     public String getName() {
         return name;
     }
+
+    void decode(String member, JsonReader in, ModelAdapters.Context context) throws IOException {
+        switch (member) {
+            case "address": address = nextString(in); break;
+            case "name": name = nextString(in); break;
+            default: in.skipValue();
+        }
+    }
+
+    void encode(JsonWriter out, ModelAdapters.Context context) throws IOException {
+        out.name("address").value(address);
+        out.name("name").value(name);
+    }
 }
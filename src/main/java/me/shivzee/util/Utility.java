@@ -1,12 +1,17 @@
 package me.shivzee.util;
 
+import me.shivzee.Config;
 import me.shivzee.exceptions.DateTimeParserException;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.Random;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.Supplier;
 
 /**
@@ -19,20 +24,22 @@ import java.util.function.Supplier;
 public class Utility {
 
     private static final String regex = "abcdefghijklmnopqrstuvwxyz0123456789";
-    private static final Random random = new Random();
+    private static final Map<String, DateTimeFormatter> FORMATTERS = new ConcurrentHashMap<>();
 
     /**
      * Generates a random string of specified length using alphanumeric characters.
      *
      * @param length the desired length of the random string
      * @return a randomly generated string containing only lowercase letters and numbers
+     * @see AddressGenerator
      */
     public static String createRandomString(int length){
-        String randomString = "";
+        char[] randomString = new char[length];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
         for(int i=0;i<length;i++){
-            randomString += regex.charAt(random.nextInt(regex.length()));
+            randomString[i] = regex.charAt(random.nextInt(regex.length()));
         }
-        return randomString;
+        return new String(randomString);
     }
 
     /**
@@ -49,8 +56,7 @@ public class Utility {
     public static ZonedDateTime parseToDefaultTimeZone(String dateTime, String pattern) throws DateTimeParserException {
         ZonedDateTime time = null;
         try {
-            time = LocalDateTime.parse(dateTime, DateTimeFormatter
-                            .ofPattern(pattern))
+            time = LocalDateTime.parse(dateTime, FORMATTERS.computeIfAbsent(pattern, DateTimeFormatter::ofPattern))
                     .atZone(ZoneId.systemDefault());
         }catch(Exception ex) {
            throw new DateTimeParserException("Unable to parse Date for :" + dateTime + " With Pattern " + pattern);
@@ -58,6 +64,129 @@ public class Utility {
         return time;
     }
 
+    /**
+     * Parses an ISO-8601 timestamp with an offset, as sent by the API, to an Instant.
+     * <p>
+     * The API's fixed format ({@code 2024-01-31T10:15:30+00:00}, optionally with fractional
+     * seconds and any offset or {@code Z}) is parsed by hand without allocating a formatter.
+     * Anything else falls back to {@link DateTimeFormatter#ISO_OFFSET_DATE_TIME}.
+     * </p>
+     *
+     * @param dateTime the timestamp to parse
+     * @return the parsed instant
+     * @throws DateTimeParserException if the timestamp is null or not valid ISO-8601 with an offset
+     */
+    public static Instant parseInstant(String dateTime) throws DateTimeParserException {
+        if (dateTime == null) {
+            throw new DateTimeParserException("Unable to parse Date for : null");
+        }
+        Instant instant = parseFixedFormat(dateTime);
+        if (instant != null) {
+            return instant;
+        }
+        try {
+            return OffsetDateTime.parse(dateTime, DateTimeFormatter.ISO_OFFSET_DATE_TIME).toInstant();
+        } catch (Exception ex) {
+            throw new DateTimeParserException("Unable to parse Date for :" + dateTime + " As ISO-8601");
+        }
+    }
+
+    /**
+     * @return the parsed instant, or null if the text is not in the fixed format
+     */
+    private static Instant parseFixedFormat(String s) {
+        int length = s.length();
+        if (length < 20 || s.charAt(4) != '-' || s.charAt(7) != '-' || s.charAt(10) != 'T'
+                || s.charAt(13) != ':' || s.charAt(16) != ':') {
+            return null;
+        }
+        int year = digits(s, 0, 4);
+        int month = digits(s, 5, 2);
+        int day = digits(s, 8, 2);
+        int hour = digits(s, 11, 2);
+        int minute = digits(s, 14, 2);
+        int second = digits(s, 17, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > monthLength(year, month)
+                || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return null;
+        }
+
+        int position = 19;
+        int nanos = 0;
+        if (s.charAt(position) == '.') {
+            int scale = 100_000_000;
+            position++;
+            int start = position;
+            while (position < length && s.charAt(position) >= '0' && s.charAt(position) <= '9') {
+                if (scale > 0) {
+                    nanos += (s.charAt(position) - '0') * scale;
+                    scale /= 10;
+                }
+                position++;
+            }
+            if (position == start || position >= length) {
+                return null;
+            }
+        }
+
+        int offsetSeconds;
+        char sign = s.charAt(position);
+        if (sign == 'Z' && position + 1 == length) {
+            offsetSeconds = 0;
+        } else if ((sign == '+' || sign == '-') && (position + 6 == length || position + 5 == length)) {
+            int offsetHour = digits(s, position + 1, 2);
+            int minuteStart = position + 6 == length ? position + 4 : position + 3;
+            if (position + 6 == length && s.charAt(position + 3) != ':') {
+                return null;
+            }
+            int offsetMinute = digits(s, minuteStart, 2);
+            if (offsetHour < 0 || offsetHour > 18 || offsetMinute < 0 || offsetMinute > 59) {
+                return null;
+            }
+            offsetSeconds = (offsetHour * 3600 + offsetMinute * 60) * (sign == '-' ? -1 : 1);
+        } else {
+            return null;
+        }
+
+        long epochSecond = daysFromCivil(year, month, day) * 86400L + hour * 3600 + minute * 60 + second - offsetSeconds;
+        return Instant.ofEpochSecond(epochSecond, nanos);
+    }
+
+    private static int digits(String s, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static int monthLength(int year, int month) {
+        switch (month) {
+            case 2:
+                return (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4: case 6: case 9: case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * Days since 1970-01-01 for a proleptic Gregorian date (Howard Hinnant's algorithm).
+     */
+    private static long daysFromCivil(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = (y >= 0 ? y : y - 399) / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097L + dayOfEra - 719468;
+    }
+
     /**
      * Safely evaluates a supplier that might throw a NullPointerException.
      * <p>
@@ -77,4 +206,18 @@ public class Utility {
         }
     }
 
+    /**
+     * Resolves a download path of the API against {@link Config#BASEURL}.
+     * Absolute URLs are returned unchanged.
+     *
+     * @param path the path or URL sent by the API
+     * @return the absolute URL
+     */
+    static String resolveUrl(String path) {
+        if (path != null && path.startsWith("http")) {
+            return path;
+        }
+        return Config.BASEURL + path;
+    }
+
 }
@@ -0,0 +1,91 @@
+package me.shivzee;
+
+import me.shivzee.util.GsonCodec;
+import me.shivzee.util.Message;
+import me.shivzee.util.MessageSummary;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class MessageIndexTest {
+
+    private MockInbox inbox;
+
+    @BeforeMethod
+    public void start() throws Exception {
+        inbox = new MockInbox(2);
+        inbox.deliver("m1", "First", "2024-01-01T10:00:00+00:00");
+        inbox.deliver("m2", "Second", "2024-01-01T10:01:00+00:00");
+        inbox.deliver("m3", "Third", "2024-01-01T10:02:00+00:00");
+        inbox.deliver("m4", "Fourth", "2024-01-01T10:03:00+00:00");
+        inbox.deliver("m5", "Fifth", "2024-01-01T10:04:00+00:00");
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void stop() throws Exception {
+        inbox.shutdown();
+    }
+
+    private static List<String> ids(List<?> values) {
+        List<String> ids = new ArrayList<>();
+        for (Object value : values) {
+            ids.add(value instanceof Message ? ((Message) value).getId() : ((MessageSummary) value).getId());
+        }
+        return ids;
+    }
+
+    @Test
+    public void testWalkStopsAtWatermark() throws Exception {
+        List<Message> messages = inbox.account().fetchMessagesSince(Instant.parse("2024-01-01T10:02:00Z"));
+
+        Assert.assertEquals(ids(messages), Arrays.asList("m5", "m4", "m3"));
+        Assert.assertEquals(messages.get(2).getContent(), "Body of m3");
+        // Page 2 reaches past the watermark, page 3 is never requested and m1, m2 are not hydrated
+        Assert.assertEquals(inbox.paths(), Arrays.asList("/messages?page=1", "/messages?page=2",
+                "/messages/m5", "/messages/m4", "/messages/m3"));
+    }
+
+    @Test
+    public void testWalkEndsAtEmptyPage() throws Exception {
+        List<MessageSummary> summaries = inbox.account().fetchMessageSummariesSince(Instant.parse("2023-12-31T00:00:00Z"));
+
+        Assert.assertEquals(ids(summaries), Arrays.asList("m5", "m4", "m3", "m2", "m1"));
+        Assert.assertEquals(inbox.paths(), Arrays.asList("/messages?page=1", "/messages?page=2",
+                "/messages?page=3", "/messages?page=4"));
+    }
+
+    @Test
+    public void testRecentWatermarkIsOneRequest() throws Exception {
+        List<MessageSummary> summaries = inbox.account().fetchMessageSummariesSince(Instant.parse("2024-01-01T10:05:00Z"));
+
+        Assert.assertTrue(summaries.isEmpty());
+        Assert.assertEquals(inbox.paths(), Arrays.asList("/messages?page=1"));
+    }
+
+    @Test
+    public void testIndexAnswersOnlyCoveredRange() throws Exception {
+        MessageIndex index = new MessageIndex();
+        for (String id : Arrays.asList("1", "3", "2")) {
+            index.put(GsonCodec.getInstance().fromJson("{\"id\":\"m" + id + "\",\"createdAt\":\"2024-01-01T10:0" + id + ":00+00:00\"}",
+                    MessageSummary.class, null, true));
+        }
+        index.coverFrom(Instant.parse("2024-01-01T10:02:00Z"));
+
+        Assert.assertEquals(ids(index.since(Instant.parse("2024-01-01T10:02:00Z"))), Arrays.asList("m3", "m2"));
+        Assert.assertTrue(index.covers(Instant.parse("2024-01-01T10:03:00Z")));
+        Assert.assertFalse(index.covers(Instant.parse("2024-01-01T10:01:00Z")));
+
+        index.remove("m3");
+        Assert.assertEquals(ids(index.since(Instant.parse("2024-01-01T10:00:00Z"))), Arrays.asList("m2", "m1"));
+
+        index.invalidate();
+        Assert.assertFalse(index.covers(Instant.parse("2024-01-01T10:03:00Z")));
+        Assert.assertTrue(index.since(Instant.EPOCH).isEmpty());
+    }
+}
@@ -0,0 +1,99 @@
+package me.shivzee;
+
+import me.shivzee.util.GsonCodec;
+import me.shivzee.util.Message;
+import me.shivzee.util.MessageSummary;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public class MessageWaitersTest {
+
+    private MockInbox inbox;
+
+    @BeforeMethod
+    public void start() throws Exception {
+        inbox = new MockInbox(10);
+        inbox.deliver("m1", "Welcome", "2024-01-01T10:00:00+00:00");
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void stop() throws Exception {
+        inbox.shutdown();
+    }
+
+    private static MessageSummary summary(String id, String subject, boolean deleted) {
+        return GsonCodec.getInstance().fromJson("{\"id\":\"" + id + "\",\"subject\":\"" + subject + "\",\"isDeleted\":" + deleted
+                + ",\"createdAt\":\"2024-01-01T10:05:00+00:00\"}", MessageSummary.class, "token", true);
+    }
+
+    @Test
+    public void testMessageAlreadyInInbox() throws Exception {
+        Message message = inbox.account().awaitMessage(summary -> summary.getSubject().equals("Welcome"), Duration.ofSeconds(5))
+                .get(5, TimeUnit.SECONDS);
+
+        Assert.assertEquals(message.getId(), "m1");
+        Assert.assertEquals(message.getContent(), "Body of m1");
+    }
+
+    @Test
+    public void testPollingWakesUpOnNewMail() throws Exception {
+        CompletableFuture<Message> future = inbox.account().awaitMessage(summary -> summary.getSubject().startsWith("Code"), Duration.ofSeconds(10));
+        Thread.sleep(200);
+        Assert.assertFalse(future.isDone());
+
+        inbox.deliver("m2", "Code 123456", "2024-01-01T10:01:00+00:00");
+
+        Assert.assertEquals(future.get(5, TimeUnit.SECONDS).getContent(), "Body of m2");
+    }
+
+    @Test
+    public void testOfferedSummaryIsHydratedOnce() throws Exception {
+        JMailTM account = inbox.account();
+        MessageWaiters waiters = new MessageWaiters(account);
+        CompletableFuture<Message> future = waiters.add(summary -> summary.getSubject().startsWith("Code"), Duration.ofSeconds(10));
+        inbox.deliver("m2", "Code 123456", "2024-01-01T10:01:00+00:00");
+
+        waiters.offer(summary("m3", "Code deleted", true));
+        waiters.offer(summary("m2", "Code 123456", false));
+        waiters.offer(summary("m2", "Code 123456", false));
+
+        Assert.assertEquals(future.get(5, TimeUnit.SECONDS).getId(), "m2");
+        Assert.assertEquals(Collections.frequency(inbox.paths(), "/messages/m2"), 1);
+        Assert.assertFalse(inbox.paths().contains("/messages/m3"));
+    }
+
+    @Test
+    public void testTimesOut() throws Exception {
+        CompletableFuture<Message> future = inbox.account().awaitMessage(summary -> false, Duration.ofMillis(300));
+
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            Assert.fail("the wait should time out");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof TimeoutException);
+        }
+    }
+
+    @Test
+    public void testFailingPredicateFailsItsWaiter() throws Exception {
+        CompletableFuture<Message> future = inbox.account().awaitMessage(summary -> {
+            throw new IllegalStateException("bad predicate");
+        }, Duration.ofSeconds(5));
+
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            Assert.fail("the predicate failure should complete the future");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+}
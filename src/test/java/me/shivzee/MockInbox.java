@@ -0,0 +1,81 @@
+package me.shivzee;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A mail.tm inbox served by a MockWebServer, for testing JMailTM without the real API.
+ * Messages are listed newest first, a few per page, and every request path is recorded.
+ */
+class MockInbox {
+
+    private final MockWebServer server = new MockWebServer();
+    private final int pageSize;
+    private final List<String[]> messages = new ArrayList<>();
+    private final List<String> paths = Collections.synchronizedList(new ArrayList<>());
+
+    MockInbox(int pageSize) throws IOException {
+        this.pageSize = pageSize;
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return respond(request.getPath());
+            }
+        });
+        server.start();
+    }
+
+    /**
+     * Adds a message as the newest one of the inbox.
+     */
+    synchronized void deliver(String id, String subject, String createdAt) {
+        messages.add(0, new String[]{id, subject, createdAt});
+    }
+
+    JMailTM account() {
+        String url = server.url("/").toString();
+        return new JMailTM(url.substring(0, url.length() - 1), "token", "account", "user@mail.tm");
+    }
+
+    List<String> paths() {
+        synchronized (paths) {
+            return new ArrayList<>(paths);
+        }
+    }
+
+    void shutdown() throws IOException {
+        server.shutdown();
+    }
+
+    private synchronized MockResponse respond(String path) {
+        paths.add(path);
+        if (path.startsWith("/messages?page=")) {
+            int page = Integer.parseInt(path.substring("/messages?page=".length()));
+            StringBuilder json = new StringBuilder("[");
+            for (int i = (page - 1) * pageSize; i < Math.min(messages.size(), page * pageSize); i++) {
+                json.append(json.length() > 1 ? "," : "").append(summary(messages.get(i)));
+            }
+            return new MockResponse().setBody(json.append(']').toString());
+        }
+        for (String[] message : messages) {
+            if (path.equals("/messages/" + message[0])) {
+                String summary = summary(message);
+                return new MockResponse().setBody(summary.substring(0, summary.length() - 1) + ",\"text\":\"Body of " + message[0] + "\"}");
+            }
+        }
+        return new MockResponse().setResponseCode(404);
+    }
+
+    private static String summary(String[] message) {
+        return "{\"id\":\"" + message[0] + "\",\"from\":{\"address\":\"a@example.com\",\"name\":\"A\"},"
+                + "\"subject\":\"" + message[1] + "\",\"seen\":false,\"isDeleted\":false,"
+                + "\"createdAt\":\"" + message[2] + "\",\"updatedAt\":\"" + message[2] + "\"}";
+    }
+}
@@ -0,0 +1,57 @@
+package me.shivzee.adapters;
+
+import me.shivzee.util.GsonCodec;
+import me.shivzee.util.Receiver;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class ReceiversAdapterTest {
+
+    private final ReceiversAdapter adapter = new ReceiversAdapter();
+
+    @Test
+    public void testReadsAddressesAndObjects() throws Exception {
+        List<Receiver> receivers = adapter.fromJson("[\"a@mail.tm\",{\"address\":\"b@mail.tm\",\"name\":\"B\",\"extra\":1},"
+                + "{\"address\":\"c@mail.tm\",\"name\":null},42]");
+
+        Assert.assertEquals(receivers.size(), 3);
+        Assert.assertEquals(receivers.get(0).getAddress(), "a@mail.tm");
+        Assert.assertEquals(receivers.get(0).getName(), "");
+        Assert.assertEquals(receivers.get(1).getAddress(), "b@mail.tm");
+        Assert.assertEquals(receivers.get(1).getName(), "B");
+        Assert.assertNull(receivers.get(2).getName());
+    }
+
+    @Test
+    public void testMissingOrInvalidListIsEmpty() throws Exception {
+        Assert.assertTrue(adapter.fromJson("null").isEmpty());
+        Assert.assertTrue(adapter.fromJson("\"a@mail.tm\"").isEmpty());
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        List<Receiver> receivers = Arrays.asList(new Receiver("a@mail.tm", "A"), new Receiver("b@mail.tm", ""));
+
+        String json = adapter.toJson(receivers);
+
+        Assert.assertEquals(json, "[{\"address\":\"a@mail.tm\",\"name\":\"A\"},{\"address\":\"b@mail.tm\",\"name\":\"\"}]");
+        Assert.assertEquals(adapter.fromJson(json).get(0).getName(), "A");
+    }
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void testReceiversAreImmutable() throws Exception {
+        List<Receiver> receivers = adapter.fromJson("[\"a@mail.tm\"]");
+        receivers.add(new Receiver("b@mail.tm", "B"));
+    }
+
+    @Test
+    public void testDecodesSingleReceiver() {
+        Receiver receiver = GsonCodec.getInstance().getGson(true).fromJson("{\"address\":\"a@mail.tm\",\"name\":\"A\"}", Receiver.class);
+
+        Assert.assertEquals(receiver.getAddress(), "a@mail.tm");
+        Assert.assertEquals(receiver.getName(), "A");
+    }
+}
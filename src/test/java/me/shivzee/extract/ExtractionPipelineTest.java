@@ -0,0 +1,44 @@
+package me.shivzee.extract;
+
+import com.google.gson.Gson;
+import me.shivzee.util.Message;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+
+public class ExtractionPipelineTest {
+
+    private static final Gson GSON = new Gson();
+
+    @Test
+    public void testExtractsCodeAndLinksAcrossHtmlParts() {
+        Message message = GSON.fromJson("{\"id\":\"m1\",\"subject\":\"Verify your account\","
+                + "\"text\":\"Your code is 482913. Valid until 2025-01-01.\","
+                + "\"html\":[\"<p>Code <b>482913</b></p><a class='x' hr\",\"ef=\\\"https://example.com/verify?a=1&amp;b=2\\\">Verify</a>"
+                + "<!-- <a href=\\\"https://hidden.example\\\"> --><script>var s='<a href=\\\"https://js.example\\\">';</script>"
+                + "<a href=#top>Top</a><a href='https://example.com/unsubscribe'>x</a>\"]}", Message.class);
+
+        Extraction extraction = ExtractionPipeline.defaults().extract(message);
+
+        Assert.assertEquals(extraction.getCode(), "482913");
+        Assert.assertEquals(extraction.getLinks(), Arrays.asList("https://example.com/verify?a=1&b=2", "https://example.com/unsubscribe"));
+    }
+
+    @Test
+    public void testFallsBackToHtmlTextAndCachesById() {
+        ExtractionPipeline pipeline = ExtractionPipeline.defaults()
+                .addRule(RegexRule.of("token", "token=([A-Za-z0-9]+)"));
+        Message message = GSON.fromJson("{\"id\":\"m2\",\"subject\":\"Sign in\","
+                + "\"html\":[\"<div>Use&nbsp;<span>7731</span> or visit https://example.com/login?token=abc123</div>\"]}", Message.class);
+
+        Extraction extraction = pipeline.extract(message);
+
+        Assert.assertEquals(extraction.getCode(), "7731");
+        Assert.assertEquals(extraction.getFirst("token"), "abc123");
+        Assert.assertEquals(extraction.getLinks(), Arrays.asList("https://example.com/login?token=abc123"));
+        Assert.assertSame(pipeline.extract(message), extraction);
+        pipeline.evict("m2");
+        Assert.assertNotSame(pipeline.extract(message), extraction);
+    }
+}
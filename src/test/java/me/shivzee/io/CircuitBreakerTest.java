@@ -0,0 +1,113 @@
+package me.shivzee.io;
+
+import me.shivzee.Config;
+import me.shivzee.exceptions.CircuitOpenException;
+import me.shivzee.util.Response;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+
+public class CircuitBreakerTest {
+
+    private MockWebServer server;
+    private volatile int status;
+
+    @BeforeMethod
+    public void start() throws Exception {
+        status = 503;
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return new MockResponse().setResponseCode(status).setBody("[]");
+            }
+        });
+        server.start();
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void stop() throws Exception {
+        IO.setCircuitBreaker(Endpoint.DOMAINS, CircuitBreaker.defaults());
+        server.shutdown();
+    }
+
+    @Test
+    public void testOpensAfterFailuresAndRecoversThroughTrial() throws Exception {
+        IO.setCircuitBreaker(Endpoint.DOMAINS, new CircuitBreaker(3, Duration.ofMillis(200), Duration.ofSeconds(1)));
+        String url = server.url("/domains?page=1").toString();
+
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals(IO.requestGET(url).getResponseCode(), 503);
+        }
+        try {
+            IO.requestGET(url);
+            Assert.fail("the circuit should be open");
+        } catch (CircuitOpenException e) {
+            Assert.assertEquals(e.getEndpoint(), Endpoint.DOMAINS);
+        }
+        Assert.assertEquals(server.getRequestCount(), 3);
+
+        Thread.sleep(250);
+        status = 200;
+        Response response = IO.requestGET(url);
+        Assert.assertEquals(response.getResponseCode(), 200);
+        Assert.assertEquals(IO.getCircuitBreaker(Endpoint.DOMAINS).getState(), CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    public void testFailedTrialOpensForLonger() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker(1, Duration.ofMillis(100), Duration.ofSeconds(1));
+        breaker.onFailure();
+        Assert.assertFalse(breaker.tryAcquire());
+
+        Thread.sleep(150);
+        Assert.assertTrue(breaker.tryAcquire());
+        // Only one trial at a time
+        Assert.assertFalse(breaker.tryAcquire());
+        breaker.onFailure();
+
+        Assert.assertEquals(breaker.getState(), CircuitBreaker.State.OPEN);
+        Assert.assertTrue(breaker.getRetryAfter().toMillis() > 100);
+    }
+
+    @Test
+    public void testClientErrorsDoNotCount() {
+        IO.setCircuitBreaker(Endpoint.DOMAINS, new CircuitBreaker(2, Duration.ofSeconds(10), Duration.ofSeconds(10)));
+        status = 404;
+        String url = server.url("/domains/1").toString();
+        for (int i = 0; i < 4; i++) {
+            Assert.assertEquals(IO.requestGET(url).getResponseCode(), 404);
+        }
+        Assert.assertEquals(IO.getCircuitBreaker(Endpoint.DOMAINS).getState(), CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    public void testInvalidRequestDoesNotTakeTrialPermit() throws Exception {
+        IO.setCircuitBreaker(Endpoint.DOMAINS, new CircuitBreaker(1, Duration.ofMillis(100), Duration.ofSeconds(10)));
+        Assert.assertEquals(IO.requestGET(server.url("/domains").toString()).getResponseCode(), 503);
+
+        Thread.sleep(150);
+        Assert.assertEquals(IO.requestGET("htp://localhost/domains").getResponseCode(), 0);
+        status = 200;
+        Assert.assertEquals(IO.requestGET(server.url("/domains").toString()).getResponseCode(), 200);
+        Assert.assertEquals(IO.getCircuitBreaker(Endpoint.DOMAINS).getState(), CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    public void testEndpointOfUrl() {
+        Assert.assertEquals(Endpoint.of(Config.BASEURL + "/token"), Endpoint.TOKEN);
+        Assert.assertEquals(Endpoint.of(Config.BASEURL + "/me"), Endpoint.ACCOUNTS);
+        Assert.assertEquals(Endpoint.of(Config.BASEURL + "/accounts/1"), Endpoint.ACCOUNTS);
+        Assert.assertEquals(Endpoint.of(Config.BASEURL + "/messages?page=2"), Endpoint.MESSAGES);
+        Assert.assertEquals(Endpoint.of(Config.BASEURL + "/domains"), Endpoint.DOMAINS);
+        Assert.assertEquals(Endpoint.of(Config.MERCURE_URL + "?topic=/accounts/1"), Endpoint.MERCURE);
+        Assert.assertNull(Endpoint.of("http://localhost:8080/other"));
+    }
+}
@@ -0,0 +1,101 @@
+package me.shivzee.io;
+
+import me.shivzee.util.Response;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class HedgingTest {
+
+    private MockWebServer server;
+    private volatile boolean failFirst;
+
+    @BeforeMethod
+    public void start() throws Exception {
+        server = new MockWebServer();
+        AtomicInteger requests = new AtomicInteger();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                // Only the first attempt is slow
+                MockResponse response = new MockResponse().setBody("{\"n\":" + requests.incrementAndGet() + "}");
+                if (failFirst) {
+                    // The first attempt breaks off after the hedge delay, before the hedge answers
+                    return requests.get() == 1
+                            ? response.setBodyDelay(150, TimeUnit.MILLISECONDS).setSocketPolicy(SocketPolicy.DISCONNECT_DURING_RESPONSE_BODY)
+                            : response.setHeadersDelay(400, TimeUnit.MILLISECONDS);
+                }
+                return requests.get() == 1 ? response.setHeadersDelay(1, TimeUnit.SECONDS) : response;
+            }
+        });
+        server.start();
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void stop() throws Exception {
+        IO.setHedging(null);
+        server.shutdown();
+    }
+
+    @Test
+    public void testSlowRequestIsHedged() {
+        Hedging hedging = new Hedging(0.95, 1).delayBounds(Duration.ofMillis(50), Duration.ofMillis(50));
+        IO.setHedging(hedging);
+
+        long start = System.nanoTime();
+        Response response = IO.requestGET(server.url("/messages/1").toString(), "token");
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        Assert.assertEquals(response.getResponseCode(), 200);
+        Assert.assertEquals(response.getResponse(), "{\"n\":2}");
+        Assert.assertTrue(elapsed < 800, "took " + elapsed + "ms");
+        Assert.assertEquals(server.getRequestCount(), 2);
+        Assert.assertEquals(hedging.getHedges(), 1);
+        Assert.assertEquals(hedging.getHedgeWins(), 1);
+    }
+
+    @Test
+    public void testFailedPrimaryWaitsForHedge() {
+        failFirst = true;
+        Hedging hedging = new Hedging(0.95, 1).delayBounds(Duration.ofMillis(50), Duration.ofMillis(50));
+        IO.setHedging(hedging);
+
+        Response response = IO.requestGET(server.url("/messages/1").toString(), "token");
+
+        Assert.assertEquals(response.getResponseCode(), 200);
+        Assert.assertEquals(response.getResponse(), "{\"n\":2}");
+        Assert.assertEquals(hedging.getHedgeWins(), 1);
+    }
+
+    @Test
+    public void testBudgetLimitsHedges() {
+        Hedging hedging = new Hedging(0.95, 0.05).delayBounds(Duration.ofMillis(50), Duration.ofMillis(50));
+        IO.setHedging(hedging);
+
+        Response response = IO.requestGET(server.url("/messages/1").toString(), "token");
+
+        Assert.assertEquals(response.getResponse(), "{\"n\":1}");
+        Assert.assertEquals(server.getRequestCount(), 1);
+        Assert.assertEquals(hedging.getHedges(), 0);
+    }
+
+    @Test
+    public void testDelayFollowsPercentile() {
+        Hedging hedging = new Hedging(0.5, 0.05).delayBounds(Duration.ZERO, Duration.ofSeconds(2));
+        Assert.assertEquals(hedging.getDelay(), Duration.ofSeconds(2));
+        for (int i = 1; i <= 32; i++) {
+            hedging.record(TimeUnit.MILLISECONDS.toNanos(i), false);
+        }
+        Assert.assertEquals(hedging.getDelay(), Duration.ofMillis(16));
+    }
+}
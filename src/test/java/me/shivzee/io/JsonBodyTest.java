@@ -0,0 +1,60 @@
+package me.shivzee.io;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import okhttp3.MediaType;
+import okio.Buffer;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class JsonBodyTest {
+
+    private static String write(JsonBody body) throws Exception {
+        Buffer buffer = new Buffer();
+        body.writeTo(buffer);
+        Assert.assertEquals(buffer.size(), body.contentLength());
+        return buffer.readUtf8();
+    }
+
+    @Test
+    public void testEscapesPasswords() throws Exception {
+        String password = "p\"a\\s/s\n\t\u0001\u2028\u2029 \u00e9\u20ac\ud83d\ude00";
+        JsonBody body = JsonBody.object().put("address", "user@mail.tm").put("password", password);
+
+        JsonObject json = JsonParser.parseString(write(body)).getAsJsonObject();
+
+        Assert.assertEquals(json.get("address").getAsString(), "user@mail.tm");
+        Assert.assertEquals(json.get("password").getAsString(), password);
+    }
+
+    @Test
+    public void testBooleansNullsAndEmpty() throws Exception {
+        Assert.assertEquals(write(JsonBody.object()), "{}");
+        Assert.assertEquals(write(JsonBody.object().put("seen", true).put("flagged", false).put("name", null)),
+                "{\"seen\":true,\"flagged\":false,\"name\":null}");
+    }
+
+    @Test
+    public void testLongAsciiValue() throws Exception {
+        StringBuilder value = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            value.append((char) ('a' + i % 26));
+        }
+        JsonBody body = JsonBody.object().put("value", value.toString()).put("seen", false);
+
+        Assert.assertEquals(write(body), "{\"value\":\"" + value + "\",\"seen\":false}");
+    }
+
+    @Test
+    public void testUnpairedSurrogateLength() throws Exception {
+        write(JsonBody.object().put("bad", "a\ud83db\ude00"));
+    }
+
+    @Test
+    public void testReusable() throws Exception {
+        JsonBody body = JsonBody.object(MediaType.get("application/merge-patch+json")).put("seen", true);
+
+        Assert.assertEquals(write(body), write(body));
+        Assert.assertEquals(body.contentType().subtype(), "merge-patch+json");
+    }
+}
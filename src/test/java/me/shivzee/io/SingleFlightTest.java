@@ -0,0 +1,74 @@
+package me.shivzee.io;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SingleFlightTest {
+
+    @Test
+    public void testConcurrentCallsShareOneResult() throws Exception {
+        SingleFlight flight = new SingleFlight();
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Object>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(pool.submit(() -> flight.execute("/messages/1", () -> {
+                    calls.incrementAndGet();
+                    release.await();
+                    return new Object();
+                })));
+            }
+            // Let every caller join the running call before it finishes
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (calls.get() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            Object first = results.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<Object> result : results) {
+                Assert.assertSame(result.get(5, TimeUnit.SECONDS), first);
+            }
+            Assert.assertEquals(calls.get(), 1);
+            Assert.assertEquals(flight.size(), 0);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testNothingIsCached() throws Exception {
+        SingleFlight flight = new SingleFlight();
+        AtomicInteger calls = new AtomicInteger();
+        flight.execute("/me", calls::incrementAndGet);
+        flight.execute("/me", calls::incrementAndGet);
+        Assert.assertEquals(calls.get(), 2);
+    }
+
+    @Test
+    public void testFailureIsSharedAndForgotten() throws Exception {
+        SingleFlight flight = new SingleFlight();
+        try {
+            flight.execute("/domains", () -> {
+                throw new IOException("down");
+            });
+            Assert.fail();
+        } catch (IOException expected) {
+            Assert.assertEquals(expected.getMessage(), "down");
+        }
+        Assert.assertEquals(flight.execute("/domains", () -> "up"), "up");
+    }
+}
@@ -0,0 +1,129 @@
+package me.shivzee.mime;
+
+import me.shivzee.callbacks.MimeHandler;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+public class MimeParserTest {
+
+    private static final String RAW = "DKIM-Signature: v=1; a=rsa-sha256;\r\n"
+            + "\tb=abc123\r\n"
+            + "Subject: Verify\r\n"
+            + "Content-Type: multipart/mixed; boundary=\"outer\"\r\n"
+            + "\r\n"
+            + "preamble\r\n"
+            + "--outer\r\n"
+            + "Content-Type: multipart/alternative; boundary=inner\r\n"
+            + "\r\n"
+            + "--inner\r\n"
+            + "Content-Type: text/plain\r\n"
+            + "Content-Transfer-Encoding: quoted-printable\r\n"
+            + "\r\n"
+            + "Code: 1234 =E2=9C=93 soft=\r\n"
+            + "break\r\n"
+            + "--inner\r\n"
+            + "Content-Type: text/html\r\n"
+            + "\r\n"
+            + "<p>Code</p>\r\n"
+            + "--inner--\r\n"
+            + "--outer\r\n"
+            + "Content-Type: application/pdf\r\n"
+            + "Content-Transfer-Encoding: base64\r\n"
+            + "\r\n"
+            + "SGVsbG8g\r\n"
+            + "UERG\r\n"
+            + "--outer--\r\n"
+            + "epilogue\r\n";
+
+    @Test
+    public void testNestedMultipartIsParsedAndDecoded() throws Exception {
+        List<String> events = new ArrayList<>();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        new MimeParser(new MimeHandler() {
+            @Override
+            public void onHeader(String name, String value) {
+                events.add(name + "=" + value);
+            }
+
+            @Override
+            public boolean onHeadersEnd(int depth, String contentType) {
+                events.add(depth + ":" + contentType);
+                return true;
+            }
+
+            @Override
+            public void onBody(byte[] data, int offset, int length) {
+                body.write(data, offset, length);
+            }
+
+            @Override
+            public void onPartEnd(int depth) {
+                events.add(depth + ":" + new String(body.toByteArray(), StandardCharsets.UTF_8));
+                body.reset();
+            }
+        }).parse(new ByteArrayInputStream(RAW.getBytes(StandardCharsets.UTF_8)));
+
+        Assert.assertEquals(events.get(0), "DKIM-Signature=v=1; a=rsa-sha256;\tb=abc123");
+        Assert.assertTrue(events.contains("0:multipart/mixed"));
+        Assert.assertTrue(events.contains("2:Code: 1234 \u2713 softbreak"));
+        Assert.assertTrue(events.contains("2:<p>Code</p>"));
+        Assert.assertTrue(events.contains("1:Hello PDF"));
+        Assert.assertEquals(events.get(events.size() - 1), "0:");
+    }
+
+    @Test
+    public void testHandlerCanStopAfterHeaders() throws Exception {
+        List<String> headers = new ArrayList<>();
+        new MimeParser(new MimeHandler() {
+            @Override
+            public void onHeader(String name, String value) {
+                headers.add(name);
+            }
+
+            @Override
+            public boolean onHeadersEnd(int depth, String contentType) {
+                return false;
+            }
+
+            @Override
+            public void onBody(byte[] data, int offset, int length) {
+                Assert.fail("Body must not be read");
+            }
+        }).parse(new ByteArrayInputStream(RAW.getBytes(StandardCharsets.UTF_8)));
+
+        Assert.assertEquals(headers.size(), 3);
+        Assert.assertEquals(MimeParser.parameter("multipart/mixed; Boundary=\"a;b\"", "boundary"), "a;b");
+    }
+
+    @Test
+    public void testLinesSpanningReadsAndBuffer() throws Exception {
+        StringBuilder longLine = new StringBuilder();
+        while (longLine.length() < 20000) {
+            longLine.append("0123456789");
+        }
+        String raw = "Subject: Long\r\n\r\n" + longLine + "\r\nend";
+        // Hands out a few bytes per read so that lines are split across refills
+        InputStream trickle = new ByteArrayInputStream(raw.getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 7));
+            }
+        };
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        new MimeParser(new MimeHandler() {
+            @Override
+            public void onBody(byte[] data, int offset, int length) {
+                body.write(data, offset, length);
+            }
+        }).parse(trickle);
+
+        Assert.assertEquals(new String(body.toByteArray(), StandardCharsets.UTF_8), longLine + "\r\nend");
+    }
+}
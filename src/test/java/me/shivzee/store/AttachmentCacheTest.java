@@ -0,0 +1,70 @@
+package me.shivzee.store;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class AttachmentCacheTest {
+
+    @Test
+    public void testSameContentIsStoredOnceAndEvictedByAge() throws Exception {
+        Path root = Files.createTempDirectory("jmailtm");
+        Path logo = Files.write(root.resolve("logo.png"), "logo-bytes".getBytes(StandardCharsets.UTF_8));
+        Path invoice = Files.write(root.resolve("invoice.pdf"), "invoice-bytes".getBytes(StandardCharsets.UTF_8));
+
+        AttachmentCache cache = new AttachmentCache(root.resolve("cache"), 25);
+        String hash = cache.put("/messages/1/attachment/ATTACH000001", logo);
+        Assert.assertEquals(cache.put("/messages/2/attachment/ATTACH000001", logo), hash);
+        Assert.assertEquals(cache.size(), 10);
+
+        Path copy = root.resolve("copy.png");
+        Assert.assertTrue(cache.copyTo("/messages/2/attachment/ATTACH000001", copy));
+        Assert.assertEquals(new String(Files.readAllBytes(copy), StandardCharsets.UTF_8), "logo-bytes");
+        Assert.assertFalse(cache.copyTo("/messages/3/attachment/ATTACH000001", copy));
+
+        cache.put("/messages/3/attachment/ATTACH000002", invoice);
+        Path big = Files.write(root.resolve("big.bin"), new byte[20]);
+        cache.put("/messages/4/attachment/ATTACH000001", big);
+
+        AttachmentCache reopened = new AttachmentCache(root.resolve("cache"), 25);
+        Assert.assertFalse(reopened.contains("/messages/1/attachment/ATTACH000001"));
+        Assert.assertFalse(reopened.contains("/messages/3/attachment/ATTACH000002"));
+        Assert.assertTrue(reopened.contains("/messages/4/attachment/ATTACH000001"));
+        Assert.assertEquals(reopened.size(), 20);
+    }
+
+    @Test
+    public void testChangingServedOrPutFilesLeavesCacheIntact() throws Exception {
+        Path root = Files.createTempDirectory("jmailtm");
+        Path logo = Files.write(root.resolve("logo.png"), "logo-bytes".getBytes(StandardCharsets.UTF_8));
+        AttachmentCache cache = new AttachmentCache(root.resolve("cache"), 1024);
+        cache.put("/messages/1/attachment/ATTACH000001", logo);
+
+        Files.write(logo, "edited".getBytes(StandardCharsets.UTF_8));
+        Path copy = root.resolve("copy.png");
+        Assert.assertTrue(cache.copyTo("/messages/1/attachment/ATTACH000001", copy));
+        Files.write(copy, "edited".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        Path again = root.resolve("again.png");
+        Assert.assertTrue(cache.copyTo("/messages/1/attachment/ATTACH000001", again));
+        Assert.assertEquals(new String(Files.readAllBytes(again), StandardCharsets.UTF_8), "logo-bytes");
+    }
+
+    @Test
+    public void testMissingContentIsAMiss() throws Exception {
+        Path root = Files.createTempDirectory("jmailtm");
+        Path logo = Files.write(root.resolve("logo.png"), "logo-bytes".getBytes(StandardCharsets.UTF_8));
+        AttachmentCache cache = new AttachmentCache(root.resolve("cache"), 100);
+        String hash = cache.put("/messages/1/attachment/ATTACH000001", logo);
+
+        Files.delete(root.resolve("cache").resolve(hash));
+
+        Assert.assertFalse(cache.copyTo("/messages/1/attachment/ATTACH000001", root.resolve("copy.png")));
+        Assert.assertFalse(cache.contains("/messages/1/attachment/ATTACH000001"));
+        Assert.assertEquals(cache.size(), 0);
+    }
+}
@@ -0,0 +1,43 @@
+package me.shivzee.store;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+public class FileMessageStoreTest {
+
+    @Test
+    public void testIndexIsRebuiltFromLog() throws Exception {
+        Path file = Files.createTempDirectory("jmailtm").resolve("messages.log");
+
+        try (FileMessageStore store = new FileMessageStore(file)) {
+            store.put("a", "2024-01-01T10:00:00+00:00", "{\"id\":\"a\"}");
+            store.put("b", "2024-01-02T10:00:00+00:00", "{\"id\":\"b\"}");
+            store.put("c", "2024-01-03T10:00:00+00:00", "{\"id\":\"c\"}");
+            store.put("a", "2024-01-01T10:00:00+00:00", "{\"id\":\"a\",\"seen\":true}");
+            store.remove("b");
+        }
+        // A crash in the middle of an append
+        Files.write(file, new byte[]{1, 0, 0}, StandardOpenOption.APPEND);
+
+        try (FileMessageStore store = new FileMessageStore(file)) {
+            Assert.assertEquals(store.size(), 2);
+            Assert.assertFalse(store.contains("b"));
+            Assert.assertEquals(store.get("a"), "{\"id\":\"a\",\"seen\":true}");
+            Assert.assertEquals(store.getIds(), Arrays.asList("c", "a"));
+            Assert.assertEquals(store.getIdsAfter("2024-01-01T10:00:00+00:00"), Arrays.asList("c"));
+
+            long before = Files.size(file);
+            store.compact();
+            Assert.assertTrue(Files.size(file) < before);
+            Assert.assertEquals(store.get("c"), "{\"id\":\"c\"}");
+
+            store.put("d", "2024-01-04T10:00:00+00:00", "{\"id\":\"d\"}");
+            Assert.assertEquals(store.get("d"), "{\"id\":\"d\"}");
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package me.shivzee.store;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+public class FileSessionStoreTest {
+
+    @Test
+    public void testSessionsSurviveReopen() throws Exception {
+        Path file = Files.createTempDirectory("jmailtm").resolve("sessions.bin");
+
+        FileSessionStore store = new FileSessionStore(file);
+        store.saveAll(Arrays.asList(
+                new Session("id-1", "one@example.com", "token-1", 0),
+                new Session("id-2", null, "token-2", 4102444800L)));
+        store.remove("id-1");
+        store.save(new Session("id-3", "three@example.com", "token-3", 1L));
+
+        List<Session> sessions = new FileSessionStore(file).loadAll();
+        Assert.assertEquals(sessions.size(), 2);
+        Assert.assertEquals(sessions.get(0).getId(), "id-2");
+        Assert.assertNull(sessions.get(0).getAddress());
+        Assert.assertEquals(sessions.get(0).getExpiresAt(), 4102444800L);
+        Assert.assertFalse(sessions.get(0).isExpired());
+        Assert.assertEquals(sessions.get(1).getToken(), "token-3");
+        Assert.assertTrue(sessions.get(1).isExpired());
+    }
+}
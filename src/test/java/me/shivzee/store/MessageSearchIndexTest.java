@@ -0,0 +1,57 @@
+package me.shivzee.store;
+
+import com.google.gson.Gson;
+import me.shivzee.util.Message;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class MessageSearchIndexTest {
+
+    private static final Gson GSON = new Gson();
+
+    private static Message message(String id, String createdAt, String sender, String subject, String text) {
+        return GSON.fromJson("{\"id\":\"" + id + "\",\"createdAt\":\"" + createdAt + "\",\"from\":{\"address\":\"" + sender
+                + "\",\"name\":\"\"},\"subject\":\"" + subject + "\",\"text\":\"" + text + "\"}", Message.class);
+    }
+
+    private static List<String> ids(List<Message> messages) {
+        List<String> ids = new ArrayList<>();
+        for (Message message : messages) {
+            ids.add(message.getId());
+        }
+        return ids;
+    }
+
+    @Test
+    public void testTermPrefixAndFieldQueries() {
+        MessageSearchIndex index = new MessageSearchIndex();
+        index.add(message("a", "2024-01-01T10:00:00+00:00", "billing@bank.com", "Your Invoice for March", "Amount due: 42"));
+        index.add(message("b", "2024-01-02T10:00:00+00:00", "news@shop.com", "Weekly offers", "Invoices are attached"));
+        index.add(message("c", "2024-01-03T10:00:00+00:00", "support@bank.com", "Password reset", "Use code 1234"));
+
+        Assert.assertEquals(ids(index.search("invoice")), Arrays.asList("a"));
+        Assert.assertEquals(ids(index.search("INVOICE*")), Arrays.asList("b", "a"));
+        Assert.assertEquals(ids(index.search(MessageSearchIndex.Field.SENDER, "bank")), Arrays.asList("c", "a"));
+        Assert.assertEquals(ids(index.search("bank march")), Arrays.asList("a"));
+        Assert.assertTrue(index.search(MessageSearchIndex.Field.SUBJECT, "1234").isEmpty());
+        Assert.assertTrue(index.search("  ").isEmpty());
+    }
+
+    @Test
+    public void testRemoveAndReplace() {
+        MessageSearchIndex index = new MessageSearchIndex();
+        index.add(message("a", "2024-01-01T10:00:00+00:00", "x@y.com", "Hello", "first"));
+        index.add(message("a", "2024-01-01T10:00:00+00:00", "x@y.com", "Hello", "second"));
+
+        Assert.assertTrue(index.search("first").isEmpty());
+        Assert.assertEquals(index.search("second").size(), 1);
+        Assert.assertTrue(index.remove("a"));
+        Assert.assertFalse(index.remove("a"));
+        Assert.assertTrue(index.search("hello").isEmpty());
+        Assert.assertEquals(index.size(), 0);
+    }
+}
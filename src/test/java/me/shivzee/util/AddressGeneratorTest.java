@@ -0,0 +1,55 @@
+package me.shivzee.util;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+public class AddressGeneratorTest {
+
+    private static List<Domain> domain(String name) {
+        return Collections.singletonList(JsonCodec.getDefault().fromJson(
+                "{\"id\":\"1\",\"domain\":\"" + name + "\",\"isActive\":true}", Domain.class, null, false));
+    }
+
+    @Test
+    public void testFormat() {
+        AddressGenerator generator = new AddressGenerator("xyz", 12, 16).prefix("qa-");
+        String address = generator.next("mail.test");
+        Assert.assertTrue(address.matches("qa-[xyz]{12}@mail\\.test"), address);
+        Assert.assertTrue(generator.isRecent(address));
+    }
+
+    @Test
+    public void testEntropy() {
+        Assert.assertTrue(AddressGenerator.ofEntropy(64).getEntropyBits() >= 64);
+        Assert.assertEquals(AddressGenerator.ofEntropy(64).localPart().length(), 13);
+        Assert.assertEquals(AddressGenerator.defaults().localPart().length(), 10);
+    }
+
+    @Test
+    public void testBatchSkipsRecentAddresses() {
+        // 256 possible addresses, a batch of 128 would repeat some without the recent set
+        AddressGenerator generator = new AddressGenerator("ab", 8, 256);
+        List<String> addresses = generator.next(128, domain("mail.test"));
+        Assert.assertEquals(new HashSet<>(addresses).size(), 128);
+    }
+
+    @Test
+    public void testRecentSetIsBounded() {
+        AddressGenerator generator = new AddressGenerator(AddressGenerator.ALPHANUMERIC, 10, 4);
+        String first = generator.next("mail.test");
+        for (int i = 0; i < 4; i++) {
+            generator.next("mail.test");
+        }
+        Assert.assertFalse(generator.isRecent(first));
+    }
+
+    @Test
+    public void testCreateRandomString() {
+        Assert.assertTrue(Utility.createRandomString(20).matches("[a-z0-9]{20}"));
+        Assert.assertEquals(Utility.createRandomString(0), "");
+    }
+}
@@ -0,0 +1,106 @@
+package me.shivzee.util;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+public class AttachmentDownloaderTest {
+
+    private MockWebServer server;
+    private AttachmentDownloader downloader;
+
+    @BeforeMethod
+    public void start() throws Exception {
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                // Serve the attachment id as its content, slowly enough to overlap requests
+                String path = request.getPath();
+                return new MockResponse().setBody(path.substring(path.lastIndexOf('/') + 1))
+                        .setBodyDelay(100, TimeUnit.MILLISECONDS);
+            }
+        });
+        server.start();
+        downloader = new AttachmentDownloader(4, 0);
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void stop() throws Exception {
+        downloader.shutdown();
+        server.shutdown();
+    }
+
+    private String attachment(String id, String filename) {
+        return "{\"id\":\"" + id + "\",\"filename\":\"" + filename + "\",\"size\":1,\"downloadUrl\":\""
+                + server.url("/messages/m1/attachment/" + id) + "\"}";
+    }
+
+    @Test
+    public void testSameFilenamesGetDistinctFiles() throws Exception {
+        String json = "{\"id\":\"m1\",\"hasAttachments\":true,\"attachments\":["
+                + attachment("ATTACH000001", "report.pdf") + "," + attachment("ATTACH000002", "report.pdf") + "]}";
+        Message message = GsonCodec.getInstance().fromJson(json, Message.class, "token", true);
+        Path directory = Files.createTempDirectory("jmailtm");
+
+        List<DownloadResult> results = downloader.downloadMessages(Collections.singletonList(message), directory).get(10, TimeUnit.SECONDS);
+
+        Assert.assertEquals(results.size(), 2);
+        Assert.assertEquals(results.get(0).getPath(), directory.resolve("m1").resolve("ATTACH000001-report.pdf"));
+        Assert.assertEquals(results.get(1).getPath(), directory.resolve("m1").resolve("ATTACH000002-report.pdf"));
+        for (DownloadResult result : results) {
+            Assert.assertTrue(result.isSuccess());
+        }
+        Assert.assertEquals(new String(Files.readAllBytes(results.get(1).getPath()), StandardCharsets.UTF_8), "ATTACH000002");
+    }
+
+    @Test
+    public void testDeduplicatesByUrlAndTarget() throws Exception {
+        Attachment attachment = GsonCodec.getInstance().fromJson(attachment("ATTACH000001", "a.txt"), Attachment.class, "token", true);
+        Path directory = Files.createTempDirectory("jmailtm");
+
+        CompletableFuture<DownloadResult> first = downloader.download(attachment, directory.resolve("a.txt"));
+        CompletableFuture<DownloadResult> same = downloader.download(attachment, directory.resolve("a.txt"));
+        CompletableFuture<DownloadResult> other = downloader.download(attachment, directory.resolve("b.txt"));
+
+        Assert.assertSame(same, first);
+        Assert.assertNotSame(other, first);
+        Assert.assertTrue(first.get(10, TimeUnit.SECONDS).isSuccess());
+        Assert.assertTrue(other.get(10, TimeUnit.SECONDS).isSuccess());
+        Assert.assertTrue(Files.exists(directory.resolve("b.txt")));
+        Assert.assertEquals(server.getRequestCount(), 2);
+    }
+
+    @Test
+    public void testBadEntriesFailAlone() throws Exception {
+        String unnamed = "{\"id\":\"m1\",\"hasAttachments\":true,\"attachments\":[{\"id\":\"ATTACH000001\",\"size\":1,"
+                + "\"downloadUrl\":\"" + server.url("/messages/m1/attachment/ATTACH000001") + "\"}]}";
+        String orphan = "{\"hasAttachments\":true,\"attachments\":[" + attachment("ATTACH000002", "a.txt") + "]}";
+        Message first = GsonCodec.getInstance().fromJson(unnamed, Message.class, "token", true);
+        Message second = GsonCodec.getInstance().fromJson(orphan, Message.class, "token", true);
+        Path directory = Files.createTempDirectory("jmailtm");
+
+        List<DownloadResult> results = downloader.downloadMessages(Arrays.asList(first, second), directory).get(10, TimeUnit.SECONDS);
+
+        Assert.assertEquals(results.size(), 2);
+        Assert.assertTrue(results.get(0).isSuccess());
+        Assert.assertEquals(results.get(0).getPath(), directory.resolve("m1").resolve("ATTACH000001"));
+        // The message without an id has no folder to download into
+        Assert.assertFalse(results.get(1).isSuccess());
+        Assert.assertNull(results.get(1).getPath());
+    }
+}
@@ -0,0 +1,132 @@
+package me.shivzee.util;
+
+import me.shivzee.exceptions.CircuitOpenException;
+import me.shivzee.io.CircuitBreaker;
+import me.shivzee.io.Endpoint;
+import me.shivzee.io.IO;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+public class AttachmentTest {
+
+    private static final String CONTENT = "hello world";
+
+    private MockWebServer server;
+    private volatile boolean rejectRanges;
+
+    @BeforeMethod
+    public void start() throws Exception {
+        rejectRanges = false;
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String range = request.getHeader("Range");
+                if (range == null) {
+                    return new MockResponse().setBody(CONTENT);
+                }
+                int from = Integer.parseInt(range.substring("bytes=".length(), range.length() - 1));
+                if (rejectRanges || from >= CONTENT.length()) {
+                    return new MockResponse().setResponseCode(416);
+                }
+                return new MockResponse().setResponseCode(206)
+                        .setHeader("Content-Range", "bytes " + from + "-" + (CONTENT.length() - 1) + "/" + CONTENT.length())
+                        .setBody(CONTENT.substring(from));
+            }
+        });
+        server.start();
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void stop() throws Exception {
+        server.shutdown();
+    }
+
+    private Attachment attachment() {
+        String json = "{\"id\":\"ATTACH000001\",\"filename\":\"hello.txt\",\"size\":1,\"downloadUrl\":\""
+                + server.url("/messages/m1/attachment/ATTACH000001") + "\"}";
+        return GsonCodec.getInstance().fromJson(json, Attachment.class, "token", true);
+    }
+
+    @Test
+    public void testFullDownload() throws Exception {
+        Path target = Files.createTempDirectory("jmailtm").resolve("hello.txt");
+
+        DownloadResult result = attachment().download(target, null, null);
+
+        Assert.assertTrue(result.isSuccess());
+        Assert.assertEquals(result.getResponseCode(), 200);
+        Assert.assertFalse(result.isResumed());
+        Assert.assertEquals(new String(Files.readAllBytes(target), StandardCharsets.UTF_8), CONTENT);
+        Assert.assertFalse(Files.exists(target.resolveSibling("hello.txt.part")));
+        Assert.assertEquals(server.takeRequest().getHeader("Authorization"), "Bearer token");
+    }
+
+    @Test
+    public void testPartialDownloadIsResumed() throws Exception {
+        Path target = Files.createTempDirectory("jmailtm").resolve("hello.txt");
+        Files.write(target.resolveSibling("hello.txt.part"), "hello ".getBytes(StandardCharsets.UTF_8));
+
+        DownloadResult result = attachment().download(target, null, null);
+
+        Assert.assertTrue(result.isSuccess());
+        Assert.assertEquals(result.getResponseCode(), 206);
+        Assert.assertTrue(result.isResumed());
+        Assert.assertEquals(result.getBytes(), 5);
+        Assert.assertEquals(new String(Files.readAllBytes(target), StandardCharsets.UTF_8), CONTENT);
+        Assert.assertEquals(server.takeRequest().getHeader("Range"), "bytes=6-");
+    }
+
+    @Test
+    public void testRejectedRangeStartsOver() throws Exception {
+        rejectRanges = true;
+        Path target = Files.createTempDirectory("jmailtm").resolve("hello.txt");
+        Files.write(target.resolveSibling("hello.txt.part"), "stale".getBytes(StandardCharsets.UTF_8));
+
+        DownloadResult result = attachment().download(target, null, null);
+
+        Assert.assertTrue(result.isSuccess());
+        Assert.assertEquals(result.getResponseCode(), 200);
+        Assert.assertEquals(new String(Files.readAllBytes(target), StandardCharsets.UTF_8), CONTENT);
+        Assert.assertEquals(server.getRequestCount(), 2);
+    }
+
+    @Test
+    public void testExistingFileIsNotTouched() throws Exception {
+        Path target = Files.write(Files.createTempDirectory("jmailtm").resolve("hello.txt"), "mine".getBytes(StandardCharsets.UTF_8));
+
+        DownloadResult result = attachment().download(target, null, null);
+
+        Assert.assertFalse(result.isSuccess());
+        Assert.assertEquals(new String(Files.readAllBytes(target), StandardCharsets.UTF_8), "mine");
+        Assert.assertEquals(server.getRequestCount(), 0);
+    }
+
+    @Test
+    public void testOpenCircuitFailsStreamWithIOException() {
+        CircuitBreaker breaker = new CircuitBreaker(1, Duration.ofSeconds(10), Duration.ofSeconds(10));
+        breaker.onFailure();
+        IO.setCircuitBreaker(Endpoint.MESSAGES, breaker);
+        try {
+            attachment().openStream().close();
+            Assert.fail("the circuit should be open");
+        } catch (IOException e) {
+            Assert.assertTrue(e.getCause() instanceof CircuitOpenException);
+        } finally {
+            IO.setCircuitBreaker(Endpoint.MESSAGES, CircuitBreaker.defaults());
+        }
+        Assert.assertEquals(server.getRequestCount(), 0);
+    }
+}
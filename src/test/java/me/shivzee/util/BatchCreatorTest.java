@@ -0,0 +1,137 @@
+package me.shivzee.util;
+
+import me.shivzee.JMailTM;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import javax.security.auth.login.LoginException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+public class BatchCreatorTest {
+
+    private MockWebServer server;
+    private String baseUrl;
+    private final Set<String> existing = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger throttled = new AtomicInteger();
+    private final AtomicInteger failedLogins = new AtomicInteger();
+    private final Set<String> dropAfterCreate = ConcurrentHashMap.newKeySet();
+    private volatile String loginBody;
+
+    @BeforeMethod
+    public void startServer() throws Exception {
+        existing.clear();
+        dropAfterCreate.clear();
+        throttled.set(0);
+        failedLogins.set(0);
+        loginBody = null;
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String body = request.getBody().readUtf8();
+                String address = GsonCodec.getInstance().readString(body, "address");
+                if (request.getPath().equals("/accounts")) {
+                    if (throttled.getAndDecrement() > 0) {
+                        return new MockResponse().setResponseCode(429);
+                    }
+                    if (!existing.add(address)) {
+                        return new MockResponse().setResponseCode(422);
+                    }
+                    if (dropAfterCreate.remove(address)) {
+                        return new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AFTER_REQUEST);
+                    }
+                    return new MockResponse().setResponseCode(201).setBody("{}");
+                }
+                if (failedLogins.getAndDecrement() > 0) {
+                    return new MockResponse().setResponseCode(503);
+                }
+                if (!existing.contains(address)) {
+                    return new MockResponse().setResponseCode(401);
+                }
+                if (loginBody != null) {
+                    return new MockResponse().setResponseCode(200).setBody(loginBody);
+                }
+                return new MockResponse().setResponseCode(200).setBody("{\"token\":\"t-" + address + "\",\"id\":\"id-" + address + "\"}");
+            }
+        });
+        server.start();
+        String url = server.url("/").toString();
+        baseUrl = url.substring(0, url.length() - 1);
+    }
+
+    @AfterMethod
+    public void stopServer() throws Exception {
+        server.shutdown();
+    }
+
+    private static Supplier<String> sequence() {
+        AtomicInteger next = new AtomicInteger();
+        return () -> "user" + next.incrementAndGet() + "@mock.test";
+    }
+
+    @Test
+    public void testRetriesTransientFailures() {
+        throttled.set(3);
+        failedLogins.set(2);
+
+        List<JMailTM> accounts = new BatchCreator(baseUrl, "secret", sequence(), 100).run(20, 4).join();
+
+        Assert.assertEquals(accounts.size(), 20);
+        Assert.assertEquals(existing.size(), 20);
+    }
+
+    @Test
+    public void testReplacesTakenAddress() throws Exception {
+        existing.add("taken@mock.test");
+        Iterator<String> addresses = java.util.Arrays.asList("taken@mock.test", "free@mock.test").iterator();
+
+        JMailTM account = new BatchCreator(baseUrl, "secret", addresses::next, 100).createOne();
+
+        Assert.assertEquals(account.getAddress(), "free@mock.test");
+    }
+
+    @Test
+    public void testCreationWithLostAnswerIsNotRepeated() throws Exception {
+        dropAfterCreate.add("lost@mock.test");
+
+        JMailTM account = new BatchCreator(baseUrl, "secret", () -> "lost@mock.test", 100).createOne();
+
+        Assert.assertEquals(account.getAddress(), "lost@mock.test");
+        Assert.assertEquals(existing.size(), 1);
+    }
+
+    @Test
+    public void testStaysUnderRateLimit() {
+        long start = System.nanoTime();
+
+        List<JMailTM> accounts = new BatchCreator(baseUrl, "secret", sequence(), 20).run(20, 8).join();
+
+        // 40 requests against a bucket of 20 per second that starts full
+        Assert.assertEquals(accounts.size(), 20);
+        Assert.assertTrue(System.nanoTime() - start >= 900_000_000L);
+    }
+
+    @Test
+    public void testMalformedLoginIsRejected() {
+        loginBody = "<html>maintenance</html>";
+
+        try {
+            new BatchCreator(baseUrl, "secret", () -> "broken@mock.test", 100).createOne();
+            Assert.fail("a login without a token should fail");
+        } catch (LoginException expected) {
+            Assert.assertTrue(expected.getMessage().contains("no token"));
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package me.shivzee.util;
+
+import com.google.gson.Gson;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.time.Instant;
+
+public class CompactMessageTest {
+
+    private static final String MESSAGE = "{\"id\":\"m1\",\"msgid\":\"<x@example.com>\","
+            + "\"from\":{\"address\":\"a@example.com\",\"name\":\"A\"},"
+            + "\"to\":[{\"address\":\"u@mail.tm\",\"name\":\"U\"},\"v@mail.tm\"],"
+            + "\"subject\":\"Hello\",\"text\":\"Body\",\"seen\":true,\"flagged\":false,\"isDeleted\":false,"
+            + "\"retention\":true,\"retentionDate\":\"2024-01-08T10:00:00+00:00\",\"html\":[\"<p>\",\"Body</p>\"],"
+            + "\"hasAttachments\":true,\"attachments\":[{\"id\":\"ATT1\",\"filename\":\"f.pdf\",\"size\":12,"
+            + "\"downloadUrl\":\"/messages/m1/attachment/ATT1\"}],\"size\":99,\"downloadUrl\":\"/messages/m1/download\","
+            + "\"createdAt\":\"2024-01-01T10:00:00+00:00\",\"updatedAt\":\"2024-01-01T10:05:00+00:00\"}";
+
+    private final Gson gson = GsonCodec.getInstance().getGson(true);
+
+    @Test
+    public void testKeepsEveryReadableValue() throws Exception {
+        Message message = gson.fromJson(MESSAGE, Message.class);
+
+        CompactMessage compact = message.compact();
+
+        Assert.assertEquals(compact.getId(), "m1");
+        Assert.assertEquals(compact.getMsgid(), "<x@example.com>");
+        Assert.assertEquals(compact.getSenderAddress(), "a@example.com");
+        Assert.assertEquals(compact.getSenderName(), "A");
+        Assert.assertEquals(compact.getReceivers().size(), 2);
+        Assert.assertEquals(compact.getReceivers().get(0).getName(), "U");
+        Assert.assertEquals(compact.getReceivers().get(1).getAddress(), "v@mail.tm");
+        Assert.assertEquals(compact.getSubject(), "Hello");
+        Assert.assertEquals(compact.getContent(), "Body");
+        Assert.assertEquals(compact.getRawHTML(), "<p>Body</p>");
+        Assert.assertTrue(compact.isSeen());
+        Assert.assertFalse(compact.isFlagged());
+        Assert.assertFalse(compact.isDeleted());
+        Assert.assertTrue(compact.retention());
+        Assert.assertTrue(compact.hasAttachments());
+        Assert.assertEquals(compact.getAttachments().get(0).getId(), "ATT1");
+        Assert.assertEquals(compact.getRetentionDate(), "2024-01-08T10:00:00+00:00");
+        Assert.assertEquals(compact.getSize(), 99);
+        Assert.assertEquals(compact.getDownloadUrl(), message.getDownloadUrl());
+        Assert.assertEquals(compact.getCreatedInstant(), Instant.parse("2024-01-01T10:00:00Z"));
+        Assert.assertEquals(compact.getUpdatedInstant(), Instant.parse("2024-01-01T10:05:00Z"));
+    }
+
+    @Test
+    public void testAddressesAreShared() throws Exception {
+        CompactMessage first = gson.fromJson(MESSAGE, Message.class).compact();
+        CompactMessage second = gson.fromJson(MESSAGE, Message.class).compact();
+
+        Assert.assertSame(first.getSenderAddress(), second.getSenderAddress());
+        Assert.assertSame(first.getReceivers().get(0).getAddress(), second.getReceivers().get(0).getAddress());
+    }
+
+    @Test
+    public void testMissingValuesStayEmpty() throws Exception {
+        CompactMessage compact = gson.fromJson("{\"id\":\"m2\"}", Message.class).compact();
+
+        Assert.assertNull(compact.getSenderAddress());
+        Assert.assertTrue(compact.getReceivers().isEmpty());
+        Assert.assertTrue(compact.getAttachments().isEmpty());
+        Assert.assertEquals(compact.getRawHTML(), "");
+        Assert.assertNull(compact.getCreatedInstant());
+        Assert.assertNull(compact.getUpdatedInstant());
+        Assert.assertFalse(compact.isSeen());
+        Assert.assertEquals(compact.getSize(), 0);
+    }
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void testAttachmentsAreReadOnly() throws Exception {
+        gson.fromJson(MESSAGE, Message.class).compact().getAttachments().clear();
+    }
+}
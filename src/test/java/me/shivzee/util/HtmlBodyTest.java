@@ -0,0 +1,57 @@
+package me.shivzee.util;
+
+import me.shivzee.adapters.HtmlBodyAdapter;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+
+public class HtmlBodyTest {
+
+    @Test
+    public void testPartsAreJoinedOnceOnDemand() {
+        HtmlBody body = new HtmlBody(Arrays.asList("<p>", "Hello", "</p>"));
+
+        Assert.assertEquals(body.length(), 12);
+        Assert.assertEquals(body.charAt(3), 'H');
+        String joined = body.toString();
+        Assert.assertEquals(joined, "<p>Hello</p>");
+        Assert.assertSame(body.toString(), joined);
+        Assert.assertEquals(body.subSequence(3, 8), "Hello");
+    }
+
+    @Test
+    public void testSinglePartIsNotCopied() {
+        String part = new String("<p>Hello</p>");
+
+        Assert.assertSame(new HtmlBody(Collections.singletonList(part)).toString(), part);
+    }
+
+    @Test
+    public void testWriteToStreamsParts() throws Exception {
+        HtmlBody body = new HtmlBody(Arrays.asList("<p>", "Hello", "</p>"));
+        StringWriter writer = new StringWriter();
+
+        body.writeTo(writer);
+
+        Assert.assertEquals(writer.toString(), "<p>Hello</p>");
+    }
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void testPartsAreUnmodifiable() {
+        new HtmlBody(Arrays.asList("<p>", "</p>")).getParts().set(0, "<div>");
+    }
+
+    @Test
+    public void testAdapterAcceptsListOrString() throws Exception {
+        HtmlBodyAdapter adapter = new HtmlBodyAdapter();
+
+        Assert.assertEquals(adapter.fromJson("[\"<p>\",null,\"Hi</p>\"]").getParts(), Arrays.asList("<p>", "Hi</p>"));
+        Assert.assertEquals(adapter.fromJson("\"<p>Hi</p>\"").toString(), "<p>Hi</p>");
+        Assert.assertNull(adapter.fromJson("null"));
+        Assert.assertNull(HtmlBodyAdapter.SKIP.fromJson("[\"<p>Hi</p>\"]"));
+        Assert.assertEquals(adapter.toJson(new HtmlBody(Arrays.asList("<p>", "Hi</p>"))), "[\"<p>\",\"Hi</p>\"]");
+    }
+}
@@ -0,0 +1,60 @@
+package me.shivzee.util;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+public class JsonCodecTest {
+
+    @AfterMethod
+    public void resetDefault() {
+        JsonCodec.setDefault(null);
+    }
+
+    @Test
+    public void testGsonIsTheDefault() {
+        Assert.assertSame(JsonCodec.getDefault(), GsonCodec.getInstance());
+    }
+
+    @Test
+    public void testReadString() {
+        JsonCodec codec = GsonCodec.getInstance();
+        String json = "{\"@type\":\"Message\",\"nested\":{\"id\":\"inner\"},\"id\":\"outer\",\"exp\":1700000000,"
+                + "\"seen\":true,\"none\":null,\"list\":[1]}";
+
+        Assert.assertEquals(codec.readString(json, "@type"), "Message");
+        Assert.assertEquals(codec.readString(json, "id"), "outer");
+        Assert.assertEquals(codec.readString(json, "exp"), "1700000000");
+        Assert.assertEquals(codec.readString(json, "seen"), "true");
+        Assert.assertNull(codec.readString(json, "none"));
+        Assert.assertNull(codec.readString(json, "list"));
+        Assert.assertNull(codec.readString(json, "missing"));
+        Assert.assertNull(codec.readString("[1,2]", "id"));
+        Assert.assertNull(codec.readString("{\"id\":", "id"));
+    }
+
+    @Test
+    public void testRawJsonUsesTheDefault() {
+        Message message = GsonCodec.getInstance().fromJson("{\"id\":\"m1\",\"subject\":\"Hi\"}", Message.class, "token", true);
+        Assert.assertTrue(message.getRawJson().contains("\"subject\":\"Hi\""));
+
+        JsonCodec.setDefault(new JsonCodec() {
+            @Override
+            public <T> T fromJson(String json, Class<T> type, String bearerToken, boolean decodeHtml) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public String toJson(Object value) {
+                return "custom";
+            }
+
+            @Override
+            public String readString(String json, String member) {
+                return null;
+            }
+        });
+
+        Assert.assertEquals(message.getRawJson(), "custom");
+    }
+}
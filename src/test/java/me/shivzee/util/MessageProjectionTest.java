@@ -0,0 +1,62 @@
+package me.shivzee.util;
+
+import com.google.gson.Gson;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class MessageProjectionTest {
+
+    private static final String MESSAGE = "{\"id\":\"m1\",\"msgid\":\"<x@example.com>\","
+            + "\"from\":{\"address\":\"a@example.com\",\"name\":\"A\"},\"to\":[{\"address\":\"u@mail.tm\",\"name\":\"U\"}],"
+            + "\"subject\":\"Hello\",\"text\":\"Body\",\"seen\":true,\"flagged\":true,\"isDeleted\":false,"
+            + "\"retention\":true,\"retentionDate\":\"2024-01-08T10:00:00+00:00\",\"html\":[\"<p>\",\"Body</p>\"],"
+            + "\"hasAttachments\":true,\"attachments\":[{\"id\":\"ATT1\",\"filename\":\"f.pdf\",\"size\":12,"
+            + "\"downloadUrl\":\"/messages/m1/attachment/ATT1\"}],\"size\":99,\"downloadUrl\":\"/messages/m1/download\","
+            + "\"createdAt\":\"2024-01-01T10:00:00+00:00\",\"updatedAt\":\"2024-01-01T10:05:00+00:00\"}";
+
+    private final Gson gson = GsonCodec.getInstance().getGson(true);
+
+    @Test
+    public void testOnlyRequestedFieldsAreDecoded() throws Exception {
+        Message message = new MessageProjection(gson, "token", Fields.SUBJECT, Fields.TEXT).fromJson(MESSAGE);
+
+        Assert.assertEquals(message.getId(), "m1");
+        Assert.assertEquals(message.getSubject(), "Hello");
+        Assert.assertEquals(message.getContent(), "Body");
+
+        Assert.assertNull(message.getMsgid());
+        Assert.assertNull(message.getSenderAddress());
+        Assert.assertTrue(message.getReceivers().isEmpty());
+        Assert.assertFalse(message.isSeen());
+        Assert.assertFalse(message.isFlagged());
+        Assert.assertNull(message.getHtml());
+        Assert.assertEquals(message.getRawHTML(), "");
+        Assert.assertFalse(message.hasAttachments());
+        Assert.assertNull(message.getAttachments());
+        Assert.assertEquals(message.getSize(), 0);
+        Assert.assertNull(message.getDownloadUrl());
+        Assert.assertNull(message.getCreatedAt());
+    }
+
+    @Test
+    public void testNestedFieldsMatchFullDecode() throws Exception {
+        Message full = gson.fromJson(MESSAGE, Message.class);
+        Message message = new MessageProjection(gson, "token", Fields.FROM, Fields.TO, Fields.HTML, Fields.ATTACHMENTS,
+                Fields.SEEN, Fields.CREATED_AT).fromJson(MESSAGE);
+
+        Assert.assertEquals(message.getSenderName(), full.getSenderName());
+        Assert.assertEquals(message.getReceivers().get(0).getAddress(), "u@mail.tm");
+        Assert.assertEquals(message.getRawHTML(), "<p>Body</p>");
+        Assert.assertEquals(message.getAttachments().get(0).getFilename(), "f.pdf");
+        Assert.assertTrue(gson.toJson(message.getAttachments().get(0)).contains("\"bearerToken\":\"token\""));
+        Assert.assertTrue(message.isSeen());
+        Assert.assertEquals(message.getCreatedInstant(), full.getCreatedInstant());
+        Assert.assertNull(message.getSubject());
+        Assert.assertNull(message.getContent());
+    }
+
+    @Test
+    public void testNullMessage() throws Exception {
+        Assert.assertNull(new MessageProjection(gson, "token").fromJson("null"));
+    }
+}
@@ -0,0 +1,55 @@
+package me.shivzee.util;
+
+import com.google.gson.Gson;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ModelAdaptersTest {
+
+    private static final String MESSAGE = "{\"id\":\"m1\",\"msgid\":\"<x@example.com>\","
+            + "\"from\":{\"address\":\"a@example.com\",\"name\":\"A\"},\"to\":[{\"address\":\"u@mail.tm\",\"name\":\"U\"}],"
+            + "\"subject\":\"Hello\",\"text\":\"Body\",\"seen\":true,\"flagged\":false,\"isDeleted\":false,"
+            + "\"retention\":true,\"retentionDate\":\"2024-01-08T10:00:00+00:00\",\"html\":[\"<p>\",\"Body</p>\"],"
+            + "\"hasAttachments\":true,\"attachments\":[{\"id\":\"ATT1\",\"filename\":\"f.pdf\",\"contentType\":\"application/pdf\","
+            + "\"disposition\":\"attachment\",\"transferEncoding\":\"base64\",\"related\":false,\"size\":12,"
+            + "\"downloadUrl\":\"/messages/m1/attachment/ATT1\"}],\"size\":99,\"downloadUrl\":\"/messages/m1/download\","
+            + "\"createdAt\":\"2024-01-01T10:00:00+00:00\",\"updatedAt\":\"2024-01-01T10:05:00+00:00\","
+            + "\"@context\":\"/contexts/Message\",\"extra\":{\"nested\":[1,2,{\"a\":null}]}}";
+
+    @Test
+    public void testMessageMatchesReflectiveBinding() {
+        Gson reflective = new Gson();
+        Gson streaming = GsonCodec.getInstance().getGson(true);
+
+        Assert.assertEquals(streaming.toJson(streaming.fromJson(MESSAGE, Message.class)),
+                reflective.toJson(reflective.fromJson(MESSAGE, Message.class)));
+    }
+
+    @Test
+    public void testModelsMatchReflectiveBinding() {
+        Gson reflective = new Gson();
+        Gson streaming = GsonCodec.getInstance().getGson(true);
+        String account = "{\"id\":\"a1\",\"address\":\"x@mail.tm\",\"quota\":40000000,\"used\":0,"
+                + "\"isDisabled\":false,\"isDeleted\":null,\"createdAt\":\"2024-01-01T10:00:00+00:00\"}";
+        String domain = "{\"id\":\"d1\",\"domain\":\"mail.tm\",\"isActive\":true,\"isPrivate\":false}";
+        String summaries = "[{\"id\":\"s1\",\"from\":{\"address\":\"q@example.com\"},\"to\":[\"z@mail.tm\"],"
+                + "\"subject\":\"S\",\"intro\":\"I\",\"seen\":false,\"size\":3}]";
+
+        Assert.assertEquals(streaming.toJson(streaming.fromJson(account, Account.class)),
+                reflective.toJson(reflective.fromJson(account, Account.class)));
+        Assert.assertEquals(streaming.toJson(streaming.fromJson(domain, Domain.class)),
+                reflective.toJson(reflective.fromJson(domain, Domain.class)));
+        Assert.assertEquals(streaming.toJson(streaming.fromJson(summaries, MessageSummary[].class)),
+                reflective.toJson(reflective.fromJson(summaries, MessageSummary[].class)));
+    }
+
+    @Test
+    public void testCodecAttachesTokenToAttachments() {
+        Message message = GsonCodec.getInstance().fromJson(MESSAGE, Message.class, "token", true);
+
+        Assert.assertEquals(message.getSenderName(), "A");
+        Assert.assertEquals(message.getReceivers().get(0).getName(), "U");
+        Assert.assertEquals(message.getRawHTML(), "<p>Body</p>");
+        Assert.assertTrue(GsonCodec.getInstance().getGson(true).toJson(message.getAttachments().get(0)).contains("\"bearerToken\":\"token\""));
+    }
+}
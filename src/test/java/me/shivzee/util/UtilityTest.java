@@ -0,0 +1,30 @@
+package me.shivzee.util;
+
+import me.shivzee.exceptions.DateTimeParserException;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.time.OffsetDateTime;
+
+public class UtilityTest {
+
+    @Test
+    public void testParseInstantMatchesJavaTime() throws Exception {
+        String[] timestamps = {
+                "2024-01-31T10:15:30+00:00",
+                "2024-02-29T23:59:59+05:30",
+                "1999-12-31T00:00:00-08:00",
+                "2024-03-10T01:02:03.123456+00:00",
+                "2024-03-10T01:02:03Z",
+                "1969-07-20T20:17:40+00:00"
+        };
+        for (String timestamp : timestamps) {
+            Assert.assertEquals(Utility.parseInstant(timestamp), OffsetDateTime.parse(timestamp).toInstant(), timestamp);
+        }
+    }
+
+    @Test(expectedExceptions = DateTimeParserException.class)
+    public void testParseInstantRejectsInvalidDate() throws Exception {
+        Utility.parseInstant("2023-02-29T10:00:00+00:00");
+    }
+}